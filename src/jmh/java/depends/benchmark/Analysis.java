@@ -0,0 +1,151 @@
+package depends.benchmark;
+
+import depends.entity.repo.EntityRepo;
+import depends.entity.repo.ExpressionStore;
+import depends.extractor.AbstractLangProcessor;
+import depends.extractor.UnsolvedBindings;
+import depends.extractor.cpp.CppProcessor;
+import depends.extractor.golang.GoProcessor;
+import depends.extractor.java.JavaProcessor;
+import depends.extractor.kotlin.KotlinProcessor;
+import depends.extractor.python.union.PythonProcessor;
+import depends.extractor.ruby.RubyProcessor;
+import depends.relations.BindingResolver;
+import depends.relations.RelationCounter;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.TemporaryFile;
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The analysis of a synthetic repo, run stage by stage as depends.Main does
+ */
+class Analysis {
+	private static final PrintStream console = System.out;
+	/* the processors to shut down by close() */
+	private static final List<AbstractLangProcessor> processors = new ArrayList<>();
+
+	final AbstractLangProcessor langProcessor;
+	final BindingResolver bindingResolver;
+	EntityRepo entityRepo;
+
+	private Analysis(String language, boolean resolve) {
+		this.langProcessor = processorOf(language);
+		this.bindingResolver = resolve ? new BindingResolver(langProcessor, false, true)
+				: new BindingResolver(langProcessor, false, true) {
+					@Override
+					public Set<UnsolvedBindings> resolveAllBindings(boolean isEagerExpressionResolve) {
+						return new HashSet<>();
+					}
+				};
+	}
+
+	/**
+	 * Parse the files only, without resolving the bindings
+	 */
+	static Analysis parse(String language, File src) {
+		return new Analysis(language, false).build(src);
+	}
+
+	/**
+	 * Parse the files and resolve the bindings
+	 */
+	static Analysis resolve(String language, File src, int threads) {
+		Analysis analysis = new Analysis(language, true);
+		analysis.bindingResolver.setThreads(threads);
+		return analysis.build(src);
+	}
+
+	private Analysis build(File src) {
+		TemporaryFile.reset();
+		processors.add(langProcessor);
+		entityRepo = langProcessor.buildDependencies(FileUtil.uniqFilePath(src.getPath()), new String[]{}, bindingResolver);
+		return this;
+	}
+
+	/**
+	 * Resolve the bindings of the parsed files, by a new binding resolver
+	 */
+	Analysis resolveBindings(int threads) {
+		BindingResolver resolver = new BindingResolver(langProcessor, false, true);
+		resolver.setThreads(threads);
+		resolver.resolveAllBindings(langProcessor.isEagerExpressionResolve());
+		return this;
+	}
+
+	Analysis countRelations(int threads) {
+		RelationCounter relationCounter = new RelationCounter(entityRepo, langProcessor, bindingResolver);
+		relationCounter.setThreads(threads);
+		relationCounter.computeRelations();
+		return this;
+	}
+
+	static void close() {
+		ExpressionStore.shutdown();
+		for (AbstractLangProcessor processor : processors) {
+			processor.shutdown();
+		}
+		processors.clear();
+		TemporaryFile.getInstance().delete();
+	}
+
+	static AbstractLangProcessor processorOf(String language) {
+		switch (language) {
+		case "java":
+			return new JavaProcessor();
+		case "cpp":
+			return new CppProcessor();
+		case "python":
+			return new PythonProcessor();
+		case "go":
+			return new GoProcessor();
+		case "ruby":
+			return new RubyProcessor();
+		case "kotlin":
+			return new KotlinProcessor();
+		default:
+			throw new IllegalArgumentException("unsupported language: " + language);
+		}
+	}
+
+	/**
+	 * Generate the repo into a new temporary directory
+	 */
+	static File generate(String language, SyntheticRepo.Scale scale) throws IOException {
+		File dir = Files.createTempDirectory("depends-benchmark-" + language + "-").toFile();
+		return new SyntheticRepo(language, scale).writeTo(new File(dir, "src"));
+	}
+
+	static void delete(File src) throws IOException {
+		if (src != null)
+			FileUtils.deleteDirectory(src.getParentFile());
+	}
+
+	/**
+	 * The progress messages of the analysis (one line per file) are not part of the benchmarks
+	 */
+	static void silence() {
+		System.setOut(new PrintStream(new OutputStream() {
+			@Override
+			public void write(int b) {
+			}
+
+			@Override
+			public void write(byte[] b, int off, int len) {
+			}
+		}));
+	}
+
+	static void restoreOutput() {
+		System.setOut(console);
+	}
+}
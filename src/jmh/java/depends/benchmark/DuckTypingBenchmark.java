@@ -0,0 +1,89 @@
+package depends.benchmark;
+
+import depends.entity.Entity;
+import depends.entity.FunctionCall;
+import depends.entity.GenericName;
+import depends.entity.VarEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The duck typing deduction (BindingResolver.calculateCandidateTypes) of a resolved
+ * synthetic python repo: the types which contain all of 1-3 called functions, some of
+ * which are unknown.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DuckTypingBenchmark {
+	private static final int SEARCHES = 256;
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public SyntheticRepo.Scale scale;
+
+	private File src;
+	private Analysis analysis;
+	private VarEntity var;
+	private final List<List<FunctionCall>> searches = new ArrayList<>();
+
+	@Setup(Level.Trial)
+	public void resolve() throws IOException {
+		Analysis.silence();
+		src = Analysis.generate("python", scale);
+		analysis = Analysis.resolve("python", src, 1);
+		Iterator<Entity> iterator = analysis.entityRepo.entityIterator();
+		while (var == null && iterator.hasNext()) {
+			Entity entity = iterator.next();
+			if (entity instanceof VarEntity)
+				var = (VarEntity) entity;
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < SEARCHES; i++) {
+			List<FunctionCall> calls = new ArrayList<>();
+			for (int c = 0; c <= i % 3; c++) {
+				int method = random.nextInt(SyntheticRepo.METHODS + 2);
+				calls.add(new FunctionCall(GenericName.build("m" + method)));
+			}
+			searches.add(calls);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.close();
+		Analysis.delete(src);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(SEARCHES)
+	public void calculateCandidateTypes(Blackhole blackhole) {
+		for (List<FunctionCall> calls : searches) {
+			blackhole.consume(analysis.bindingResolver.calculateCandidateTypes(var, calls));
+		}
+	}
+}
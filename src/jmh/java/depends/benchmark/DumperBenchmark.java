@@ -0,0 +1,71 @@
+package depends.benchmark;
+
+import depends.deptypes.DependencyType;
+import depends.format.DependencyDumper;
+import depends.generator.DependencyGenerator;
+import depends.matrix.core.DependencyMatrix;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writing the file dependency matrix (with details) of a synthetic java repo in each
+ * output format. Note that the xls dumper skips matrices of more than 255 nodes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DumperBenchmark {
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public SyntheticRepo.Scale scale;
+
+	@Param({"json", "xml", "dot", "dotx", "detail", "plantuml", "briefplantuml", "xlsx", "xls"})
+	public String format;
+
+	private File src;
+	private File outputDir;
+	private DependencyMatrix matrix;
+
+	@Setup(Level.Trial)
+	public void identifyDependencies() throws IOException {
+		Analysis.silence();
+		src = Analysis.generate("java", scale);
+		Analysis analysis = Analysis.resolve("java", src, 1).countRelations(1);
+		DependencyGenerator generator = MatrixBenchmark.generatorOf("file");
+		generator.setGenerateDetail(true);
+		matrix = generator.identifyDependencies(analysis.entityRepo, DependencyType.allDependencies());
+		outputDir = Files.createTempDirectory("depends-benchmark-output-").toFile();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.close();
+		Analysis.delete(src);
+		FileUtils.deleteDirectory(outputDir);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	public void dump() {
+		new DependencyDumper(matrix).outputResult("benchmark", outputDir.getPath(), new String[]{format});
+	}
+}
@@ -0,0 +1,135 @@
+package depends.benchmark;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.extractor.java.JavaProcessor;
+import depends.relations.BindingResolver;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.TemporaryFile;
+import org.codehaus.plexus.util.FileUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * FileEntity.importedSuffixMatch of a file with wildcard imports of large packages, for
+ * the imported simple names, qualified names and unknown names. The scan benchmark is
+ * the former linear scan of the imported types, as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ImportedSuffixMatchBenchmark {
+	private static final int LOOKUPS = 1024;
+
+	@Param({"20"})
+	public int packages;
+
+	@Param({"50", "200"})
+	public int classes;
+
+	private File dir;
+	private FileEntity file;
+	private final String[] names = new String[LOOKUPS];
+
+	@Setup(Level.Trial)
+	public void build() throws IOException {
+		Analysis.silence();
+		dir = Files.createTempDirectory("depends-benchmark-suffix-").toFile();
+		file = buildWildcardImports(dir, packages, classes);
+		List<String> all = new ArrayList<>();
+		for (int p = 0; p < packages; p++) {
+			for (int c = 0; c < classes; c += 7) {
+				all.add("C" + p + "_" + c);
+				all.add("p" + p + ".C" + p + "_" + c);
+			}
+			all.add("Missing" + p);
+		}
+		for (int i = 0; i < LOOKUPS; i++) {
+			names[i] = all.get(i % all.size());
+			if (!String.valueOf(scan(file, names[i])).equals(String.valueOf(file.importedSuffixMatch(names[i]))))
+				throw new IllegalStateException("different result of " + names[i]);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.close();
+		FileUtils.deleteDirectory(dir);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void indexed(Blackhole blackhole) {
+		for (String name : names) {
+			blackhole.consume(file.importedSuffixMatch(name));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void scan(Blackhole blackhole) {
+		for (String name : names) {
+			blackhole.consume(scan(file, name));
+		}
+	}
+
+	private static FileEntity buildWildcardImports(File dir, int packages, int classes) throws IOException {
+		StringBuilder main = new StringBuilder("package app;\n");
+		for (int p = 0; p < packages; p++) {
+			File pkg = new File(dir, "p" + p);
+			pkg.mkdirs();
+			for (int c = 0; c < classes; c++) {
+				FileUtils.fileWrite(new File(pkg, "C" + p + "_" + c + ".java").getPath(),
+						"package p" + p + ";\npublic class C" + p + "_" + c + " {}\n");
+			}
+			main.append("import p").append(p).append(".*;\n");
+		}
+		main.append("public class Main {}\n");
+		File app = new File(dir, "app");
+		app.mkdirs();
+		FileUtils.fileWrite(new File(app, "Main.java").getPath(), main.toString());
+
+		TemporaryFile.reset();
+		JavaProcessor langProcessor = new JavaProcessor();
+		String src = FileUtil.uniqFilePath(dir.getPath());
+		langProcessor.buildDependencies(src, new String[]{}, new BindingResolver(langProcessor, false, false));
+		return langProcessor.getEntityRepo().getFileEntity(FileUtil.uniqFilePath(new File(app, "Main.java").getPath()));
+	}
+
+	/**
+	 * The former implementation of importedSuffixMatch
+	 */
+	private static String scan(FileEntity file, String lastName) {
+		if (!lastName.startsWith("."))
+			lastName = "." + lastName;
+		for (Entity imported : file.getImportedTypes()) {
+			if (imported.getQualifiedName(true).endsWith(lastName))
+				return imported.getQualifiedName(true);
+		}
+		return null;
+	}
+}
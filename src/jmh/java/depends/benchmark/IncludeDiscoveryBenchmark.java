@@ -0,0 +1,132 @@
+package depends.benchmark;
+
+import depends.extractor.cpp.IncludeDirectiveScanner;
+import depends.extractor.cpp.cdt.CDTParser;
+import depends.extractor.cpp.cdt.PreprocessorHandler;
+import multilang.depends.util.file.FileUtil;
+import org.codehaus.plexus.util.FileUtils;
+import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The include discovery of C++ translation units which include many headers: the
+ * IncludeDirectiveScanner pre-pass followed by one CDT parse, as CdtCppFileParser does,
+ * and the former full CDT parse before the second parse, as the baseline.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class IncludeDiscoveryBenchmark {
+	@Param({"50"})
+	public int sources;
+
+	@Param({"10", "40"})
+	public int headers;
+
+	@Param({"100"})
+	public int declarations;
+
+	private File dir;
+	private List<String> files;
+	private PreprocessorHandler preprocessorHandler;
+	private final Map<String, String> macroMap = new HashMap<>();
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		dir = Files.createTempDirectory("depends-benchmark-include-").toFile();
+		files = buildHeaderHeavySources(dir, sources, headers, declarations);
+		preprocessorHandler = new PreprocessorHandler(FileUtil.uniqFilePath(dir.getPath()), new ArrayList<>());
+		for (String file : files) {
+			IASTTranslationUnit tu = new CDTParser(preprocessorHandler.getIncludePaths()).parse(file, macroMap);
+			List<String> parsed = preprocessorHandler.getDirectIncludedFiles(tu.getAllPreprocessorStatements(), file);
+			List<String> scanned = preprocessorHandler.getDirectIncludedFiles(IncludeDirectiveScanner.scan(file), file);
+			if (!parsed.equals(scanned))
+				throw new IllegalStateException("different includes of " + file + ": " + parsed + " " + scanned);
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		FileUtils.deleteDirectory(dir);
+	}
+
+	@Benchmark
+	public void scanAndParseOnce(Blackhole blackhole) {
+		for (String file : files) {
+			blackhole.consume(preprocessorHandler.getDirectIncludedFiles(IncludeDirectiveScanner.scan(file), file));
+			blackhole.consume(new CDTParser(preprocessorHandler.getIncludePaths()).parse(file, macroMap));
+		}
+	}
+
+	@Benchmark
+	public void parseTwice(Blackhole blackhole) {
+		for (String file : files) {
+			IASTTranslationUnit tu = new CDTParser(preprocessorHandler.getIncludePaths()).parse(file, macroMap);
+			blackhole.consume(preprocessorHandler.getDirectIncludedFiles(tu.getAllPreprocessorStatements(), file));
+			blackhole.consume(new CDTParser(preprocessorHandler.getIncludePaths()).parse(file, macroMap));
+		}
+	}
+
+	/**
+	 * @return the generated sources (not the headers)
+	 */
+	private static List<String> buildHeaderHeavySources(File dir, int sources, int headers, int declarations) throws IOException {
+		File include = new File(dir, "include");
+		include.mkdirs();
+		for (int h = 0; h < headers; h++) {
+			StringBuilder header = new StringBuilder();
+			header.append("#ifndef H").append(h).append("_H\n#define H").append(h).append("_H\n");
+			if (h > 0)
+				header.append("#include \"h").append(h - 1).append(".h\"\n");
+			header.append("namespace n").append(h).append(" {\n");
+			for (int d = 0; d < declarations; d++) {
+				header.append("class C").append(d).append(" { public: int f(int a, double b); };\n");
+			}
+			header.append("}\n#endif\n");
+			FileUtils.fileWrite(new File(include, "h" + h + ".h").getPath(), header.toString());
+		}
+		List<String> files = new ArrayList<>();
+		for (int s = 0; s < sources; s++) {
+			StringBuilder source = new StringBuilder();
+			for (int h = 0; h < headers; h++) {
+				source.append("#include \"include/h").append(h).append(".h\"\n");
+			}
+			source.append("#include <vector>\n");
+			for (int d = 0; d < declarations; d++) {
+				source.append("int g").append(d).append("(int x) {\n")
+						.append("  n0::C").append(d).append(" c;\n")
+						.append("  if (x > ").append(d).append(") return c.f(x, 1.0) + g").append(d).append("(x - 1);\n")
+						.append("  return x * ").append(d).append(";\n}\n");
+			}
+			File file = new File(dir, "s" + s + ".cpp");
+			FileUtils.fileWrite(file.getPath(), source.toString());
+			files.add(FileUtil.uniqFilePath(file.getPath()));
+		}
+		return files;
+	}
+}
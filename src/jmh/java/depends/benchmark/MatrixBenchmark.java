@@ -0,0 +1,97 @@
+package depends.benchmark;
+
+import depends.deptypes.DependencyType;
+import depends.generator.DependencyGenerator;
+import depends.generator.FileDependencyGenerator;
+import depends.generator.FunctionDependencyGenerator;
+import depends.generator.StructureDependencyGenerator;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.transform.OrderedMatrixGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The dependency matrix of a synthetic java repo with its relations computed: building it
+ * from the entities, and reordering it by node names. Reordering renumbers the matrix in
+ * place, so it is built again before each reordering.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MatrixBenchmark {
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public SyntheticRepo.Scale scale;
+
+	@Param({"file", "method", "structure"})
+	public String granularity;
+
+	private File src;
+	private Analysis analysis;
+	private DependencyGenerator generator;
+	private final List<String> typeFilter = DependencyType.allDependencies();
+
+	@Setup(Level.Trial)
+	public void countRelations() throws IOException {
+		Analysis.silence();
+		src = Analysis.generate("java", scale);
+		analysis = Analysis.resolve("java", src, 1).countRelations(1);
+		generator = generatorOf(granularity);
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.close();
+		Analysis.delete(src);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	public DependencyMatrix buildMatrix() {
+		return generator.build(analysis.entityRepo, typeFilter);
+	}
+
+	@Benchmark
+	public DependencyMatrix reorderMatrix(FreshMatrix fresh) {
+		return new OrderedMatrixGenerator(fresh.matrix).build();
+	}
+
+	@State(Scope.Thread)
+	public static class FreshMatrix {
+		DependencyMatrix matrix;
+
+		@Setup(Level.Invocation)
+		public void build(MatrixBenchmark benchmark) {
+			matrix = benchmark.generator.build(benchmark.analysis.entityRepo, benchmark.typeFilter);
+		}
+	}
+
+	static DependencyGenerator generatorOf(String granularity) {
+		switch (granularity) {
+		case "method":
+			return new FunctionDependencyGenerator();
+		case "structure":
+			return new StructureDependencyGenerator();
+		default:
+			return new FileDependencyGenerator();
+		}
+	}
+}
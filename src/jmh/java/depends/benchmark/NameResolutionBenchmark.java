@@ -0,0 +1,119 @@
+package depends.benchmark;
+
+import depends.entity.ContainerEntity;
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.GenericName;
+import depends.entity.PackageEntity;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The name lookups of BindingResolver.resolveName from the types and functions of a
+ * resolved synthetic repo: the types of the repo by their simple names (mostly found through
+ * the imports), by their qualified names, and unknown names.
+ * With cached=false, the name resolution cache is invalidated before each lookup.
+ * resolveNameWhileNamesChange invalidates it every few lookups instead, the way new
+ * names become visible while the bindings are inferred.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NameResolutionBenchmark {
+	private static final int LOOKUPS = 1024;
+	private static final int LOOKUPS_PER_CHANGE = 16;
+
+	@Param({"java", "go", "python"})
+	public String language;
+
+	@Param({"SMALL", "MEDIUM"})
+	public SyntheticRepo.Scale scale;
+
+	@Param({"true", "false"})
+	public boolean cached;
+
+	private File src;
+	private Analysis analysis;
+	private final Entity[] scopes = new Entity[LOOKUPS];
+	private final GenericName[] names = new GenericName[LOOKUPS];
+
+	@Setup(Level.Trial)
+	public void resolve() throws IOException {
+		Analysis.silence();
+		src = Analysis.generate(language, scale);
+		analysis = Analysis.resolve(language, src, 1);
+		List<Entity> containers = new ArrayList<>();
+		Iterator<Entity> iterator = analysis.entityRepo.entityIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			if (entity instanceof ContainerEntity && !(entity instanceof FileEntity) && !(entity instanceof PackageEntity))
+				containers.add(entity);
+		}
+		Random random = new Random(42);
+		for (int i = 0; i < LOOKUPS; i++) {
+			scopes[i] = containers.get(random.nextInt(containers.size()));
+			int type = random.nextInt(scale.files);
+			switch (i % 4) {
+			case 0:
+				names[i] = GenericName.build(SyntheticRepo.pkg(type) + ".C" + type);
+				break;
+			case 1:
+				names[i] = GenericName.build("Unknown" + type);
+				break;
+			default:
+				names[i] = GenericName.build("C" + type);
+			}
+		}
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.close();
+		Analysis.delete(src);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void resolveName(Blackhole blackhole) {
+		for (int i = 0; i < LOOKUPS; i++) {
+			if (!cached)
+				Entity.visibleNamesChanged();
+			blackhole.consume(analysis.bindingResolver.resolveName(scopes[i], names[i], true));
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(LOOKUPS)
+	public void resolveNameWhileNamesChange(Blackhole blackhole) {
+		for (int i = 0; i < LOOKUPS; i++) {
+			if (i % LOOKUPS_PER_CHANGE == 0)
+				Entity.visibleNamesChanged();
+			blackhole.consume(analysis.bindingResolver.resolveName(scopes[i], names[i], true));
+		}
+	}
+}
@@ -0,0 +1,63 @@
+package depends.benchmark;
+
+import depends.entity.repo.EntityRepo;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The time to parse all files of a synthetic repo into entities (the bindings are not
+ * resolved). The throughput in files per second is the file count of the scale divided
+ * by the time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseBenchmark {
+	@Param({"java", "cpp", "python", "go", "ruby", "kotlin"})
+	public String language;
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public SyntheticRepo.Scale scale;
+
+	private File src;
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		Analysis.silence();
+		src = Analysis.generate(language, scale);
+	}
+
+	@TearDown(Level.Iteration)
+	public void close() {
+		Analysis.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.delete(src);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	public EntityRepo parse() {
+		return Analysis.parse(language, src).entityRepo;
+	}
+}
@@ -0,0 +1,70 @@
+package depends.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * RelationCounter.computeRelations on a resolved synthetic repo. The relations are added
+ * to the entities, so the repo is parsed and resolved again before each iteration.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RelationCountingBenchmark {
+	@Param({"java", "python", "go"})
+	public String language;
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public SyntheticRepo.Scale scale;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private File src;
+	private Analysis analysis;
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		Analysis.silence();
+		src = Analysis.generate(language, scale);
+	}
+
+	@Setup(Level.Iteration)
+	public void resolve() {
+		analysis = Analysis.resolve(language, src, 1);
+	}
+
+	@TearDown(Level.Iteration)
+	public void close() {
+		Analysis.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.delete(src);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	public Analysis computeRelations() {
+		return analysis.countRelations(threads);
+	}
+}
@@ -0,0 +1,71 @@
+package depends.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BindingResolver.resolveAllBindings on a parsed synthetic repo, by one thread or in
+ * phases with a pool (--resolve-threads). The bindings are kept in the entities, so the
+ * repo is parsed again before each iteration; the parsing is not timed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ResolveBenchmark {
+	@Param({"java", "go", "python", "ruby"})
+	public String language;
+
+	@Param({"SMALL", "MEDIUM", "LARGE"})
+	public SyntheticRepo.Scale scale;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private File src;
+	private Analysis analysis;
+
+	@Setup(Level.Trial)
+	public void generate() throws IOException {
+		Analysis.silence();
+		src = Analysis.generate(language, scale);
+	}
+
+	@Setup(Level.Iteration)
+	public void parse() {
+		analysis = Analysis.parse(language, src);
+	}
+
+	@TearDown(Level.Iteration)
+	public void close() {
+		Analysis.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void delete() throws IOException {
+		Analysis.delete(src);
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	public Analysis resolveAllBindings() {
+		return analysis.resolveBindings(threads);
+	}
+}
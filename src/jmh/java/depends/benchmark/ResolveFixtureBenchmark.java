@@ -0,0 +1,67 @@
+package depends.benchmark;
+
+import multilang.depends.util.file.FileUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * BindingResolver.resolveAllBindings on the bundled test fixtures
+ * (src/test/resources/{language}-code-examples), by the single thread path
+ * (threads=1) or in phases with a pool. Run it from the project directory.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ResolveFixtureBenchmark {
+	@Param({"java", "go", "python", "ruby"})
+	public String language;
+
+	@Param({"1", "4"})
+	public int threads;
+
+	private File src;
+	private Analysis analysis;
+
+	@Setup(Level.Trial)
+	public void locate() {
+		Analysis.silence();
+		src = new File(FileUtil.uniqFilePath("./src/test/resources/" + language + "-code-examples"));
+	}
+
+	@Setup(Level.Iteration)
+	public void parse() {
+		analysis = Analysis.parse(language, src);
+	}
+
+	@TearDown(Level.Iteration)
+	public void close() {
+		Analysis.close();
+	}
+
+	@TearDown(Level.Trial)
+	public void restoreOutput() {
+		Analysis.restoreOutput();
+	}
+
+	@Benchmark
+	public Analysis resolveAllBindings() {
+		return analysis.resolveBindings(threads);
+	}
+}
@@ -0,0 +1,295 @@
+package depends.benchmark;
+
+import org.codehaus.plexus.util.FileUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Generates reproducible source trees for the benchmarks. A tree has one type per file;
+ * the files are grouped in packages, and each type inherits from, holds, creates and calls
+ * the types of some earlier files, which are also imported. The same language and scale
+ * always generate the same tree.
+ */
+public class SyntheticRepo {
+	public static final String[] LANGUAGES = {"java", "cpp", "python", "go", "ruby", "kotlin"};
+	static final int METHODS = 8;
+	static final int DEPENDENCIES = 3;
+	static final int CALLS = 3;
+	private static final int FILES_PER_PACKAGE = 20;
+
+	public enum Scale {
+		SMALL(40), MEDIUM(400), LARGE(2000);
+
+		final int files;
+
+		Scale(int files) {
+			this.files = files;
+		}
+	}
+
+	/**
+	 * The type of a file, its base type (-1 if none) and the types it depends on
+	 */
+	static class Unit {
+		final int id;
+		final int base;
+		final int[] dependencies;
+		final int[][] calls;
+
+		Unit(int id, int base, int[] dependencies, int[][] calls) {
+			this.id = id;
+			this.base = base;
+			this.dependencies = dependencies;
+			this.calls = calls;
+		}
+	}
+
+	private final String language;
+	private final List<Unit> units = new ArrayList<>();
+
+	public SyntheticRepo(String language, Scale scale) {
+		this.language = language;
+		Random random = new Random(scale.files * 31L + language.hashCode());
+		for (int f = 0; f < scale.files; f++) {
+			int[] dependencies = new int[f == 0 ? 0 : Math.min(f, DEPENDENCIES)];
+			for (int d = 0; d < dependencies.length; d++) {
+				dependencies[d] = random.nextInt(f);
+			}
+			int base = dependencies.length > 0 && random.nextBoolean() ? dependencies[0] : -1;
+			/* for each method: pairs of (dependency index, method) to call */
+			int[][] calls = new int[METHODS][];
+			for (int m = 0; m < METHODS; m++) {
+				calls[m] = new int[dependencies.length == 0 ? 0 : CALLS * 2];
+				for (int c = 0; c < calls[m].length; c += 2) {
+					calls[m][c] = random.nextInt(dependencies.length);
+					calls[m][c + 1] = random.nextInt(METHODS);
+				}
+			}
+			units.add(new Unit(f, base, dependencies, calls));
+		}
+	}
+
+	public int getFileCount() {
+		return units.size();
+	}
+
+	/**
+	 * Write the source tree into the directory
+	 * @return the directory
+	 */
+	public File writeTo(File dir) throws IOException {
+		dir.mkdirs();
+		for (Unit unit : units) {
+			switch (language) {
+			case "java":
+				write(dir, pkg(unit.id) + "/C" + unit.id + ".java", java(unit));
+				break;
+			case "cpp":
+				write(dir, pkg(unit.id) + "/c" + unit.id + ".h", cppHeader(unit));
+				write(dir, pkg(unit.id) + "/c" + unit.id + ".cpp", cppSource(unit));
+				break;
+			case "python":
+				write(dir, pkg(unit.id) + "/__init__.py", "__all__ = []\n");
+				write(dir, pkg(unit.id) + "/m" + unit.id + ".py", python(unit));
+				break;
+			case "go":
+				write(dir, pkg(unit.id) + "/c" + unit.id + ".go", go(unit));
+				break;
+			case "ruby":
+				write(dir, pkg(unit.id) + "/c" + unit.id + ".rb", ruby(unit));
+				break;
+			case "kotlin":
+				write(dir, pkg(unit.id) + "/C" + unit.id + ".kt", kotlin(unit));
+				break;
+			default:
+				throw new IllegalArgumentException("unsupported language: " + language);
+			}
+		}
+		return dir;
+	}
+
+	private static void write(File dir, String path, String content) throws IOException {
+		File file = new File(dir, path);
+		file.getParentFile().mkdirs();
+		FileUtils.fileWrite(file.getPath(), "UTF-8", content);
+	}
+
+	static String pkg(int id) {
+		return "p" + (id / FILES_PER_PACKAGE);
+	}
+
+	private static String java(Unit unit) {
+		StringBuilder s = new StringBuilder();
+		s.append("package ").append(pkg(unit.id)).append(";\n\n");
+		for (int d : unit.dependencies) {
+			s.append("import ").append(pkg(d)).append(".C").append(d).append(";\n");
+		}
+		s.append("\npublic class C").append(unit.id);
+		if (unit.base >= 0)
+			s.append(" extends C").append(unit.base);
+		s.append(" {\n");
+		for (int d = 0; d < unit.dependencies.length; d++) {
+			s.append("\tprivate C").append(unit.dependencies[d]).append(" f").append(d).append(";\n");
+		}
+		for (int m = 0; m < METHODS; m++) {
+			s.append("\tpublic int m").append(m).append("(int a) {\n");
+			for (int c = 0; c < unit.calls[m].length; c += 2) {
+				int d = unit.calls[m][c];
+				s.append("\t\tC").append(unit.dependencies[d]).append(" v").append(c).append(" = new C").append(unit.dependencies[d]).append("();\n");
+				s.append("\t\ta += v").append(c).append(".m").append(unit.calls[m][c + 1]).append("(a) + f").append(d).append(".m").append(unit.calls[m][c + 1]).append("(a);\n");
+			}
+			s.append("\t\treturn a;\n\t}\n");
+		}
+		s.append("}\n");
+		return s.toString();
+	}
+
+	private static String cppHeader(Unit unit) {
+		StringBuilder s = new StringBuilder();
+		s.append("#ifndef C").append(unit.id).append("_H\n#define C").append(unit.id).append("_H\n");
+		for (int d : unit.dependencies) {
+			s.append("#include \"../").append(pkg(d)).append("/c").append(d).append(".h\"\n");
+		}
+		s.append("namespace ").append(pkg(unit.id)).append(" {\nclass C").append(unit.id);
+		if (unit.base >= 0)
+			s.append(" : public ").append(pkg(unit.base)).append("::C").append(unit.base);
+		s.append(" {\npublic:\n");
+		for (int d = 0; d < unit.dependencies.length; d++) {
+			s.append("\t").append(pkg(unit.dependencies[d])).append("::C").append(unit.dependencies[d]).append(" *f").append(d).append(";\n");
+		}
+		for (int m = 0; m < METHODS; m++) {
+			s.append("\tint m").append(m).append("(int a);\n");
+		}
+		s.append("};\n}\n#endif\n");
+		return s.toString();
+	}
+
+	private static String cppSource(Unit unit) {
+		StringBuilder s = new StringBuilder();
+		s.append("#include \"c").append(unit.id).append(".h\"\n");
+		s.append("namespace ").append(pkg(unit.id)).append(" {\n");
+		for (int m = 0; m < METHODS; m++) {
+			s.append("int C").append(unit.id).append("::m").append(m).append("(int a) {\n");
+			for (int c = 0; c < unit.calls[m].length; c += 2) {
+				int d = unit.calls[m][c];
+				s.append("\t").append(pkg(unit.dependencies[d])).append("::C").append(unit.dependencies[d]).append(" v").append(c).append(";\n");
+				s.append("\ta += v").append(c).append(".m").append(unit.calls[m][c + 1]).append("(a) + f").append(d).append("->m").append(unit.calls[m][c + 1]).append("(a);\n");
+			}
+			s.append("\treturn a;\n}\n");
+		}
+		s.append("}\n");
+		return s.toString();
+	}
+
+	private static String python(Unit unit) {
+		StringBuilder s = new StringBuilder();
+		for (int d : unit.dependencies) {
+			s.append("from ").append(pkg(d)).append(".m").append(d).append(" import C").append(d).append("\n");
+		}
+		s.append("\n\nclass C").append(unit.id);
+		if (unit.base >= 0)
+			s.append("(C").append(unit.base).append(")");
+		s.append(":\n");
+		for (int m = 0; m < METHODS; m++) {
+			s.append("    def m").append(m).append("(self, a):\n");
+			for (int c = 0; c < unit.calls[m].length; c += 2) {
+				s.append("        v").append(c).append(" = C").append(unit.dependencies[unit.calls[m][c]]).append("()\n");
+				s.append("        a += v").append(c).append(".m").append(unit.calls[m][c + 1]).append("(a)\n");
+			}
+			s.append("        return a\n\n");
+		}
+		/* the parameter has no declared type: its candidate types are deduced from the calls */
+		s.append("\ndef use").append(unit.id).append("(obj):\n");
+		for (int m = 0; m < METHODS; m += 3) {
+			s.append("    obj.m").append(m).append("(").append(m).append(")\n");
+		}
+		return s.toString();
+	}
+
+	private static String go(Unit unit) {
+		StringBuilder s = new StringBuilder();
+		s.append("package ").append(pkg(unit.id)).append("\n\n");
+		for (int d : unit.dependencies) {
+			if (!pkg(d).equals(pkg(unit.id)))
+				s.append("import \"fixture/").append(pkg(d)).append("\"\n");
+		}
+		s.append("\ntype C").append(unit.id).append(" struct {\n");
+		if (unit.base >= 0)
+			s.append("\t").append(goType(unit.id, unit.base)).append("\n");
+		for (int d = 0; d < unit.dependencies.length; d++) {
+			s.append("\tf").append(d).append(" *").append(goType(unit.id, unit.dependencies[d])).append("\n");
+		}
+		s.append("}\n");
+		for (int m = 0; m < METHODS; m++) {
+			s.append("\nfunc (c *C").append(unit.id).append(") M").append(m).append("(a int) int {\n");
+			for (int c = 0; c < unit.calls[m].length; c += 2) {
+				int d = unit.calls[m][c];
+				s.append("\tv").append(c).append(" := ").append(goType(unit.id, unit.dependencies[d])).append("{}\n");
+				s.append("\ta += v").append(c).append(".M").append(unit.calls[m][c + 1]).append("(a) + c.f").append(d).append(".M").append(unit.calls[m][c + 1]).append("(a)\n");
+			}
+			s.append("\treturn a\n}\n");
+		}
+		return s.toString();
+	}
+
+	private static String goType(int from, int to) {
+		if (pkg(from).equals(pkg(to)))
+			return "C" + to;
+		return pkg(to) + ".C" + to;
+	}
+
+	private static String ruby(Unit unit) {
+		StringBuilder s = new StringBuilder();
+		for (int d : unit.dependencies) {
+			s.append("require_relative '../").append(pkg(d)).append("/c").append(d).append("'\n");
+		}
+		s.append("\nmodule ").append(pkg(unit.id).toUpperCase()).append("\n  class C").append(unit.id);
+		if (unit.base >= 0)
+			s.append(" < ").append(rubyType(unit.base));
+		s.append("\n");
+		for (int m = 0; m < METHODS; m++) {
+			s.append("    def m").append(m).append("(a)\n");
+			for (int c = 0; c < unit.calls[m].length; c += 2) {
+				s.append("      v").append(c).append(" = ").append(rubyType(unit.dependencies[unit.calls[m][c]])).append(".new\n");
+				s.append("      a += v").append(c).append(".m").append(unit.calls[m][c + 1]).append("(a)\n");
+			}
+			s.append("      a\n    end\n");
+		}
+		s.append("  end\nend\n");
+		return s.toString();
+	}
+
+	private static String rubyType(int id) {
+		return pkg(id).toUpperCase() + "::C" + id;
+	}
+
+	private static String kotlin(Unit unit) {
+		StringBuilder s = new StringBuilder();
+		s.append("package ").append(pkg(unit.id)).append("\n\n");
+		for (int d : unit.dependencies) {
+			s.append("import ").append(pkg(d)).append(".C").append(d).append("\n");
+		}
+		s.append("\nopen class C").append(unit.id);
+		if (unit.base >= 0)
+			s.append(" : C").append(unit.base).append("()");
+		s.append(" {\n");
+		for (int d = 0; d < unit.dependencies.length; d++) {
+			s.append("    private val f").append(d).append(" = C").append(unit.dependencies[d]).append("()\n");
+		}
+		for (int m = 0; m < METHODS; m++) {
+			s.append(unit.base >= 0 ? "    override fun m" : "    open fun m").append(m).append("(a: Int): Int {\n        var r = a\n");
+			for (int c = 0; c < unit.calls[m].length; c += 2) {
+				int d = unit.calls[m][c];
+				s.append("        val v").append(c).append(" = C").append(unit.dependencies[d]).append("()\n");
+				s.append("        r += v").append(c).append(".m").append(unit.calls[m][c + 1]).append("(r) + f").append(d).append(".m").append(unit.calls[m][c + 1]).append("(r)\n");
+			}
+			s.append("        return r\n    }\n");
+		}
+		s.append("}\n");
+		return s.toString();
+	}
+}
@@ -25,6 +25,8 @@ SOFTWARE.
 package depends;
 
 import depends.deptypes.DependencyType;
+import depends.entity.repo.ExpressionStore;
+import depends.extractor.AntlrPredictionCache;
 import depends.extractor.LangProcessorRegistration;
 import picocli.CommandLine.Command;
 import picocli.CommandLine.Option;
@@ -72,6 +74,8 @@ public class DependsCommand {
 	private boolean autoInclude = false;
 	@Option(names = {"--detail"},split=",", description = "add detail dependency information to output (only applicable for JSON output format)")
 	private boolean detail = false;	
+	@Option(names = {"--compact-json"}, description = "Write the JSON output without pretty printing, which is smaller and faster to write")
+	private boolean compactJson = false;
 	@Option(names = {"--auto-stub"},split=",", description = "create stub files for unsolved symbols (exprimental feature, only for java)")
 	private boolean autoStub = false;	
 	@Option(names = {"--type-filter"},split=",",  completionCandidates = DependsCommand.SupportedTypes.class, description = "only filter the listed dependency types[${COMPLETION-CANDIDATES}]")
@@ -82,6 +86,30 @@ public class DependsCommand {
 	private boolean duckTypingDeduce = true;
 	@Option(names = {"--output-self-deps"}, description = "Output self dependencies")
 	private boolean outputSelfDependencies = false;
+	@Option(names = {"--parse-threads"}, description = "The number of threads to parse files (default 1)")
+	private int parseThreads = 1;
+	@Option(names = {"--relation-threads"}, description = "The number of threads to compute relations (default 1)")
+	private int relationThreads = 1;
+	@Option(names = {"--resolve-threads"}, description = "The number of threads to resolve type bindings (default 1). With more than one thread, the supertypes of all types are resolved first, then the declarations of files in parallel, then the expressions; a name could then be found through the supertypes of a type in a file sorted later.")
+	private int resolveThreads = 1;
+	@Option(names = {"--concurrent-repo"}, description = "Use the thread-safe entity repository (hash indexed, lock-free lookup)")
+	private boolean concurrentRepo = false;
+	@Option(names = {"--expression-store"}, description = "How to spill expressions out of memory: [segment(default),mmap,file]")
+	private String expressionStore = "segment";
+	@Option(names = {"--max-mapped-bytes"}, description = "The max bytes of memory-mapped expression segments, only for --expression-store=mmap (default 1GB)")
+	private long maxMappedBytes = ExpressionStore.DEFAULT_MAX_MAPPED_BYTES;
+	@Option(names = {"--expression-cache-bytes"}, description = "The max bytes of expressions kept in memory before spilling to disk (default 128MB, 0 to always spill)")
+	private long maxCachedBytes = ExpressionStore.DEFAULT_MAX_CACHED_BYTES;
+	@Option(names = {"--parse-cache"}, description = "The directory to cache the parse result of files between runs. Only the changed files are parsed again. (java and go only)")
+	private String parseCache = null;
+	@Option(names = {"--macro-cache"}, description = "The directory to cache the default macros of the include paths between runs, only for cpp")
+	private String macroCache = null;
+	@Option(names = {"--dfa-cache-bytes"}, description = "The max bytes of the ANTLR prediction cache (DFA) of each language, shared by all files. It is reset once over the limit (default 256MB)")
+	private long dfaCacheBytes = AntlrPredictionCache.DEFAULT_MAX_BYTES;
+	@Option(names = {"--ll-only"}, split=",", description = "The languages parsed by the full LL prediction only, without trying the faster SLL prediction first, e.g. --ll-only=kotlin,python")
+	private String[] llOnlyLanguages = new String[]{};
+	@Option(names = {"--metrics-out"}, description = "Write the metrics of the analysis (time of each phase, throughput, counts, cache hit rates, GC time) to the JSON file")
+	private String metricsOut = null;
 	@Option(names = {"-h","--help"}, usageHelp = true, description = "display this help and exit")
     boolean help;
 	public DependsCommand() {
@@ -138,6 +166,9 @@ public class DependsCommand {
 	public boolean isDetail () {
 		return detail;
 	}
+	public boolean isCompactJson() {
+		return compactJson;
+	}
 	public String[] getStrippedPaths() {
 		return strippedPaths;
 	}
@@ -162,4 +193,40 @@ public class DependsCommand {
 	public boolean isDuckTypingDeduce() {
 		return this.duckTypingDeduce;
 	}
+	public int getParseThreads() {
+		return parseThreads;
+	}
+	public int getRelationThreads() {
+		return relationThreads;
+	}
+	public int getResolveThreads() {
+		return resolveThreads;
+	}
+	public boolean isConcurrentRepo() {
+		return concurrentRepo;
+	}
+	public String getExpressionStore() {
+		return expressionStore;
+	}
+	public long getMaxMappedBytes() {
+		return maxMappedBytes;
+	}
+	public long getMaxCachedBytes() {
+		return maxCachedBytes;
+	}
+	public String getParseCache() {
+		return parseCache;
+	}
+	public String getMacroCache() {
+		return macroCache;
+	}
+	public long getDfaCacheBytes() {
+		return dfaCacheBytes;
+	}
+	public String[] getLlOnlyLanguages() {
+		return llOnlyLanguages;
+	}
+	public String getMetricsOut() {
+		return metricsOut;
+	}
 }
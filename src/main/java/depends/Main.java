@@ -25,10 +25,16 @@ SOFTWARE.
 package depends;
 
 import depends.addons.DV8MappingFileBuilder;
+import depends.entity.ContainerEntity;
+import depends.entity.Entity;
+import depends.entity.repo.ConcurrentEntityRepo;
 import depends.entity.repo.EntityRepo;
+import depends.entity.repo.ExpressionStore;
 import depends.extractor.AbstractLangProcessor;
+import depends.extractor.AntlrPredictionCache;
 import depends.extractor.LangProcessorRegistration;
 import depends.extractor.UnsolvedBindings;
+import depends.extractor.cpp.DefaultMacroCache;
 import depends.format.DependencyDumper;
 import depends.format.detail.UnsolvedSymbolDumper;
 import depends.generator.DependencyGenerator;
@@ -36,8 +42,8 @@ import depends.generator.FileDependencyGenerator;
 import depends.generator.FunctionDependencyGenerator;
 import depends.generator.StructureDependencyGenerator;
 import depends.matrix.core.DependencyMatrix;
+import depends.metrics.PipelineMetrics;
 import depends.relations.BindingResolver;
-import depends.relations.IBindingResolver;
 import depends.relations.RelationCounter;
 import edu.emory.mathcs.backport.java.util.Arrays;
 import multilang.depends.util.file.FileUtil;
@@ -51,7 +57,9 @@ import picocli.CommandLine;
 import picocli.CommandLine.PicocliException;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -92,6 +100,27 @@ public class Main {
 				throw  new ParameterException("granularity is invalid:"+g);
 			}
 		}
+		if (args.getParseThreads()<1) {
+			throw new ParameterException("parse threads should be at least 1:"+args.getParseThreads());
+		}
+		if (args.getRelationThreads()<1) {
+			throw new ParameterException("relation threads should be at least 1:"+args.getRelationThreads());
+		}
+		if (args.getResolveThreads()<1) {
+			throw new ParameterException("resolve threads should be at least 1:"+args.getResolveThreads());
+		}
+		if (!ExpressionStore.isSupportedType(args.getExpressionStore())) {
+			throw new ParameterException("unsupported expression store:"+args.getExpressionStore());
+		}
+		if (args.getMaxMappedBytes()<0) {
+			throw new ParameterException("max mapped bytes should not be negative:"+args.getMaxMappedBytes());
+		}
+		if (args.getMaxCachedBytes()<0) {
+			throw new ParameterException("expression cache bytes should not be negative:"+args.getMaxCachedBytes());
+		}
+		if (args.getDfaCacheBytes()<0) {
+			throw new ParameterException("dfa cache bytes should not be negative:"+args.getDfaCacheBytes());
+		}
 	}
 
 	@SuppressWarnings("unchecked")
@@ -114,14 +143,35 @@ public class Main {
 			System.err.println("Not support this language: " + lang);
 			return;
 		}
+		langProcessor.setParseThreads(args.getParseThreads());
+		langProcessor.setParseCacheDir(args.getParseCache());
+		ExpressionStore.setStoreType(args.getExpressionStore());
+		ExpressionStore.setMaxMappedBytes(args.getMaxMappedBytes());
+		ExpressionStore.setMaxCachedBytes(args.getMaxCachedBytes());
+		DefaultMacroCache.setCacheDir(args.getMacroCache());
+		AntlrPredictionCache.setMaxBytes(args.getDfaCacheBytes());
+		for (String language:args.getLlOnlyLanguages()) {
+			AntlrPredictionCache.setTwoStageParse(language, false);
+		}
+		if (args.isConcurrentRepo()) {
+			langProcessor.setEntityRepo(new ConcurrentEntityRepo());
+		}
 
-		IBindingResolver bindingResolver = new BindingResolver(langProcessor, args.isOutputExternalDependencies(), args.isDuckTypingDeduce());
+		BindingResolver bindingResolver = new BindingResolver(langProcessor, args.isOutputExternalDependencies(), args.isDuckTypingDeduce());
+		bindingResolver.setThreads(args.getResolveThreads());
 
+		PipelineMetrics metrics = PipelineMetrics.getInstance();
+		metrics.reset();
+		metrics.setLanguage(lang);
 		long startTime = System.currentTimeMillis();
 		//step1: build data
 		EntityRepo entityRepo = langProcessor.buildDependencies(inputDir, includeDir, bindingResolver);
 
-		new RelationCounter(entityRepo,langProcessor, bindingResolver).computeRelations();
+		RelationCounter relationCounter = new RelationCounter(entityRepo,langProcessor, bindingResolver);
+		relationCounter.setThreads(args.getRelationThreads());
+		try (PipelineMetrics.Phase phase = metrics.start("relationCounting")) {
+			relationCounter.computeRelations();
+		}
 		System.out.println("Dependency done....");
 
 		//step2: generate dependencies matrix
@@ -129,6 +179,7 @@ public class Main {
 		for (DependencyGenerator dependencyGenerator:dependencyGenerators) {
 			DependencyMatrix matrix = dependencyGenerator.identifyDependencies(entityRepo, args.getTypeFilter());
 			DependencyDumper output = new DependencyDumper(matrix);
+			output.setPrettyPrint(!args.isCompactJson());
 			output.outputResult(outputName+"-"+dependencyGenerator.getType(), outputDir, outputFormat);
 		}
 
@@ -139,6 +190,16 @@ public class Main {
 	    	unsolvedSymbolDumper.output();
 		}
 		long endTime = System.currentTimeMillis();
+		if (args.getMetricsOut()!=null) {
+			collectMetrics(metrics, langProcessor, entityRepo, bindingResolver);
+			try {
+				metrics.write(new File(args.getMetricsOut()));
+			} catch (IOException e) {
+				System.err.println("cannot write metrics to " + args.getMetricsOut() + ": " + e.getMessage());
+			}
+		}
+		ExpressionStore.shutdown();
+		langProcessor.shutdown();
 		TemporaryFile.getInstance().delete();
 		CacheManager.create().shutdown();
 		System.out.println("Consumed time: " + (float) ((endTime - startTime) / 1000.00) + " s,  or "
@@ -149,6 +210,37 @@ public class Main {
 		}
 	}
 
+	/**
+	 * The counters and the cache hit rates of the run; the time of phases is recorded where they run
+	 */
+	private static void collectMetrics(PipelineMetrics metrics, AbstractLangProcessor langProcessor, EntityRepo entityRepo, BindingResolver bindingResolver) {
+		long entities = 0;
+		long expressions = 0;
+		Iterator<Entity> iterator = entityRepo.entityIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			entities++;
+			if (entity instanceof ContainerEntity)
+				expressions += ((ContainerEntity) entity).getExpressionCount();
+		}
+		metrics.count("files", langProcessor.getFileCount());
+		metrics.count("entities", entities);
+		metrics.count("expressions", expressions);
+		metrics.count("unsolvedBindings", langProcessor.getExternalDependencies().size());
+		ExpressionStore expressionStore = ExpressionStore.getInstance();
+		metrics.count("spillBytes", expressionStore.getSpilledBytes());
+		metrics.cache("expressionStore", expressionStore.getCacheHits(), expressionStore.getCacheMisses());
+		metrics.cache("nameResolution", bindingResolver.getNameCacheHits(), bindingResolver.getNameCacheMisses());
+		metrics.cache("functionNameIndex", bindingResolver.getDuckTypingMemoHits(),
+				bindingResolver.getDuckTypingQueries() - bindingResolver.getDuckTypingMemoHits());
+		for (AntlrPredictionCache predictionCache:AntlrPredictionCache.all()) {
+			if (predictionCache.getParsedFiles()==0) continue;
+			metrics.cache("antlrSllParse." + predictionCache.getLanguage(), predictionCache.getSllParses(), predictionCache.getLlFallbacks());
+			metrics.count("dfaStates." + predictionCache.getLanguage(), predictionCache.getDfaStates());
+		}
+		langProcessor.reportMetrics(metrics);
+	}
+
 	private static String[] appendAllFoldersToIncludePath(String inputDir, String[] includeDir) {
 		FolderCollector includePathCollector = new FolderCollector();
 		List<String> additionalIncludePaths = includePathCollector.getFolders(inputDir);
@@ -36,7 +36,7 @@ public class AliasEntity extends Entity {
 	public AliasEntity() {
 		
 	}
-	public AliasEntity(GenericName simpleName, Entity parent, Integer id, GenericName originTypeName) {
+	public AliasEntity(GenericName simpleName, Entity parent, int id, GenericName originTypeName) {
 		super(simpleName, parent, id);
 		this.originName = originTypeName;
 	}
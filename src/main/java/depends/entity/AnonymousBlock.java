@@ -27,7 +27,7 @@ package depends.entity;
 import java.util.UUID;
 
 public class AnonymousBlock extends ContainerEntity{
-    public AnonymousBlock(Entity parent, Integer id) {
-    	super(GenericName.build(UUID.randomUUID().toString()),  parent, id);
+    public AnonymousBlock(Entity parent, int id) {
+    	super(GenericName.buildUnique(UUID.randomUUID().toString()),  parent, id);
 	}
 }
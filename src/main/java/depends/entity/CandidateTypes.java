@@ -35,7 +35,7 @@ public class CandidateTypes extends TypeEntity {
 	public CandidateTypes() {
 		candidateTypes = new ArrayList<>();
 	}
-	public CandidateTypes(List<TypeEntity> candidateTypes, Integer id) {
+	public CandidateTypes(List<TypeEntity> candidateTypes, int id) {
 		super(GenericName.build("candidateTypes"), null, id);
 		this.candidateTypes = candidateTypes;
 	}
@@ -217,7 +217,7 @@ public class CandidateTypes extends TypeEntity {
 	}
 
 	@Override
-	public Integer getId() {
+	public int getId() {
 		return super.getId();
 	}
 
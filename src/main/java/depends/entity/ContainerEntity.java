@@ -25,15 +25,15 @@ SOFTWARE.
 package depends.entity;
 
 import depends.entity.repo.EntityRepo;
+import depends.entity.repo.ExpressionStore;
 import depends.relations.IBindingResolver;
 import depends.relations.Relation;
-import multilang.depends.util.file.TemporaryFile;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.io.*;
 import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.function.IntFunction;
 
 /**
  * ContainerEntity for example file, class, method, etc. they could contain
@@ -44,7 +44,7 @@ public abstract class ContainerEntity extends DecoratedEntity {
 
 	private ArrayList<VarEntity> vars;
 	private ArrayList<FunctionEntity> functions;
-	WeakReference<HashMap<Object, Expression>> expressionWeakReference;
+	transient WeakReference<HashMap<Object, Expression>> expressionWeakReference;
 	private ArrayList<Expression> expressionList;
 	private int expressionCount = 0;
 	private Collection<GenericName> mixins;
@@ -71,7 +71,7 @@ public abstract class ContainerEntity extends DecoratedEntity {
 	public ContainerEntity() {
 	}
 
-	public ContainerEntity(GenericName rawName, Entity parent, Integer id) {
+	public ContainerEntity(GenericName rawName, Entity parent, int id) {
 		super(rawName, parent, id);
 	}
 
@@ -112,6 +112,13 @@ public abstract class ContainerEntity extends DecoratedEntity {
 		expressionCount = expressionList.size();
 	}
 
+	/**
+	 * @return the number of expressions of the entity, including the cached (spilled) ones
+	 */
+	public int getExpressionCount() {
+		return expressionCount;
+	}
+
 	public boolean containsExpression(Object key) {
 		return 	expressions().containsKey(key);
 	}
@@ -139,6 +146,23 @@ public abstract class ContainerEntity extends DecoratedEntity {
 		resolvedMixins = identiferToContainerEntity(bindingResolver, getMixins());
 	}
 
+	@Override
+	protected void inferLocalLevelExpressions(IBindingResolver bindingResolver) {
+		for (VarEntity var : this.vars()) {
+			if (var.getParent()!=this) {
+				var.inferLocalLevelExpressions(bindingResolver);
+			}
+		}
+		for (FunctionEntity func : this.getFunctions()) {
+			if (func.getParent()!=this) {
+				func.inferLocalLevelExpressions(bindingResolver);
+			}
+		}
+		reloadExpression(bindingResolver.getRepo());
+		resolveExpressions(bindingResolver);
+		cacheExpressions();
+	}
+
 	private Collection<GenericName> getMixins() {
 		if (mixins==null)
 			return new ArrayList<>();
@@ -261,35 +285,24 @@ public abstract class ContainerEntity extends DecoratedEntity {
 	
 	private void cacheExpressionListToFile() {
 		if (expressionCount ==0) return;
-		try {
-			FileOutputStream fileOut = new FileOutputStream(TemporaryFile.getInstance().exprPath(this.id));
-			ObjectOutputStream out = new ObjectOutputStream(fileOut);
-			out.writeObject(this.expressionList);
-			out.close();
-			fileOut.close();
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
+		ExpressionStore.getInstance().save(this.id, this.expressionList);
 	}
 
-	@SuppressWarnings("unchecked")
 	public void reloadExpression(EntityRepo repo) {
+		reloadExpression(repo::getEntity);
+	}
+
+	/**
+	 * Reload the expressions, with the given lookup of the entities referred by them
+	 */
+	public void reloadExpression(IntFunction<Entity> entityOfId) {
 		if (expressionCount ==0) return;
-		try
-	      {
-	         FileInputStream fileIn = new FileInputStream(TemporaryFile.getInstance().exprPath(this.id));
-	         ObjectInputStream in = new ObjectInputStream(fileIn);
-	         expressionList = (ArrayList<Expression>) in.readObject();
-	         if (expressionList==null) expressionList = new ArrayList<>();
-	         for (Expression expr:expressionList) {
-	        	 expr.reload(repo,expressionList);
-	         }
-	         in.close();
-	         fileIn.close();
-	      }catch(IOException | ClassNotFoundException i)
-	      {
-	         return;
-	      }
+		ArrayList<Expression> expressionList = ExpressionStore.getInstance().load(this.id);
+		if (expressionList==null) return;
+		this.expressionList = expressionList;
+		for (Expression expr:expressionList) {
+			expr.reload(entityOfId,expressionList);
+		}
 	}
 	
 
@@ -434,6 +447,11 @@ public abstract class ContainerEntity extends DecoratedEntity {
 	}
 
 	HashMap<String,Set<Expression>> expressionUseList = null;
+
+	public void clearExpressionUses() {
+		this.expressionUseList = null;
+	}
+
 	public void addRelation(Expression expression, Relation relation) {
 		String key = relation.getEntity().qualifiedName+relation.getType();
 		if (this.expressionUseList==null)
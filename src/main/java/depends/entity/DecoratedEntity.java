@@ -37,7 +37,7 @@ public abstract class DecoratedEntity extends Entity{
 	public DecoratedEntity() {
 	}
 
-	public DecoratedEntity(GenericName rawName, Entity parent, Integer id) {
+	public DecoratedEntity(GenericName rawName, Entity parent, int id) {
 		super(rawName, parent, id);
 	}
 	
@@ -48,13 +48,13 @@ public abstract class DecoratedEntity extends Entity{
 	}
 	
 	public void addTypeParameter(List<GenericName> parameters) {
-		this.getRawName().appendArguments(parameters);
+		this.rawName = this.getRawName().appendArguments(parameters);
 	}
 	
 
 	
 	public void addTypeParameter(GenericName parameter) {
-		this.getRawName().appendArguments(parameter);
+		this.rawName = this.getRawName().appendArguments(parameter);
 	}
 	
 	protected void appendTypeParameters(Collection<Entity> typeParameterEntities) {
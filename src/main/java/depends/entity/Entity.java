@@ -24,10 +24,15 @@ SOFTWARE.
 
 package depends.entity;
 
+import depends.entity.repo.ParseCache;
 import depends.relations.IBindingResolver;
 import depends.relations.Relation;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Entity is the root of all entities, including file, package, module, 
@@ -35,13 +40,15 @@ import java.util.*;
  * Each entity has unique id, name,qualifiedName, parent, children
  * We also use entity to record relations 
  */
-public abstract class Entity {
+public abstract class Entity implements Serializable {
+	/* changed whenever a name could become visible from some scope, see visibleNamesChanged() */
+	private static final AtomicLong visibleNamesVersion = new AtomicLong();
 	
-    Integer id=-1;
+    int id=-1;
 	String qualifiedName = null;
 	GenericName rawName = GenericName.build("");
 	Entity parent;
-	private MultiDeclareEntities mutliDeclare = null;
+	private transient MultiDeclareEntities mutliDeclare = null;
 	private Set<Entity> children;
     ArrayList<Relation> relations;
 	private Entity actualReferTo = null;
@@ -49,7 +56,7 @@ public abstract class Entity {
 	protected HashMap<String, Entity> visibleNames = new HashMap<>();
 	private Location location = new Location();
 	public Entity() {};
-    public Entity(GenericName rawName, Entity parent, Integer id) {
+    public Entity(GenericName rawName, Entity parent, int id) {
 		this.qualifiedName = null;
 		this.rawName = rawName;
 		this.parent = parent;
@@ -61,6 +68,19 @@ public abstract class Entity {
 		visibleNames.put(qualifiedName, this);
 	}
 
+	/**
+	 * Entities restored from the parse cache get ids of the current run. The children
+	 * are re-hashed with their new ids.
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (in instanceof ParseCache.Input) {
+			id = ((ParseCache.Input) in).shiftId(id);
+			if (children != null)
+				children = new HashSet<>(children);
+		}
+	}
+
     private Set<Entity> children() {
     	if (children==null)
     		children = new HashSet<>();
@@ -99,7 +119,7 @@ public abstract class Entity {
 		return rawName;
 	}
 
-	public Integer getId() {
+	public int getId() {
         return id;
     }
 
@@ -120,14 +140,41 @@ public abstract class Entity {
     	children().add(child);
 		visibleNames.put(child.getRawName().getName(), child);
 		visibleNames.put(child.getQualifiedName(), child);
+		visibleNamesChanged();
     }
 
+	/**
+	 * Should be called after any change of the names visible from entities: the children,
+	 * the inherited types, the imports, the entities of the repo etc., so that the
+	 * names resolved before the change are not reused (see NameResolutionCache).
+	 */
+	public static void visibleNamesChanged() {
+		visibleNamesVersion.incrementAndGet();
+	}
+
+	/**
+	 * The same as visibleNamesChanged(), unless the entity is a CandidateTypes: the candidate
+	 * types deduced by duck typing are anonymous, so they add no name to be looked up.
+	 */
+	public static void visibleNamesChanged(Entity entity) {
+		if (entity instanceof CandidateTypes)
+			return;
+		visibleNamesChanged();
+	}
+
+	public static long getVisibleNamesVersion() {
+		return visibleNamesVersion.get();
+	}
+
 	public Entity getParent() {
 		return parent;
 	}
 
 	public void setParent(Entity parent) {
+		if (this.parent == parent)
+			return;
 		this.parent = parent;
+		visibleNamesChanged();
 	}
 	
 	public Collection<Entity> getChildren() {
@@ -184,6 +231,32 @@ public abstract class Entity {
 		}
 	}
 	public abstract void inferLocalLevelEntities(IBindingResolver bindingResolver);
+
+	/**
+	 * Infer the inherited and implemented types of the types in this entity. It is done for
+	 * all files before any var or function type is inferred, so a name found through the
+	 * supertypes of a type does not depend on the order the files are resolved in.
+	 */
+	public void inferSupertypes(IBindingResolver bindingResolver) {
+		for (Entity child:this.getChildren()) {
+			child.inferSupertypes(bindingResolver);
+		}
+	}
+
+	/**
+	 * The second phase of the parallel binding resolving: the expressions (and the types
+	 * deduced from them) are resolved after the declarations of all files are inferred.
+	 * It is only applicable for the languages resolving expressions eagerly.
+	 */
+	public void inferExpressions(IBindingResolver bindingResolver) {
+		inferLocalLevelExpressions(bindingResolver);
+		for (Entity child:this.getChildren()) {
+			child.inferExpressions(bindingResolver);
+		}
+	}
+
+	protected void inferLocalLevelExpressions(IBindingResolver bindingResolver) {
+	}
 	
 	public TypeEntity getType() {
 		return null;
@@ -225,7 +298,7 @@ public abstract class Entity {
 	public int hashCode() {
 		final int prime = 31;
 		int result = 1;
-		result = prime * result + ((id == null) ? 0 : id.hashCode());
+		result = prime * result + id;
 		return result;
 	}
 	
@@ -238,12 +311,7 @@ public abstract class Entity {
 		if (getClass() != obj.getClass())
 			return false;
 		Entity other = (Entity) obj;
-		if (id == null) {
-			if (other.id != null)
-				return false;
-		} else if (!id.equals(other.id))
-			return false;
-		return true;
+		return id == other.id;
 	}
 	
 	public void setInScope(boolean value) {
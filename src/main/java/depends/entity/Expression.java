@@ -25,11 +25,16 @@ SOFTWARE.
 package depends.entity;
 
 import depends.entity.repo.EntityRepo;
+import depends.entity.repo.ParseCache;
 import depends.relations.IBindingResolver;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
 import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.IntFunction;
 
 /**
  * Expression 
@@ -84,14 +89,36 @@ public class Expression implements Serializable{
 		deducedTypeFunctions = new ArrayList<>();
 	}
 
+	/**
+	 * Expressions restored from the parse cache refer to the ids of the current run
+	 */
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		in.defaultReadObject();
+		if (!(in instanceof ParseCache.Input))
+			return;
+		ParseCache.Input input = (ParseCache.Input) in;
+		id = input.shiftId(id);
+		parentId = input.shiftId(parentId);
+		deduceTypeBasedId = input.shiftId(deduceTypeBasedId);
+		referredEntityId = input.shiftId(referredEntityId);
+		if (deducedTypeVarsId!=null)
+			deducedTypeVarsId.replaceAll(input::shiftId);
+		if (deducedTypeFunctionsId!=null)
+			deducedTypeFunctionsId.replaceAll(input::shiftId);
+	}
+
 	public void reload(EntityRepo repo, ArrayList<Expression> expressionList) {
+		reload(repo::getEntity, expressionList);
+	}
+
+	public void reload(IntFunction<Entity> entityOfId, ArrayList<Expression> expressionList) {
 		this.deducedTypeFunctions = new ArrayList<>();
 		this.deducedTypeVars = new ArrayList<>();
 		
 		//recover parent relation
 		if (parentId!=-1) {
 			for (Expression expr:expressionList) {
-				if (expr.id==parentId) {
+				if (Objects.equals(expr.id, parentId)) {
 					parent = expr;
 					break;
 				}
@@ -101,20 +128,20 @@ public class Expression implements Serializable{
 		//recover deducedTypeFunctionsId
 		if (deducedTypeFunctionsId!=null) {
 			for (Integer funcId:this.deducedTypeFunctionsId) {
-				this.deducedTypeFunctions.add((FunctionEntity) repo.getEntity(funcId));
+				this.deducedTypeFunctions.add((FunctionEntity) entityOfId.apply(funcId));
 			}
 		}
 		
 		//recover deducedTypeVars
 		if (deducedTypeVarsId!=null) {
 			for (Integer varId:this.deducedTypeVarsId) {
-				this.deducedTypeVars.add((VarEntity) repo.getEntity(varId));
+				this.deducedTypeVars.add((VarEntity) entityOfId.apply(varId));
 			}
 		}
 		
 		//referer referredEntity -- TODO:maybe not require
 		if (this.referredEntityId!=null && this.referredEntity==null) {
-			this.referredEntity = repo.getEntity(this.referredEntityId);
+			this.referredEntity = entityOfId.apply(this.referredEntityId);
 			if (this.referredEntity ==null){
 				System.err.println("unexpected: referred Entity is null" + this.referredEntityId + this.text+this.id);
 			}
@@ -173,7 +200,7 @@ public class Expression implements Serializable{
 		if (parent.type != null)return;
 		if (!parent.deriveTypeFromChild) return;
 		//parent's type depends on first child's type
-		if (parent.deduceTypeBasedId!=this.id) return;
+		if (!Objects.equals(parent.deduceTypeBasedId, this.id)) return;
 		
 		//if child is a built-in/external type, then parent must also a built-in/external type
 		if (this.type.equals(TypeEntity.buildInType)) {
@@ -428,6 +455,150 @@ public class Expression implements Serializable{
 		return s.toString();
 	}
 
+	private static final int IS_SET = 1;
+	private static final int IS_DOT = 1 << 1;
+	private static final int IS_CALL = 1 << 2;
+	private static final int IS_LOGIC = 1 << 3;
+	private static final int IS_CREATE = 1 << 4;
+	private static final int IS_CAST = 1 << 5;
+	private static final int IS_THROW = 1 << 6;
+	private static final int IS_STATEMENT = 1 << 7;
+	private static final int DERIVE_TYPE_FROM_CHILD = 1 << 8;
+	private static final int HAS_ID = 1 << 9;
+	private static final int HAS_TEXT = 1 << 10;
+	private static final int HAS_RAW_TYPE = 1 << 11;
+	private static final int HAS_IDENTIFIER = 1 << 12;
+	private static final int HAS_DEDUCE_TYPE_BASED_ID = 1 << 13;
+	private static final int HAS_PARENT_ID = 1 << 14;
+	private static final int HAS_REFERRED_ENTITY_ID = 1 << 15;
+	private static final int HAS_DEDUCED_TYPE_VARS = 1 << 16;
+	private static final int HAS_DEDUCED_TYPE_FUNCTIONS = 1 << 17;
+	private static final int HAS_LINE = 1 << 18;
+
+	/**
+	 * Write the persistent (non-transient) part of the expression, see {@link ExpressionCodec}
+	 */
+	void writeTo(ExpressionCodec codec, ExpressionCodec.Output out) {
+		int flags = 0;
+		if (isSet) flags |= IS_SET;
+		if (isDot) flags |= IS_DOT;
+		if (isCall) flags |= IS_CALL;
+		if (isLogic) flags |= IS_LOGIC;
+		if (isCreate) flags |= IS_CREATE;
+		if (isCast) flags |= IS_CAST;
+		if (isThrow) flags |= IS_THROW;
+		if (isStatement) flags |= IS_STATEMENT;
+		if (deriveTypeFromChild) flags |= DERIVE_TYPE_FROM_CHILD;
+		if (id!=null) flags |= HAS_ID;
+		if (text!=null) flags |= HAS_TEXT;
+		if (rawType!=null) flags |= HAS_RAW_TYPE;
+		if (identifier!=null) flags |= HAS_IDENTIFIER;
+		if (deduceTypeBasedId!=null) flags |= HAS_DEDUCE_TYPE_BASED_ID;
+		if (parentId!=null) flags |= HAS_PARENT_ID;
+		if (referredEntityId!=null) flags |= HAS_REFERRED_ENTITY_ID;
+		if (deducedTypeVarsId!=null) flags |= HAS_DEDUCED_TYPE_VARS;
+		if (deducedTypeFunctionsId!=null) flags |= HAS_DEDUCED_TYPE_FUNCTIONS;
+		if (location!=null && location.getLine()!=null) flags |= HAS_LINE;
+		out.writeVarInt(flags);
+
+		int base = id==null?0:id;
+		if (id!=null) out.writeSignedVarInt(id);
+		if (text!=null) out.writeString(text);
+		if (rawType!=null) out.writeVarInt(codec.nameToIndex(rawType));
+		if (identifier!=null) out.writeVarInt(codec.nameToIndex(identifier));
+		if (deduceTypeBasedId!=null) out.writeSignedVarInt(deduceTypeBasedId-base);
+		if (parentId!=null) out.writeSignedVarInt(parentId-base);
+		if (referredEntityId!=null) out.writeSignedVarInt(referredEntityId);
+		if (deducedTypeVarsId!=null) writeIds(out, deducedTypeVarsId);
+		if (deducedTypeFunctionsId!=null) writeIds(out, deducedTypeFunctionsId);
+		if ((flags & HAS_LINE)!=0) out.writeSignedVarInt(location.getLine());
+	}
+
+	private static void writeIds(ExpressionCodec.Output out, List<Integer> ids) {
+		out.writeVarInt(ids.size());
+		for (Integer id:ids) {
+			out.writeSignedVarInt(id);
+		}
+	}
+
+	static Expression readFrom(ExpressionCodec codec, ExpressionCodec.Input in) {
+		int flags = in.readVarInt();
+		Expression expression = new Expression();
+		expression.isSet = (flags & IS_SET)!=0;
+		expression.isDot = (flags & IS_DOT)!=0;
+		expression.isCall = (flags & IS_CALL)!=0;
+		expression.isLogic = (flags & IS_LOGIC)!=0;
+		expression.isCreate = (flags & IS_CREATE)!=0;
+		expression.isCast = (flags & IS_CAST)!=0;
+		expression.isThrow = (flags & IS_THROW)!=0;
+		expression.isStatement = (flags & IS_STATEMENT)!=0;
+		expression.deriveTypeFromChild = (flags & DERIVE_TYPE_FROM_CHILD)!=0;
+
+		int base = 0;
+		if ((flags & HAS_ID)!=0) {
+			expression.id = in.readSignedVarInt();
+			base = expression.id;
+		}
+		if ((flags & HAS_TEXT)!=0) expression.text = in.readString();
+		if ((flags & HAS_RAW_TYPE)!=0) expression.rawType = codec.indexToName(in.readVarInt());
+		if ((flags & HAS_IDENTIFIER)!=0) expression.identifier = codec.indexToName(in.readVarInt());
+		if ((flags & HAS_DEDUCE_TYPE_BASED_ID)!=0) expression.deduceTypeBasedId = base + in.readSignedVarInt();
+		expression.parentId = ((flags & HAS_PARENT_ID)!=0)? base + in.readSignedVarInt() : null;
+		if ((flags & HAS_REFERRED_ENTITY_ID)!=0) expression.referredEntityId = in.readSignedVarInt();
+		expression.deducedTypeVarsId = ((flags & HAS_DEDUCED_TYPE_VARS)!=0)? readIds(in) : null;
+		expression.deducedTypeFunctionsId = ((flags & HAS_DEDUCED_TYPE_FUNCTIONS)!=0)? readIds(in) : null;
+		if ((flags & HAS_LINE)!=0) expression.location.setLine(in.readSignedVarInt());
+		return expression;
+	}
+
+	private static List<Integer> readIds(ExpressionCodec.Input in) {
+		int size = in.readVarInt();
+		List<Integer> ids = new ArrayList<>(size);
+		for (int i=0;i<size;i++) {
+			ids.add(in.readSignedVarInt());
+		}
+		return ids;
+	}
+
+	/**
+	 * @return a copy of the fields kept by the expression stores, the same as the expression
+	 * would be decoded: the entities and the parent it refers to are left to reload()
+	 */
+	public Expression copy() {
+		Expression expression = new Expression(id);
+		expression.text = text;
+		expression.rawType = rawType;
+		expression.identifier = identifier;
+		expression.isSet = isSet;
+		expression.isDot = isDot;
+		expression.isCall = isCall;
+		expression.isLogic = isLogic;
+		expression.isCreate = isCreate;
+		expression.isCast = isCast;
+		expression.isThrow = isThrow;
+		expression.isStatement = isStatement;
+		expression.deriveTypeFromChild = deriveTypeFromChild;
+		expression.deduceTypeBasedId = deduceTypeBasedId;
+		expression.parentId = parentId;
+		expression.referredEntityId = referredEntityId;
+		expression.deducedTypeVarsId = deducedTypeVarsId==null?null:new ArrayList<>(deducedTypeVarsId);
+		expression.deducedTypeFunctionsId = deducedTypeFunctionsId==null?null:new ArrayList<>(deducedTypeFunctionsId);
+		if (location!=null && location.getLine()!=null)
+			expression.location.setLine(location.getLine());
+		return expression;
+	}
+
+	/**
+	 * @return the rough heap bytes of a copy of the expression, see copy()
+	 */
+	public int estimatedSize() {
+		int size = 112;
+		if (text!=null) size += 40 + 2*text.length();
+		if (deducedTypeVarsId!=null) size += 40 + 20*deducedTypeVarsId.size();
+		if (deducedTypeFunctionsId!=null) size += 40 + 20*deducedTypeFunctionsId.size();
+		return size;
+	}
+
 	public void setLine(int lineNumber) {
 		this.location.setLine(lineNumber);
 	}
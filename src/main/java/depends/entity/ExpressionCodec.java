@@ -0,0 +1,156 @@
+package depends.entity;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Compact binary encoding of the expression list of a container entity,
+ * used by the expression stores to spill expressions out of heap.
+ *  - all ids are (zig-zag) varints; ids inside an expression are written as delta of the expression id
+ *  - boolean properties and the presence of nullable fields are packed into one flag word
+ *  - raw types and identifiers are interned into a name pool, and only the pool index is written
+ * The name pool lives in memory for the whole run, so a codec must be shared by the writer
+ * and the reader of the same data. The decoded names are shared (GenericName is immutable).
+ */
+public class ExpressionCodec {
+	private HashMap<String, Integer> nameIndex = new HashMap<>();
+	private volatile GenericName[] names = new GenericName[1024];
+	private int nameCount = 0;
+
+	public byte[] encode(List<Expression> expressionList) {
+		Output out = new Output();
+		out.writeVarInt(expressionList.size());
+		for (Expression expression:expressionList) {
+			expression.writeTo(this, out);
+		}
+		return out.toByteArray();
+	}
+
+	public ArrayList<Expression> decode(ByteBuffer buffer) {
+		Input in = new Input(buffer);
+		int size = in.readVarInt();
+		ArrayList<Expression> expressionList = new ArrayList<>(size);
+		for (int i=0;i<size;i++) {
+			expressionList.add(Expression.readFrom(this, in));
+		}
+		return expressionList;
+	}
+
+	int nameToIndex(GenericName name) {
+		String key = keyOf(name);
+		synchronized (this) {
+			Integer index = nameIndex.get(key);
+			if (index!=null) return index;
+			if (nameCount==names.length)
+				names = Arrays.copyOf(names, names.length*2);
+			names[nameCount] = name;
+			nameIndex.put(key, nameCount);
+			return nameCount++;
+		}
+	}
+
+	GenericName indexToName(int index) {
+		return names[index];
+	}
+
+	public synchronized int getNameCount() {
+		return nameCount;
+	}
+
+	/**
+	 * The key distinguishes 'no arguments' from 'empty arguments', because GenericName.hashCode does.
+	 */
+	private static String keyOf(GenericName name) {
+		StringBuilder sb = new StringBuilder();
+		appendKey(sb, name);
+		return sb.toString();
+	}
+
+	private static void appendKey(StringBuilder sb, GenericName name) {
+		sb.append(name.getName());
+		if (name.arguments==null) return;
+		sb.append('\u0001');
+		for (GenericName argument:name.arguments) {
+			appendKey(sb, argument);
+			sb.append('\u0002');
+		}
+		sb.append('\u0003');
+	}
+
+	static class Output {
+		private byte[] bytes = new byte[256];
+		private int size = 0;
+
+		void writeByte(int b) {
+			if (size==bytes.length)
+				bytes = Arrays.copyOf(bytes, bytes.length*2);
+			bytes[size++] = (byte) b;
+		}
+
+		void writeVarInt(int value) {
+			while ((value & ~0x7F)!=0) {
+				writeByte((value & 0x7F) | 0x80);
+				value >>>= 7;
+			}
+			writeByte(value);
+		}
+
+		void writeSignedVarInt(int value) {
+			writeVarInt((value << 1) ^ (value >> 31));
+		}
+
+		void writeString(String value) {
+			byte[] data = value.getBytes(StandardCharsets.UTF_8);
+			writeVarInt(data.length);
+			if (size+data.length>bytes.length)
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length*2, size+data.length));
+			System.arraycopy(data, 0, bytes, size, data.length);
+			size += data.length;
+		}
+
+		byte[] toByteArray() {
+			return Arrays.copyOf(bytes, size);
+		}
+	}
+
+	static class Input {
+		private ByteBuffer buffer;
+
+		Input(ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		int readVarInt() {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = buffer.get();
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while ((b & 0x80)!=0);
+			return value;
+		}
+
+		int readSignedVarInt() {
+			int value = readVarInt();
+			return (value >>> 1) ^ -(value & 1);
+		}
+
+		String readString() {
+			int length = readVarInt();
+			if (buffer.hasArray()) {
+				String value = new String(buffer.array(), buffer.arrayOffset()+buffer.position(), length, StandardCharsets.UTF_8);
+				buffer.position(buffer.position()+length);
+				return value;
+			}
+			byte[] data = new byte[length];
+			buffer.get(data);
+			return new String(data, StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -39,6 +39,7 @@ public class FileEntity extends TypeEntity {
 	private ImportedFileCollector importedFileCollector = null;
 	private boolean fileAsModule = false;
 	private String moduleName = "";
+	private transient volatile Map<String, String> importedSuffixIndex = null;
 
 	public FileEntity() {}
 
@@ -67,16 +68,28 @@ public class FileEntity extends TypeEntity {
 	 * @return
 	 */
 	public String importedSuffixMatch(String lastName) {
-		if (!lastName.startsWith("."))
-			lastName = "." + lastName;
-		for (Entity imported : this.importedTypes) {
-			String name = imported.getQualifiedName(true);
-			if (!name.startsWith("."))
-				name = "." + name;
-			if (imported.getQualifiedName(true).endsWith(lastName))
-				return imported.getQualifiedName(true);
+		if (lastName.startsWith("."))
+			lastName = lastName.substring(1);
+		return importedSuffixIndex().get(lastName);
+	}
+
+	/**
+	 * The index from the suffixes (after any '.') of the imported qualified names
+	 * to the first imported name with the suffix. It is built once the imported types are inferred.
+	 */
+	private Map<String, String> importedSuffixIndex() {
+		Map<String, String> index = importedSuffixIndex;
+		if (index == null) {
+			index = new HashMap<>();
+			for (Entity imported : this.importedTypes) {
+				String name = imported.getQualifiedName(true);
+				for (int dot = name.indexOf('.'); dot >= 0; dot = name.indexOf('.', dot + 1)) {
+					index.putIfAbsent(name.substring(dot + 1), name);
+				}
+			}
+			importedSuffixIndex = index;
 		}
-		return null;
+		return index;
 	}
 
 
@@ -102,11 +115,22 @@ public class FileEntity extends TypeEntity {
 
 	@Override
 	public void inferLocalLevelEntities(IBindingResolver bindingResolver) {
+		if (!bindingResolver.isImportsInferred())
+			inferImports(bindingResolver);
+		super.inferLocalLevelEntities(bindingResolver);
+	}
+
+	/**
+	 * The imports only depend on the entities found in parsing, so they could be
+	 * inferred for all files before any other entity
+	 */
+	public void inferImports(IBindingResolver bindingResolver) {
 		this.importedRelationEntities = bindingResolver.getImportedRelationEntities(importedNames);
 		this.importedTypes = bindingResolver.getImportedTypes(importedNames,this);
 		this.importedFiles = bindingResolver.getImportedFiles(importedNames);
-
-		super.inferLocalLevelEntities(bindingResolver);
+		this.importedSuffixIndex = null;
+		importedSuffixIndex();
+		visibleNamesChanged();
 	}
 
 	public boolean isInProjectScope() {
@@ -135,6 +159,7 @@ public class FileEntity extends TypeEntity {
 
 	public void addType(TypeEntity currentTypeEntity) {
 		this.declaredTypes.add(currentTypeEntity);
+		visibleNamesChanged();
 	}
 
 	public Set<FileEntity> getImportedFilesInAllLevel() {
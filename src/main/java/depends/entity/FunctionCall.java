@@ -24,7 +24,9 @@ SOFTWARE.
 
 package depends.entity;
 
-public class FunctionCall {
+import java.io.Serializable;
+
+public class FunctionCall implements Serializable {
 	private GenericName rawName;
 	public FunctionCall(GenericName rawName){
 		this.rawName = rawName;
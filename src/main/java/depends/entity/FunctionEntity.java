@@ -39,7 +39,7 @@ public class FunctionEntity extends ContainerEntity{
 	public FunctionEntity() {
 		this.parameters = new ArrayList<>();
 	}
-    public FunctionEntity(GenericName simpleName, Entity parent, Integer id, GenericName returnType) {
+    public FunctionEntity(GenericName simpleName, Entity parent, int id, GenericName returnType) {
 		super(simpleName, parent,id);
 		this.returnTypes = new ArrayList<>();
 		returnTypeIdentifiers = new ArrayList<>();
@@ -95,6 +95,15 @@ public class FunctionEntity extends ContainerEntity{
 			throwTypes = identiferToEntities(bindingResolver,this.throwTypesIdentifiers);
 		super.inferLocalLevelEntities(bindingResolver);
 	}
+
+	@Override
+	protected void inferLocalLevelExpressions(IBindingResolver bindingResolver) {
+		for (VarEntity param:parameters) {
+			param.fillCandidateTypes(bindingResolver);
+			param.inferLocalLevelExpressions(bindingResolver);
+		}
+		super.inferLocalLevelExpressions(bindingResolver);
+	}
 	
 
 	private Collection<Entity> typeParametersToEntities(IBindingResolver bindingResolver, GenericName name) {
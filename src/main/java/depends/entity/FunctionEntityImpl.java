@@ -7,7 +7,7 @@ public class FunctionEntityImpl extends FunctionEntity {
 	public FunctionEntityImpl() {
 		super();
 	}
-    public FunctionEntityImpl(GenericName simpleName, Entity parent, Integer id, GenericName returnType) {
+    public FunctionEntityImpl(GenericName simpleName, Entity parent, int id, GenericName returnType) {
 		super(simpleName,parent,id,returnType);
 	}
 	@Override
@@ -4,7 +4,7 @@ public class FunctionEntityProto  extends FunctionEntity{
 	public FunctionEntityProto() {
 		super();
 	}
-    public FunctionEntityProto(GenericName simpleName, Entity parent, Integer id, GenericName returnType) {
+    public FunctionEntityProto(GenericName simpleName, Entity parent, int id, GenericName returnType) {
 		super(simpleName,parent,id,returnType);
 	}
 }
@@ -1,70 +1,103 @@
 package depends.entity;
 
+import java.io.ObjectStreamException;
 import java.io.Serializable;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * The (generic) name of entities and expressions. It is immutable: the methods which
+ * change a name return a new one.
+ * The names without arguments built by GenericName.build() are interned in a global pool,
+ * so the same name is the same instance, and the names share their strings with the pool.
+ * The names which are never shared (see buildUnique) are kept out of the pool.
+ */
 public class GenericName implements Serializable{
-	private static final long serialVersionUID = 1L;
-	private char[] name;
-	List<GenericName> arguments;
+	private static final long serialVersionUID = 2L;
+	private static final ConcurrentHashMap<String, GenericName> pool = new ConcurrentHashMap<>();
+	private final String name;
+	final List<GenericName> arguments;
+	private final boolean unique;
+	private transient int hash = 0;
+	private transient String uniqName = null;
+
 	public GenericName(String name) {
-		this.name = name.toCharArray();
+		this(build(name).name, null, false);
 	}
 	public GenericName(String name, List<GenericName> arguments) {
-		this.name = name.toCharArray();
+		this(build(name).name, arguments==null?null:new ArrayList<>(arguments), false);
+	}
+	private GenericName(String name, List<GenericName> arguments, boolean unique) {
+		this.name = name;
 		this.arguments = arguments;
+		this.unique = unique;
 	}
 	public boolean contains(String rawType) {
-		if (new String(name).contains(rawType)) return true;
-		return false;
+		return name.contains(rawType);
 	}
 	public String getName() {
-		return new String(name);
+		return name;
 	}
 	public List<GenericName> getArguments() {
 		if (arguments==null) return new ArrayList<>();
-		return arguments;
+		return Collections.unmodifiableList(arguments);
 	}
-	
+
 	@Override
 	public String toString() {
-		return new String(name) + (getArguments().size()>0?"(" + arguments + ")":"");
+		return name + (getArguments().size()>0?"(" + arguments + ")":"");
 	}
-	
+
 	public GenericName replace(String from, String to) {
-		name = new String(name).replace(from, to).toCharArray();
-		for (GenericName arg:getArguments()) {
-			arg.replace(from, to);
+		String replaced = name.replace(from, to);
+		if (arguments==null) {
+			return replaced.equals(name)?this:build(replaced);
 		}
-		return this;
+		List<GenericName> replacedArguments = new ArrayList<>(arguments.size());
+		for (GenericName arg:arguments) {
+			replacedArguments.add(arg.replace(from, to));
+		}
+		if (replaced.equals(name) && replacedArguments.equals(arguments)) return this;
+		return new GenericName(replaced, replacedArguments);
 	}
-	
+
 	public boolean startsWith(String prefix) {
-		if (name==null) return false;
-		return new String(name).startsWith(prefix);
+		return name.startsWith(prefix);
 	}
 	public String uniqName() {
-		if (getArguments().size()==0) return new String(name);
-		StringBuffer sb = new StringBuffer();
+		if (uniqName!=null) return uniqName;
+		if (getArguments().size()==0) {
+			uniqName = name;
+			return uniqName;
+		}
+		StringBuilder sb = new StringBuilder();
 		sb.append(name);
-		if (getArguments().size()>0) {
-			for (GenericName arg:getArguments()) {
-				sb.append("__").append(arg.uniqName()).append("__");
-			}		
+		for (GenericName arg:arguments) {
+			sb.append("__").append(arg.uniqName()).append("__");
 		}
-		return sb.toString();
+		uniqName = sb.toString();
+		return uniqName;
 	}
 	public GenericName substring(int start) {
-		return new GenericName(new String(this.name).substring(start));
+		return build(name.substring(start));
 	}
 	public boolean isNull() {
 		return name==null;
 	}
 	public static GenericName build(String name) {
 		if (name==null) return null;
-		return new GenericName(name);
+		GenericName genericName = pool.get(name);
+		if (genericName!=null) return genericName;
+		return pool.computeIfAbsent(name, key -> new GenericName(key, null, false));
+	}
+	/**
+	 * Build a name which is never shared, like the generated names of anonymous blocks.
+	 * It is not interned, so the pool does not grow with names no one looks up again.
+	 */
+	public static GenericName buildUnique(String name) {
+		return new GenericName(name, null, true);
 	}
 	public static GenericName build(String name, List<GenericName> arguments) {
 		return new GenericName(name,arguments);
@@ -78,21 +111,44 @@ public class GenericName implements Serializable{
 		}
 		return false;
 	}
-	public void appendArguments(List<GenericName> parameters) {
-		if (this.arguments==null) this.arguments = new ArrayList<>();
-		this.arguments.addAll(parameters);
+
+	/**
+	 * @return the name with the parameters appended to its arguments
+	 */
+	public GenericName appendArguments(List<GenericName> parameters) {
+		List<GenericName> appended = new ArrayList<>(getArguments());
+		appended.addAll(parameters);
+		return new GenericName(name, appended);
 	}
-	public void appendArguments(GenericName parameter) {
-		if (this.arguments==null) this.arguments = new ArrayList<>();
-		this.arguments.add(parameter);
+
+	/**
+	 * @return the name with the parameter appended to its arguments
+	 */
+	public GenericName appendArguments(GenericName parameter) {
+		return appendArguments(Collections.singletonList(parameter));
 	}
+
+	/**
+	 * The names without arguments are resolved to the pooled instances, except the unique ones
+	 */
+	private Object readResolve() throws ObjectStreamException {
+		if (arguments==null)
+			return unique?this:build(name);
+		return new GenericName(name, arguments);
+	}
+
 	@Override
 	public int hashCode() {
-		final int prime = 31;
-		int result = 1;
-		result = prime * result + ((arguments == null) ? 0 : arguments.hashCode());
-		result = prime * result + Arrays.hashCode(name);
-		return result;
+		int h = hash;
+		if (h==0) {
+			final int prime = 31;
+			int result = 1;
+			result = prime * result + ((arguments == null) ? 0 : arguments.hashCode());
+			result = prime * result + name.hashCode();
+			h = result;
+			hash = h;
+		}
+		return h;
 	}
 	@Override
 	public boolean equals(Object obj) {
@@ -103,15 +159,14 @@ public class GenericName implements Serializable{
 		if (getClass() != obj.getClass())
 			return false;
 		GenericName other = (GenericName) obj;
-		if (this.getArguments() == null) {
-			if (other.getArguments() != null)
-				return false;
-		} else if (!getArguments().equals(other.getArguments()))
+		if (arguments==null && other.arguments==null)
+			return name.equals(other.name);
+		if (!getArguments().equals(other.getArguments()))
 			return false;
-		if (!Arrays.equals(name, other.name))
+		if (!name.equals(other.name))
 			return false;
 		return true;
-	}	
-	
-	
+	}
+
+
 }
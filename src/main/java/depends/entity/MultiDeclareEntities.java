@@ -53,6 +53,13 @@ public class MultiDeclareEntities extends ContainerEntity {
 		}
 	}
 
+	@Override
+	protected void inferLocalLevelExpressions(IBindingResolver bindingResolver) {
+		for (Entity entity:entities) {
+			entity.inferLocalLevelExpressions(bindingResolver);
+		}
+	}
+
 	public void add(Entity entity) {
 		entity.setMutliDeclare(this);
 		if (entity instanceof TypeEntity) 
@@ -62,6 +69,7 @@ public class MultiDeclareEntities extends ContainerEntity {
 		}else {
 			entities.add(entity);
 		}
+		visibleNamesChanged(entity);
 	}
 
 	public List<Entity> getEntities() {
@@ -32,12 +32,12 @@ public class PackageEntity extends TypeEntity {
 	
 	public PackageEntity() {}
 
-	public PackageEntity(String rawName, Integer id) {
+	public PackageEntity(String rawName, int id) {
 		super(GenericName.build(rawName),  null,id);
 		setQualifiedName(rawName); //in Java, package raw name = full name
 	}
 
-	public PackageEntity(String rawName, Entity currentFile, Integer id) {
+	public PackageEntity(String rawName, Entity currentFile, int id) {
 		super(GenericName.build(rawName),  currentFile,id);
 	}
 
@@ -55,6 +55,7 @@ public class PackageEntity extends TypeEntity {
 		super.addChild(entity);
 		entities.put(moduleName, entity);
 		visibleNames.put(moduleName, entity);
+		visibleNamesChanged();
 	}
 	
 	@Override
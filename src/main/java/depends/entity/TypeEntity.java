@@ -39,7 +39,7 @@ public class TypeEntity extends ContainerEntity {
 	Collection<GenericName> implementedIdentifiers;
 	TypeEntity inheritedType;
 	public TypeEntity() {}
-	public TypeEntity(GenericName simpleName, Entity parent, Integer id) {
+	public TypeEntity(GenericName simpleName, Entity parent, int id) {
 		super(simpleName, parent, id);
 		inhertedTypeIdentifiers = new ArrayList<>();
 		implementedIdentifiers = new ArrayList<>();
@@ -47,36 +47,45 @@ public class TypeEntity extends ContainerEntity {
 
 	@Override
 	public void inferLocalLevelEntities(IBindingResolver bindingResolver) {
-		inheritedTypes = new ArrayList<>();
-		Collection<Entity> r = identiferToEntities(bindingResolver, this.inhertedTypeIdentifiers);
+		if (!bindingResolver.isSupertypesInferred())
+			inferLocalSupertypes(bindingResolver);
+		super.inferLocalLevelEntities(bindingResolver);
+	}
+
+	@Override
+	public void inferSupertypes(IBindingResolver bindingResolver) {
+		inferLocalSupertypes(bindingResolver);
+		super.inferSupertypes(bindingResolver);
+	}
+
+	private void inferLocalSupertypes(IBindingResolver bindingResolver) {
+		inheritedTypes = identiferToTypeEntities(bindingResolver, this.inhertedTypeIdentifiers);
+		implementedTypes = identiferToTypeEntities(bindingResolver, this.implementedIdentifiers);
+		if (inheritedTypes.size() > 0)
+			inheritedType = inheritedTypes.iterator().next();
+		if (inheritedTypes.size() > 0 || implementedTypes.size() > 0)
+			visibleNamesChanged();
+	}
+
+	/**
+	 * The list is filled before it is published, because types of other files
+	 * could be looked up concurrently in the parallel binding resolving
+	 */
+	private Collection<TypeEntity> identiferToTypeEntities(IBindingResolver bindingResolver, Collection<GenericName> identifiers) {
+		ArrayList<TypeEntity> types = new ArrayList<>();
+		Collection<Entity> r = identiferToEntities(bindingResolver, identifiers);
 		if (r!=null) {
 			r.forEach(item -> {
 				Entity typeItem = getTypeEntity(item);
 				if (typeItem !=null) {
-					inheritedTypes.add((TypeEntity) typeItem);
+					types.add((TypeEntity) typeItem);
 				}else {
 					System.err.println(item.getRawName() + " expected a type, but actually it is "+ item.getClass().getSimpleName());
 				}
 			});
 		}
-		inheritedTypes.remove(this);
-
-		implementedTypes = new ArrayList<>();
-		r = identiferToEntities(bindingResolver, this.implementedIdentifiers);
-		if (r!=null) {
-				r.forEach(item -> {
-					Entity typeItem = getTypeEntity(item);
-					if (typeItem !=null) {
-						implementedTypes.add((TypeEntity) typeItem);
-					}else {
-						System.err.println(item.getRawName() + " expected a type, but actually it is "+ item.getClass().getSimpleName());
-					}
-				});
-		}
-		implementedTypes.remove(this);
-		if (inheritedTypes.size() > 0)
-			inheritedType = inheritedTypes.iterator().next();
-		super.inferLocalLevelEntities(bindingResolver);
+		types.remove(this);
+		return types;
 	}
 
 	private Entity getTypeEntity(Entity item) {
@@ -76,6 +76,14 @@ public class VarEntity extends ContainerEntity {
 		}
 	}
 
+	@Override
+	protected void inferLocalLevelExpressions(IBindingResolver bindingResolver) {
+		super.inferLocalLevelExpressions(bindingResolver);
+		if (type==null) {
+			fillCandidateTypes(bindingResolver);
+		}
+	}
+
 	public List<FunctionCall> getCalledFunctions() {
 		if (this.functionCalls!=null)
 			return functionCalls;
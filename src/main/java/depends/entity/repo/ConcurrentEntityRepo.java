@@ -0,0 +1,202 @@
+package depends.entity.repo;
+
+import depends.entity.*;
+import multilang.depends.util.file.FileUtil;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A thread-safe entity repo.
+ *  - The name index is a ConcurrentHashMap, which is hash-sharded internally and never locks on read.
+ *  - The id index is a dense array (ids are allocated contiguously from 0), split into fixed-size chunks,
+ *    so that it could grow without copying entities and read without lock.
+ *  - Entities with negative ids (e.g. the built-in type) are kept in a small sorted map.
+ */
+public class ConcurrentEntityRepo extends SimpleIdGenerator implements EntityRepo {
+	private static final int CHUNK_BITS = 12;
+	private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+	private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+	private ConcurrentHashMap<String, Entity> allEntitiesByName;
+	private volatile AtomicReferenceArray<Entity>[] allEntitiesById;
+	private ConcurrentSkipListMap<Integer, Entity> entitiesWithNegativeId;
+	private ConcurrentLinkedQueue<Entity> allFileEntitiesByOrder;
+	private final Object growLock = new Object();
+
+	public class EntityArrayIterator implements Iterator<Entity> {
+		private Iterator<Entity> negativeIdIterator = entitiesWithNegativeId.values().iterator();
+		private AtomicReferenceArray<Entity>[] chunks = allEntitiesById;
+		private int index = 0;
+		private Entity nextEntity = null;
+
+		@Override
+		public boolean hasNext() {
+			if (nextEntity != null) return true;
+			if (negativeIdIterator.hasNext()) {
+				nextEntity = negativeIdIterator.next();
+				return true;
+			}
+			while (index < chunks.length * CHUNK_SIZE) {
+				AtomicReferenceArray<Entity> chunk = chunks[index >> CHUNK_BITS];
+				if (chunk == null) {
+					index = ((index >> CHUNK_BITS) + 1) << CHUNK_BITS;
+					continue;
+				}
+				Entity entity = chunk.get(index & CHUNK_MASK);
+				index++;
+				if (entity != null) {
+					nextEntity = entity;
+					return true;
+				}
+			}
+			return false;
+		}
+
+		@Override
+		public Entity next() {
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Entity entity = nextEntity;
+			nextEntity = null;
+			return entity;
+		}
+	}
+
+	public ConcurrentEntityRepo() {
+		allEntitiesByName = new ConcurrentHashMap<>();
+		allEntitiesById = newChunks(16);
+		entitiesWithNegativeId = new ConcurrentSkipListMap<>();
+		allFileEntitiesByOrder = new ConcurrentLinkedQueue<>();
+		add(TypeEntity.buildInType);
+	}
+
+	@SuppressWarnings("unchecked")
+	private static AtomicReferenceArray<Entity>[] newChunks(int size) {
+		return new AtomicReferenceArray[size];
+	}
+
+	@Override
+	public Entity getEntity(String entityName) {
+		return allEntitiesByName.get(entityName);
+	}
+
+	@Override
+	public Entity getEntity(int entityId) {
+		if (entityId < 0)
+			return entitiesWithNegativeId.get(entityId);
+		AtomicReferenceArray<Entity>[] chunks = allEntitiesById;
+		int chunkIndex = entityId >> CHUNK_BITS;
+		if (chunkIndex >= chunks.length || chunks[chunkIndex] == null)
+			return null;
+		return chunks[chunkIndex].get(entityId & CHUNK_MASK);
+	}
+
+	@Override
+	public void add(Entity entity) {
+		putById(entity);
+		String name = entity.getRawName().uniqName();
+		if (entity.getQualifiedName() != null && !(entity.getQualifiedName().isEmpty())) {
+			name = entity.getQualifiedName();
+		}
+		allEntitiesByName.merge(name, entity, (existedEntity, newEntity) -> {
+			if (existedEntity instanceof MultiDeclareEntities) {
+				((MultiDeclareEntities) existedEntity).add(newEntity);
+				return existedEntity;
+			}
+			MultiDeclareEntities eMultiDeclare = new MultiDeclareEntities(existedEntity, this.generateId());
+			eMultiDeclare.add(newEntity);
+			return eMultiDeclare;
+		});
+		if (entity.getParent() != null)
+			Entity.setParent(entity, entity.getParent());
+		Entity.visibleNamesChanged(entity);
+	}
+
+	private void putById(Entity entity) {
+		int id = entity.getId();
+		if (id < 0) {
+			entitiesWithNegativeId.put(id, entity);
+			return;
+		}
+		int chunkIndex = id >> CHUNK_BITS;
+		AtomicReferenceArray<Entity>[] chunks = allEntitiesById;
+		if (chunkIndex >= chunks.length || chunks[chunkIndex] == null) {
+			synchronized (growLock) {
+				chunks = allEntitiesById;
+				if (chunkIndex >= chunks.length) {
+					chunks = Arrays.copyOf(chunks, Math.max(chunks.length * 2, chunkIndex + 1));
+				}
+				if (chunks[chunkIndex] == null) {
+					chunks[chunkIndex] = new AtomicReferenceArray<>(CHUNK_SIZE);
+				}
+				allEntitiesById = chunks;
+			}
+		}
+		chunks[chunkIndex].set(id & CHUNK_MASK, entity);
+	}
+
+	@Override
+	public Iterator<Entity> entityIterator() {
+		return new EntityArrayIterator();
+	}
+
+	@Override
+	public void update(Entity entity) {
+	}
+
+	@Override
+	public Entity getEntity(GenericName rawName) {
+		return this.getEntity(rawName.uniqName());
+	}
+
+	@Override
+	public Collection<Entity> getFileEntities() {
+		return allFileEntitiesByOrder;
+	}
+
+	@Override
+	public Iterator<Entity> sortedFileIterator() {
+		return allFileEntitiesByOrder.iterator();
+	}
+
+	@Override
+	public void clear() {
+		synchronized (growLock) {
+			allEntitiesByName.clear();
+			allEntitiesById = newChunks(16);
+			entitiesWithNegativeId.clear();
+			allFileEntitiesByOrder.clear();
+		}
+	}
+
+	@Override
+	public FileEntity getFileEntity(String fileFullPath) {
+		fileFullPath = FileUtil.uniqFilePath(fileFullPath);
+		Entity entity = this.getEntity(fileFullPath);
+		if (entity ==null) return null;
+		if (entity instanceof FileEntity) return (FileEntity) entity;
+		if (entity instanceof  MultiDeclareEntities){
+			MultiDeclareEntities multiDeclare = (MultiDeclareEntities) entity;
+			for (Entity theEntity: multiDeclare.getEntities()){
+				if (theEntity instanceof FileEntity){
+					return (FileEntity) theEntity;
+				}
+			}
+		}
+		return null;
+	}
+
+	@Override
+	public void completeFile(String fileFullPath) {
+		FileEntity fileEntity = getFileEntity(fileFullPath);
+		// in case of parse error(throw exception), the file entity may not exists
+		if (fileEntity!=null) {
+			fileEntity.cacheAllExpressions();
+			allFileEntitiesByOrder.add(fileEntity);
+		}
+	}
+}
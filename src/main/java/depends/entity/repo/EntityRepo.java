@@ -36,7 +36,7 @@ public interface EntityRepo extends IdGenerator {
 
 	Entity getEntity(String entityName);
 
-	Entity getEntity(Integer entityId);
+	Entity getEntity(int entityId);
 
 	Entity getEntity(GenericName rawName);
 
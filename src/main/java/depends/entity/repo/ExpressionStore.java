@@ -0,0 +1,115 @@
+package depends.entity.repo;
+
+import depends.entity.Expression;
+import multilang.depends.util.file.TemporaryFile;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The place where container entities spill their expressions to, between parsing
+ * and relation computing. The store is bound to the current TemporaryFile;
+ * once the temporary file is reset, a fresh store is created.
+ */
+public abstract class ExpressionStore {
+	public static final String SEGMENT = "segment";
+	public static final String FILE = "file";
+	public static final String MMAP = "mmap";
+	public static final long DEFAULT_MAX_MAPPED_BYTES = 1L << 30;
+	public static final long DEFAULT_MAX_CACHED_BYTES = 128L << 20;
+
+	private static String storeType = SEGMENT;
+	private static long maxMappedBytes = DEFAULT_MAX_MAPPED_BYTES;
+	private static long maxCachedBytes = DEFAULT_MAX_CACHED_BYTES;
+	private static ExpressionStore _inst = null;
+
+	protected final TemporaryFile temporaryFile;
+
+	protected ExpressionStore(TemporaryFile temporaryFile) {
+		this.temporaryFile = temporaryFile;
+	}
+
+	public static synchronized ExpressionStore getInstance() {
+		TemporaryFile temporaryFile = TemporaryFile.getInstance();
+		if (_inst!=null && _inst.temporaryFile==temporaryFile)
+			return _inst;
+		if (_inst!=null)
+			_inst.close();
+		_inst = create(temporaryFile);
+		return _inst;
+	}
+
+	private static ExpressionStore create(TemporaryFile temporaryFile) {
+		if (storeType.equals(FILE))
+			return new ObjectStreamExpressionStore(temporaryFile);
+		if (storeType.equals(MMAP))
+			return new MappedSegmentExpressionStore(temporaryFile, maxCachedBytes, maxMappedBytes);
+		return new SegmentExpressionStore(temporaryFile, maxCachedBytes);
+	}
+
+	public static boolean isSupportedType(String type) {
+		return SEGMENT.equals(type) || FILE.equals(type) || MMAP.equals(type);
+	}
+
+	public static synchronized void setStoreType(String type) {
+		if (!isSupportedType(type))
+			throw new IllegalArgumentException("unsupported expression store: " + type);
+		if (!type.equals(storeType))
+			shutdown();
+		storeType = type;
+	}
+
+	/**
+	 * The upper limit of memory-mapped segment bytes, only applicable for the mmap store
+	 */
+	public static synchronized void setMaxMappedBytes(long bytes) {
+		if (bytes!=maxMappedBytes)
+			shutdown();
+		maxMappedBytes = bytes;
+	}
+
+	/**
+	 * The upper limit of the (estimated) bytes of expressions kept in heap before spilling, not applicable for the file store
+	 */
+	public static synchronized void setMaxCachedBytes(long bytes) {
+		if (bytes!=maxCachedBytes)
+			shutdown();
+		maxCachedBytes = bytes;
+	}
+
+	/**
+	 * Release the files held by the current store, before the temporary files are deleted
+	 */
+	public static synchronized void shutdown() {
+		if (_inst==null) return;
+		_inst.close();
+		_inst = null;
+	}
+
+	/**
+	 * Save the expressions of the entity. A later save of the same entity replaces the former one.
+	 */
+	public abstract void save(int entityId, List<Expression> expressionList);
+
+	/**
+	 * @return the last saved expressions of the entity, or null if nothing is saved
+	 */
+	public abstract ArrayList<Expression> load(int entityId);
+
+	/**
+	 * @return the bytes of expressions spilled to disk, or 0 if it is not tracked by the store
+	 */
+	public long getSpilledBytes() {
+		return 0;
+	}
+
+	public long getCacheHits() {
+		return 0;
+	}
+
+	public long getCacheMisses() {
+		return 0;
+	}
+
+	protected abstract void close();
+}
@@ -30,5 +30,5 @@ public interface IdGenerator {
 	 * Generate a global unique ID for entity
 	 * @return the unique id
 	 */
-	Integer generateId();
+	int generateId();
 }
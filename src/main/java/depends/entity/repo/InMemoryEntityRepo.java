@@ -4,37 +4,51 @@ import depends.entity.*;
 import multilang.depends.util.file.FileUtil;
 
 import java.util.*;
-import java.util.Map.Entry;
 
 
 public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo {
 
-	public class EntityＭapIterator implements Iterator<Entity>{
+	/**
+	 * Walk the id index in ascending id order: negative ids (built-in entities) first,
+	 * then the dense part of the table. Empty slots are skipped.
+	 */
+	public class EntityArrayIterator implements Iterator<Entity>{
+		private int id = -entitiesWithNegativeId.length;
+		private Entity nextEntity = null;
 
-		private Iterator<Entry<Integer, Entity>> entryIterator;
-
-		public EntityＭapIterator(Set<Entry<Integer, Entity>> entries) {
-			this.entryIterator = entries.iterator();
-		}
 		@Override
 		public boolean hasNext() {
-			return entryIterator.hasNext();
+			if (nextEntity!=null) return true;
+			while (id<allEntitiesCount) {
+				nextEntity = getEntity(id++);
+				if (nextEntity!=null) return true;
+			}
+			return false;
 		}
 
 		@Override
 		public Entity next() {
-			return entryIterator.next().getValue();
+			if (!hasNext())
+				throw new NoSuchElementException();
+			Entity entity = nextEntity;
+			nextEntity = null;
+			return entity;
 		}
-		
 	}
-	
+
 	private Map<String, Entity> allEntieisByName;
-	private Map<Integer, Entity> allEntitiesById;
+	/* ids are generated contiguously from 0, so the index is a plain array; slot i holds entity i */
+	private Entity[] allEntitiesById;
+	private int allEntitiesCount;
+	/* slot i holds entity -(i+1) */
+	private Entity[] entitiesWithNegativeId;
 	private List<Entity> allFileEntitiesByOrder;
 
 	public InMemoryEntityRepo() {
 		allEntieisByName = new TreeMap<>();
-		allEntitiesById = new TreeMap<>();
+		allEntitiesById = new Entity[1024];
+		allEntitiesCount = 0;
+		entitiesWithNegativeId = new Entity[4];
 		allFileEntitiesByOrder = new LinkedList<>();
 		add(TypeEntity.buildInType);
 	}
@@ -45,13 +59,17 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 	}
 
 	@Override
-	public Entity getEntity(Integer entityId) {
-		return allEntitiesById.get(entityId);
+	public Entity getEntity(int entityId) {
+		if (entityId<0) {
+			int index = -entityId-1;
+			return index<entitiesWithNegativeId.length?entitiesWithNegativeId[index]:null;
+		}
+		return entityId<allEntitiesCount?allEntitiesById[entityId]:null;
 	}
 
 	@Override
 	public void add(Entity entity) {
-		allEntitiesById.put(entity.getId(), entity);
+		putById(entity);
 		String name = entity.getRawName().uniqName();
 		if (entity.getQualifiedName() != null && !(entity.getQualifiedName().isEmpty())) {
 			name = entity.getQualifiedName();
@@ -70,11 +88,28 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 		}
 		if (entity.getParent() != null)
 			Entity.setParent(entity, entity.getParent());
+		Entity.visibleNamesChanged(entity);
+	}
+
+	private void putById(Entity entity) {
+		int id = entity.getId();
+		if (id<0) {
+			int index = -id-1;
+			if (index>=entitiesWithNegativeId.length)
+				entitiesWithNegativeId = Arrays.copyOf(entitiesWithNegativeId, index+1);
+			entitiesWithNegativeId[index] = entity;
+			return;
+		}
+		if (id>=allEntitiesById.length)
+			allEntitiesById = Arrays.copyOf(allEntitiesById, Math.max(allEntitiesById.length*2, id+1));
+		allEntitiesById[id] = entity;
+		if (id>=allEntitiesCount)
+			allEntitiesCount = id+1;
 	}
 
 	@Override
 	public Iterator<Entity> entityIterator() {
-		return new EntityＭapIterator(allEntitiesById.entrySet());
+		return new EntityArrayIterator();
 	}
 
 	
@@ -100,7 +135,9 @@ public class InMemoryEntityRepo extends SimpleIdGenerator implements EntityRepo
 	@Override
 	public void clear() {
 		allEntieisByName.clear();
-		allEntitiesById.clear();
+		allEntitiesById = new Entity[1024];
+		allEntitiesCount = 0;
+		entitiesWithNegativeId = new Entity[4];
 		allFileEntitiesByOrder.clear();
 	}
 
@@ -0,0 +1,111 @@
+package depends.entity.repo;
+
+import multilang.depends.util.file.TemporaryFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * A segment store which reads records straight from memory-mapped segment files,
+ * so reloading expressions does not copy them into heap buffers, and the residency
+ * is left to the OS page cache.
+ * Only sealed segments are mapped, each of them as a whole. The entities are saved again
+ * after resolving, so the newer segments hold the records which are still read: a segment
+ * whose records are all superseded is released, and when the budget is used up, the older
+ * mappings are released to admit a newer segment. A segment not admitted is read the same
+ * way as the plain segment store (as is the segment still being written), and is admitted
+ * later once it fits. A released mapping is unmapped when the JVM collects it.
+ */
+public class MappedSegmentExpressionStore extends SegmentExpressionStore {
+	private final long maxMappedBytes;
+	private long mappedBytes = 0;
+	private final TreeMap<Integer, MappedByteBuffer> mappings = new TreeMap<>();
+
+	public MappedSegmentExpressionStore(TemporaryFile temporaryFile, long maxCachedBytes, long maxMappedBytes) {
+		super(temporaryFile, maxCachedBytes);
+		this.maxMappedBytes = maxMappedBytes;
+	}
+
+	MappedSegmentExpressionStore(TemporaryFile temporaryFile, long maxCachedBytes, long maxMappedBytes, long segmentSize) {
+		super(temporaryFile, maxCachedBytes, segmentSize);
+		this.maxMappedBytes = maxMappedBytes;
+	}
+
+	@Override
+	protected ByteBuffer readRecord(int segment, long offset, int length) {
+		MappedByteBuffer mapping = getMapping(segment);
+		if (mapping==null)
+			return super.readRecord(segment, offset, length);
+		ByteBuffer record = mapping.duplicate();
+		record.position((int)offset);
+		record.limit((int)offset+length);
+		return record.slice();
+	}
+
+	private synchronized MappedByteBuffer getMapping(int segment) {
+		MappedByteBuffer mapping = mappings.get(segment);
+		if (mapping!=null)
+			return mapping;
+		if (!isSealed(segment) || getLiveBytes(segment)==0)
+			return null;
+		try {
+			FileChannel channel = getSegment(segment);
+			long size = channel.size();
+			releaseSuperseded();
+			releaseOlder(segment, size);
+			if (mappedBytes+size>maxMappedBytes)
+				return null;
+			mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+			mappings.put(segment, mapping);
+			mappedBytes += size;
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+		return mapping;
+	}
+
+	/**
+	 * Release the mappings of the segments whose records are all superseded, which are never read again
+	 */
+	private void releaseSuperseded() {
+		Iterator<Map.Entry<Integer, MappedByteBuffer>> iterator = mappings.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<Integer, MappedByteBuffer> mapped = iterator.next();
+			if (getLiveBytes(mapped.getKey())==0) {
+				iterator.remove();
+				mappedBytes -= mapped.getValue().capacity();
+			}
+		}
+	}
+
+	/**
+	 * Release the mappings of the segments older than the given one, until it fits into the budget
+	 */
+	private void releaseOlder(int segment, long size) {
+		while (mappedBytes+size>maxMappedBytes && !mappings.isEmpty() && mappings.firstKey()<segment) {
+			mappedBytes -= mappings.pollFirstEntry().getValue().capacity();
+		}
+	}
+
+	public synchronized long getMappedBytes() {
+		return mappedBytes;
+	}
+
+	synchronized Set<Integer> getMappedSegments() {
+		return new TreeSet<>(mappings.keySet());
+	}
+
+	@Override
+	protected synchronized void close() {
+		mappings.clear();
+		mappedBytes = 0;
+		super.close();
+	}
+}
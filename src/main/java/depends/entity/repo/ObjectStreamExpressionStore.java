@@ -0,0 +1,50 @@
+package depends.entity.repo;
+
+import depends.entity.Expression;
+import multilang.depends.util.file.TemporaryFile;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The original store: one java-serialized file per container entity.
+ */
+public class ObjectStreamExpressionStore extends ExpressionStore {
+
+	public ObjectStreamExpressionStore(TemporaryFile temporaryFile) {
+		super(temporaryFile);
+	}
+
+	@Override
+	public void save(int entityId, List<Expression> expressionList) {
+		try {
+			FileOutputStream fileOut = new FileOutputStream(temporaryFile.exprPath(entityId));
+			ObjectOutputStream out = new ObjectOutputStream(fileOut);
+			out.writeObject(expressionList);
+			out.close();
+			fileOut.close();
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public ArrayList<Expression> load(int entityId) {
+		try {
+			FileInputStream fileIn = new FileInputStream(temporaryFile.exprPath(entityId));
+			ObjectInputStream in = new ObjectInputStream(fileIn);
+			ArrayList<Expression> expressionList = (ArrayList<Expression>) in.readObject();
+			in.close();
+			fileIn.close();
+			return expressionList;
+		} catch (IOException | ClassNotFoundException e) {
+			return null;
+		}
+	}
+
+	@Override
+	protected void close() {
+	}
+}
@@ -0,0 +1,328 @@
+package depends.entity.repo;
+
+import depends.entity.ContainerEntity;
+import depends.entity.Entity;
+import depends.entity.Expression;
+import depends.entity.FileEntity;
+import depends.entity.PackageEntity;
+import depends.entity.TypeEntity;
+import multilang.depends.util.file.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The parse result of files (entities, imports and unresolved expressions) persisted between runs.
+ * Each file is cached in its own entry, keyed by the file path and validated by the hash of the
+ * file content, so that only the changed files are parsed again. Binding and relations are always
+ * computed from scratch.
+ *
+ * The entities of a file get new ids when they are restored: the ids of the file are a contiguous
+ * block in the run which cached it, and the block is shifted to the next ids of the current run.
+ * The entities outside the file (the packages) are cached as references by their qualified names.
+ * It only applies to the languages whose files are parsed independently of each other.
+ */
+public class ParseCache {
+	private static final Logger logger = LoggerFactory.getLogger(ParseCache.class);
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".cache";
+
+	private final File cacheDir;
+	private final String language;
+	private final EntityRepo repo;
+	private final Map<String, String> contentHashes = new ConcurrentHashMap<>();
+	private final AtomicInteger loadedFiles = new AtomicInteger();
+	private final AtomicInteger parsedFiles = new AtomicInteger();
+
+	public ParseCache(String cacheDir, String language, EntityRepo repo) {
+		this.cacheDir = new File(cacheDir);
+		this.language = language;
+		this.repo = repo;
+		this.cacheDir.mkdirs();
+	}
+
+	/**
+	 * @return whether the cached entry of the file is up to date. It is thread-safe.
+	 */
+	public boolean isValid(String filePath) {
+		filePath = FileUtil.uniqFilePath(filePath);
+		File entry = entryOf(filePath);
+		if (!entry.exists())
+			return false;
+		try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+			return readHeader(in, filePath);
+		} catch (IOException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Restore the entities of the file into the repo, if the cached entry is up to date
+	 * @return true if the file is restored; false if it should be parsed
+	 */
+	public boolean load(String filePath) {
+		filePath = FileUtil.uniqFilePath(filePath);
+		if (repo.getFileEntity(filePath) != null)
+			return false;
+		File entry = entryOf(filePath);
+		if (!entry.exists())
+			return false;
+		try (Input in = new Input(new BufferedInputStream(new FileInputStream(entry)))) {
+			if (!readHeader(in, filePath))
+				return false;
+			System.out.println("loading " + filePath + " from parse cache...");
+			restore(in);
+			repo.completeFile(filePath);
+			loadedFiles.incrementAndGet();
+			return true;
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			logger.warn("cannot load " + filePath + " from parse cache: " + e);
+			return false;
+		}
+	}
+
+	private boolean readHeader(DataInput in, String filePath) throws IOException {
+		return in.readInt() == FORMAT_VERSION && in.readUTF().equals(language) && in.readUTF().equals(filePath)
+				&& in.readUTF().equals(contentHash(filePath));
+	}
+
+	private void restore(Input in) throws IOException, ClassNotFoundException {
+		int minId = in.readInt();
+		int maxId = in.readInt();
+		int base = repo.generateId();
+		for (int i = minId; i < maxId; i++) {
+			repo.generateId();
+		}
+		in.setIdBlock(minId, maxId, base);
+		int[] repoIds = (int[]) in.readObject();
+		FileEntity file = (FileEntity) in.readObject();
+		int containers = in.readInt();
+		for (int i = 0; i < containers; i++) {
+			int containerId = in.shiftId(in.readInt());
+			@SuppressWarnings("unchecked")
+			List<Expression> expressions = (List<Expression>) in.readObject();
+			ExpressionStore.getInstance().save(containerId, expressions);
+		}
+
+		Map<Integer, Entity> entities = new HashMap<>();
+		collect(file, entities);
+		for (int id : repoIds) {
+			repo.add(entities.get(in.shiftId(id)));
+		}
+		if (file.getParent() != null)
+			file.getParent().addChild(file);
+	}
+
+	/**
+	 * Save the entities of the parsed file. It does nothing if the cached entry is still up to date,
+	 * or if the file refers to entities of other files.
+	 */
+	public void save(String filePath) {
+		filePath = FileUtil.uniqFilePath(filePath);
+		parsedFiles.incrementAndGet();
+		FileEntity file = repo.getFileEntity(filePath);
+		if (file == null || isValid(filePath))
+			return;
+		Map<Integer, Entity> entities = new HashMap<>();
+		collect(file, entities);
+		int minId = file.getId();
+		int maxId = minId;
+		List<Integer> repoIds = new ArrayList<>();
+		Map<Integer, List<Expression>> expressions = new TreeMap<>();
+		for (Entity entity : entities.values()) {
+			minId = Math.min(minId, entity.getId());
+			maxId = Math.max(maxId, entity.getId());
+			if (repo.getEntity(entity.getId()) == entity)
+				repoIds.add(entity.getId());
+			if (entity instanceof ContainerEntity) {
+				List<Expression> expressionList = ExpressionStore.getInstance().load(entity.getId());
+				if (expressionList == null)
+					continue;
+				for (Expression expression : expressionList) {
+					maxId = Math.max(maxId, expression.id);
+				}
+				expressions.put(entity.getId(), expressionList);
+			}
+		}
+		Collections.sort(repoIds);
+
+		File entry = entryOf(filePath);
+		File temp = new File(entry.getPath() + ".tmp");
+		try (Output out = new Output(new BufferedOutputStream(new FileOutputStream(temp)), entities)) {
+			out.writeInt(FORMAT_VERSION);
+			out.writeUTF(language);
+			out.writeUTF(filePath);
+			out.writeUTF(contentHash(filePath));
+			out.writeInt(minId);
+			out.writeInt(maxId);
+			out.writeObject(repoIds.stream().mapToInt(Integer::intValue).toArray());
+			out.writeObject(file);
+			out.writeInt(expressions.size());
+			for (Map.Entry<Integer, List<Expression>> e : expressions.entrySet()) {
+				out.writeInt(e.getKey());
+				out.writeObject(new ArrayList<>(e.getValue()));
+			}
+		} catch (IOException e) {
+			logger.warn("cannot save " + filePath + " to parse cache: " + e);
+			temp.delete();
+			return;
+		}
+		try {
+			Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.warn("cannot save " + filePath + " to parse cache: " + e);
+			temp.delete();
+		}
+	}
+
+	/**
+	 * @return the number of files restored from the cache
+	 */
+	public int getLoadedFiles() {
+		return loadedFiles.get();
+	}
+
+	/**
+	 * @return the number of files parsed (missed in the cache)
+	 */
+	public int getParsedFiles() {
+		return parsedFiles.get();
+	}
+
+	private static void collect(Entity entity, Map<Integer, Entity> entities) {
+		entities.put(entity.getId(), entity);
+		for (Entity child : entity.getChildren()) {
+			collect(child, entities);
+		}
+	}
+
+	private File entryOf(String filePath) {
+		return new File(cacheDir, hex(digest(filePath.getBytes(StandardCharsets.UTF_8))) + SUFFIX);
+	}
+
+	private String contentHash(String filePath) throws IOException {
+		String hash = contentHashes.get(filePath);
+		if (hash == null) {
+			Path path = Paths.get(filePath);
+			hash = hex(digest(Files.readAllBytes(path)));
+			contentHashes.put(filePath, hash);
+		}
+		return hash;
+	}
+
+	private static byte[] digest(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance("SHA-1").digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+
+	/**
+	 * The entity outside the cached file, which is referred by its qualified name
+	 */
+	private static class ExternalEntity implements Serializable {
+		private static final long serialVersionUID = 1L;
+		private static final String BUILT_IN = "<built-in>";
+		private static final String GENERIC_PARAMETER = "<generic-parameter>";
+		private final String qualifiedName;
+
+		ExternalEntity(String qualifiedName) {
+			this.qualifiedName = qualifiedName;
+		}
+	}
+
+	private static class Output extends ObjectOutputStream {
+		private final Map<Integer, Entity> entities;
+
+		Output(OutputStream out, Map<Integer, Entity> entities) throws IOException {
+			super(out);
+			this.entities = entities;
+			enableReplaceObject(true);
+		}
+
+		@Override
+		protected Object replaceObject(Object obj) throws IOException {
+			if (!(obj instanceof Entity))
+				return obj;
+			if (obj == TypeEntity.buildInType)
+				return new ExternalEntity(ExternalEntity.BUILT_IN);
+			if (obj == TypeEntity.genericParameterType)
+				return new ExternalEntity(ExternalEntity.GENERIC_PARAMETER);
+			Entity entity = (Entity) obj;
+			if (entity.getId() < 0 || entities.get(entity.getId()) == entity)
+				return obj;
+			if (entity instanceof PackageEntity)
+				return new ExternalEntity(entity.getQualifiedName());
+			throw new NotSerializableException("refers to entity of other file: " + entity.getQualifiedName());
+		}
+	}
+
+	/**
+	 * The stream which restores the cached entities with the ids of the current run
+	 */
+	public class Input extends ObjectInputStream {
+		private int minId;
+		private int maxId;
+		private int base;
+
+		Input(InputStream in) throws IOException {
+			super(in);
+			enableResolveObject(true);
+		}
+
+		void setIdBlock(int minId, int maxId, int base) {
+			this.minId = minId;
+			this.maxId = maxId;
+			this.base = base;
+		}
+
+		public int shiftId(int id) {
+			if (id < minId || id > maxId)
+				return id;
+			return id - minId + base;
+		}
+
+		public Integer shiftId(Integer id) {
+			if (id == null)
+				return null;
+			return shiftId(id.intValue());
+		}
+
+		@Override
+		protected Object resolveObject(Object obj) throws IOException {
+			if (!(obj instanceof ExternalEntity))
+				return obj;
+			String qualifiedName = ((ExternalEntity) obj).qualifiedName;
+			if (qualifiedName.equals(ExternalEntity.BUILT_IN))
+				return TypeEntity.buildInType;
+			if (qualifiedName.equals(ExternalEntity.GENERIC_PARAMETER))
+				return TypeEntity.genericParameterType;
+			Entity entity = repo.getEntity(qualifiedName);
+			if (entity == null) {
+				entity = new PackageEntity(qualifiedName, repo.generateId());
+				repo.add(entity);
+			}
+			return entity;
+		}
+	}
+}
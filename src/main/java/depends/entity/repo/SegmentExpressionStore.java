@@ -0,0 +1,309 @@
+package depends.entity.repo;
+
+import depends.entity.Expression;
+import depends.entity.ExpressionCodec;
+import multilang.depends.util.file.TemporaryFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expressions are encoded by {@link ExpressionCodec} and appended into a few large segment files,
+ * through an in-memory write buffer. The location of the last saved record of each entity is kept
+ * in an array indexed by entity id. Earlier records of a re-saved entity are simply left behind;
+ * only the bytes of the records still live are counted per segment.
+ *
+ * The expressions are kept in a heap cache first, bounded by maxCachedBytes (as estimated by
+ * Expression.estimatedSize). Only the least recently used ones are encoded and spilled to the
+ * segment files, once the cache is over the budget, so the codec is paid for the spilled
+ * expressions only. The cache keeps its own copies (see Expression.copy), and hands out copies
+ * too, so a reloaded expression is always a fresh copy, no matter it comes from memory or from disk.
+ */
+public class SegmentExpressionStore extends ExpressionStore {
+	private static final long SEGMENT_SIZE = 64L << 20;
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+	private static final int OFFSET_BITS = 40;
+	private static final long OFFSET_MASK = (1L << OFFSET_BITS) - 1;
+
+	private final long segmentSize;
+	private final ExpressionCodec codec = new ExpressionCodec();
+	private final List<FileChannel> segments = new ArrayList<>();
+	/* segment index << OFFSET_BITS | offset in segment, indexed by entity id */
+	private long[] locations = new long[1024];
+	/* length of the record; 0 means the entity has not been saved, negative means superseded */
+	private int[] lengths = new int[1024];
+	/* bytes of the records not superseded yet, indexed by segment */
+	private long[] liveBytes = new long[16];
+	private final ByteBuffer writeBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE);
+	/* bytes of the last segment which are already written to the file */
+	private long flushedSize = 0;
+	private long spilledBytes = 0;
+	/* expressions not spilled yet, in the order of access */
+	private final LinkedHashMap<Integer, CachedExpressions> cache = new LinkedHashMap<>(16, 0.75f, true);
+	private final long maxCachedBytes;
+	private long cachedBytes = 0;
+	private long cacheHits = 0;
+	private long cacheMisses = 0;
+
+	public SegmentExpressionStore(TemporaryFile temporaryFile) {
+		this(temporaryFile, 0);
+	}
+
+	public SegmentExpressionStore(TemporaryFile temporaryFile, long maxCachedBytes) {
+		this(temporaryFile, maxCachedBytes, SEGMENT_SIZE);
+	}
+
+	SegmentExpressionStore(TemporaryFile temporaryFile, long maxCachedBytes, long segmentSize) {
+		super(temporaryFile);
+		this.maxCachedBytes = maxCachedBytes;
+		this.segmentSize = segmentSize;
+	}
+
+	@Override
+	public void save(int entityId, List<Expression> expressionList) {
+		if (entityId<0) return;
+		long size = 0;
+		for (Expression expression:expressionList) {
+			size += expression.estimatedSize();
+		}
+		byte[] record = null;
+		CachedExpressions cached = null;
+		if (size>maxCachedBytes)
+			record = codec.encode(expressionList);
+		else
+			cached = new CachedExpressions(copyOf(expressionList), size);
+		try {
+			synchronized (this) {
+				CachedExpressions replaced = cache.remove(entityId);
+				if (replaced!=null)
+					cachedBytes -= replaced.size;
+				if (record!=null) {
+					spill(entityId, record);
+					return;
+				}
+				supersede(entityId);
+				cache.put(entityId, cached);
+				cachedBytes += size;
+				evict();
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+		}
+	}
+
+	private void evict() throws IOException {
+		Iterator<Map.Entry<Integer, CachedExpressions>> iterator = cache.entrySet().iterator();
+		while (cachedBytes>maxCachedBytes && iterator.hasNext()) {
+			Map.Entry<Integer, CachedExpressions> eldest = iterator.next();
+			iterator.remove();
+			cachedBytes -= eldest.getValue().size;
+			spill(eldest.getKey(), codec.encode(eldest.getValue().expressions));
+		}
+	}
+
+	private static ArrayList<Expression> copyOf(List<Expression> expressionList) {
+		ArrayList<Expression> copy = new ArrayList<>(expressionList.size());
+		for (Expression expression:expressionList) {
+			copy.add(expression.copy());
+		}
+		return copy;
+	}
+
+	private void spill(int entityId, byte[] record) throws IOException {
+		long location = append(record);
+		if (entityId>=lengths.length) {
+			int size = Math.max(lengths.length*2, entityId+1);
+			locations = Arrays.copyOf(locations, size);
+			lengths = Arrays.copyOf(lengths, size);
+		}
+		supersede(entityId);
+		locations[entityId] = location;
+		lengths[entityId] = record.length;
+		liveBytes[(int)(location >>> OFFSET_BITS)] += record.length;
+		spilledBytes += record.length;
+	}
+
+	/**
+	 * The spilled record of the entity is replaced by a newer one. It stays readable for a load
+	 * racing with the save, but is no longer counted in the live bytes of its segment.
+	 */
+	private void supersede(int entityId) {
+		if (entityId>=lengths.length || lengths[entityId]<=0) return;
+		liveBytes[(int)(locations[entityId] >>> OFFSET_BITS)] -= lengths[entityId];
+		lengths[entityId] = -lengths[entityId];
+	}
+
+	private long append(byte[] record) throws IOException {
+		long size = flushedSize + writeBuffer.position();
+		if (segments.isEmpty() || (size>0 && size+record.length>segmentSize)) {
+			flush();
+			newSegment();
+			size = 0;
+		}
+		long location = ((long)(segments.size()-1) << OFFSET_BITS) | size;
+		if (record.length>writeBuffer.remaining())
+			flush();
+		if (record.length>writeBuffer.capacity()) {
+			write(ByteBuffer.wrap(record));
+		}else {
+			writeBuffer.put(record);
+		}
+		return location;
+	}
+
+	private void newSegment() throws IOException {
+		File dir = new File(temporaryFile.exprPath(0)).getParentFile();
+		File file = new File(dir, "expressions-" + segments.size() + ".segment");
+		if (segments.size()==liveBytes.length)
+			liveBytes = Arrays.copyOf(liveBytes, liveBytes.length*2);
+		segments.add(new RandomAccessFile(file, "rw").getChannel());
+		flushedSize = 0;
+	}
+
+	private void flush() throws IOException {
+		if (writeBuffer.position()==0) return;
+		writeBuffer.flip();
+		write(writeBuffer);
+		writeBuffer.clear();
+	}
+
+	private void write(ByteBuffer buffer) throws IOException {
+		FileChannel channel = segments.get(segments.size()-1);
+		while (buffer.hasRemaining()) {
+			flushedSize += channel.write(buffer, flushedSize);
+		}
+	}
+
+	@Override
+	public ArrayList<Expression> load(int entityId) {
+		List<Expression> cached = loadFromCache(entityId);
+		if (cached!=null)
+			return copyOf(cached);
+		ByteBuffer record = loadFromSegment(entityId);
+		if (record==null) return null;
+		return codec.decode(record);
+	}
+
+	/**
+	 * @return the cached expressions, which are never modified, so they could be copied without the lock
+	 */
+	private synchronized List<Expression> loadFromCache(int entityId) {
+		CachedExpressions cached = cache.get(entityId);
+		if (cached==null) {
+			cacheMisses++;
+			return null;
+		}
+		cacheHits++;
+		return cached.expressions;
+	}
+
+	private ByteBuffer loadFromSegment(int entityId) {
+		int segment;
+		long offset;
+		int length;
+		synchronized (this) {
+			if (entityId<0 || entityId>=lengths.length || lengths[entityId]==0)
+				return null;
+			segment = (int)(locations[entityId] >>> OFFSET_BITS);
+			offset = locations[entityId] & OFFSET_MASK;
+			length = Math.abs(lengths[entityId]);
+			if (segment==segments.size()-1 && offset>=flushedSize) {
+				ByteBuffer record = ByteBuffer.allocate(length);
+				record.put(writeBuffer.array(), (int)(offset-flushedSize), length);
+				record.flip();
+				return record;
+			}
+		}
+		return readRecord(segment, offset, length);
+	}
+
+	/**
+	 * Read a record which is already written to the segment file.
+	 * @return the buffer positioned at the beginning of the record, or null if failed
+	 */
+	protected ByteBuffer readRecord(int segment, long offset, int length) {
+		ByteBuffer record = ByteBuffer.allocate(length);
+		try {
+			FileChannel channel = getSegment(segment);
+			while (record.hasRemaining()) {
+				if (channel.read(record, offset+record.position())<0)
+					return null;
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return null;
+		}
+		record.flip();
+		return record;
+	}
+
+	protected synchronized FileChannel getSegment(int segment) {
+		return segments.get(segment);
+	}
+
+	/**
+	 * @return the bytes of the records in the segment which are not superseded by later saves
+	 */
+	protected synchronized long getLiveBytes(int segment) {
+		return liveBytes[segment];
+	}
+
+	/**
+	 * A segment is sealed once a newer segment is started; it is fully written and never grows again.
+	 */
+	protected synchronized boolean isSealed(int segment) {
+		return segment<segments.size()-1;
+	}
+
+	@Override
+	public synchronized long getSpilledBytes() {
+		return spilledBytes;
+	}
+
+	public synchronized long getCachedBytes() {
+		return cachedBytes;
+	}
+
+	@Override
+	public synchronized long getCacheHits() {
+		return cacheHits;
+	}
+
+	@Override
+	public synchronized long getCacheMisses() {
+		return cacheMisses;
+	}
+
+	@Override
+	protected synchronized void close() {
+		cache.clear();
+		cachedBytes = 0;
+		for (FileChannel channel:segments) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		segments.clear();
+	}
+
+	private static class CachedExpressions {
+		final List<Expression> expressions;
+		final long size;
+
+		CachedExpressions(List<Expression> expressions, long size) {
+			this.expressions = expressions;
+			this.size = size;
+		}
+	}
+}
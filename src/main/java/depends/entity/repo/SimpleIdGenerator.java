@@ -1,18 +1,20 @@
 package depends.entity.repo;
 
+import java.util.concurrent.atomic.AtomicInteger;
+
 public class SimpleIdGenerator implements IdGenerator {
 
-	private int nextAvaliableIndex;
+	private AtomicInteger nextAvaliableIndex;
 	public SimpleIdGenerator() {
-		nextAvaliableIndex = 0;
+		nextAvaliableIndex = new AtomicInteger(0);
 	}
 	/**
 	 * Generate a global unique ID for entity
 	 * @return the unique id
 	 */
 	@Override
-	public Integer generateId() {
-		return nextAvaliableIndex++;
+	public int generateId() {
+		return nextAvaliableIndex.getAndIncrement();
 	}
 
 }
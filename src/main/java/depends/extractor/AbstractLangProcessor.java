@@ -29,6 +29,8 @@ import depends.entity.FileEntity;
 import depends.entity.repo.BuiltInType;
 import depends.entity.repo.EntityRepo;
 import depends.entity.repo.InMemoryEntityRepo;
+import depends.entity.repo.ParseCache;
+import depends.metrics.PipelineMetrics;
 import depends.relations.ImportLookupStrategy;
 import depends.relations.IBindingResolver;
 import multilang.depends.util.file.FileTraversal;
@@ -42,8 +44,13 @@ import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 abstract public class AbstractLangProcessor {
 
@@ -89,6 +96,10 @@ abstract public class AbstractLangProcessor {
 	public String[] includeDirs;
 	private Set<UnsolvedBindings> potentialExternalDependencies;
 	private List<String> includePaths;
+	private int parseThreads = 1;
+	private String parseCacheDir;
+	private ParseCache parseCache;
+	private int fileCount = 0;
 	private static Logger logger = LoggerFactory.getLogger(AbstractLangProcessor.class);
 	
 	public AbstractLangProcessor() {
@@ -110,13 +121,20 @@ abstract public class AbstractLangProcessor {
 		this.includeDirs = includeDir;
 		this.bindingResolver = bindingResolver;
 		logger.info("Start parsing files...");
-		parseAllFiles();
-		markAllEntitiesScope();
+		PipelineMetrics metrics = PipelineMetrics.getInstance();
+		try (PipelineMetrics.Phase phase = metrics.start("parse")) {
+			parseAllFiles();
+		}
+		try (PipelineMetrics.Phase phase = metrics.start("scopeMarking")) {
+			markAllEntitiesScope();
+		}
 		if (logger.isInfoEnabled()) {
 			logger.info("Resolve types and bindings of variables, methods and expressions.... " + this.inputSrcPath);
 			logger.info("Heap Information: " + ManagementFactory.getMemoryMXBean().getHeapMemoryUsage());
 		}
-		resolveBindings();
+		try (PipelineMetrics.Phase phase = metrics.start("resolution")) {
+			resolveBindings();
+		}
 		if (logger.isInfoEnabled()) {
 			System.gc();
 			logger.info("Heap Information: " + ManagementFactory.getMemoryMXBean().getHeapMemoryUsage());
@@ -153,7 +171,16 @@ abstract public class AbstractLangProcessor {
 
 	private final void parseAllFiles() {
 		System.out.println("Start parsing files...");
+		parseCache = null;
+		fileCount = 0;
+		if (parseCacheDir!=null) {
+			if (supportParseCache())
+				parseCache = new ParseCache(parseCacheDir, supportedLanguage(), entityRepo);
+			else
+				System.out.println("parse cache is not supported for " + supportedLanguage() + "...ignored");
+		}
 		Set<String> phase2Files = new HashSet<>();
+		List<String> files = new ArrayList<>();
 		FileTraversal fileTransversal = new FileTraversal(new FileTraversal.IFileVisitor() {
 			@Override
 			public void visit(File file) {
@@ -161,26 +188,91 @@ abstract public class AbstractLangProcessor {
 				if (!fileFullPath.startsWith(inputSrcPath)) {
 					return;
 				}
-				parseFile(fileFullPath, phase2Files);
+				fileCount++;
+				if (parseThreads>1) {
+					files.add(fileFullPath);
+				}else {
+					parseFile(fileFullPath, phase2Files);
+				}
 			}
 
 		});
 		fileTransversal.extensionFilter(this.fileSuffixes());
 		fileTransversal.travers(this.inputSrcPath);
+		if (parseThreads>1) {
+			parseFilesInParallel(files, phase2Files);
+		}
 		for (String f : phase2Files) {
 			parseFile(f, phase2Files);
 		}
 		System.out.println("all files procceed successfully...");
+		if (parseCache!=null) {
+			System.out.println(parseCache.getLoadedFiles() + " files loaded from parse cache, "
+					+ parseCache.getParsedFiles() + " files parsed");
+		}
+		for (AntlrPredictionCache predictionCache:AntlrPredictionCache.all()) {
+			if (predictionCache.getParsedFiles()>0)
+				System.out.println(predictionCache);
+		}
 
 	}
 
+	/**
+	 * The syntax parsing (the most expensive part) of files is done by worker threads,
+	 * while the entities are still extracted one file by one file in the traversal order.
+	 * Therefore the entity ids, the repo and the output are exactly the same as
+	 * the single thread mode.
+	 * @param files
+	 * @param phase2Files
+	 */
+	private void parseFilesInParallel(List<String> files, Set<String> phase2Files) {
+		ExecutorService executor = Executors.newFixedThreadPool(parseThreads);
+		LinkedList<Future<Object>> syntaxTrees = new LinkedList<>();
+		LinkedList<FileParser> fileParsers = new LinkedList<>();
+		/* limit the parsed but not extracted files to save memory */
+		int maxPending = parseThreads * 4;
+		int next = 0;
+		try {
+			for (String fileFullPath : files) {
+				while (next < files.size() && syntaxTrees.size() < maxPending) {
+					String file = files.get(next++);
+					FileParser fileParser = createFileParser();
+					fileParsers.add(fileParser);
+					syntaxTrees.add(executor.submit(() -> fileParser.isPhase2Files(file) || isCached(file) ? null : fileParser.parseSyntax(file)));
+				}
+				FileParser fileParser = fileParsers.removeFirst();
+				Object syntaxTree = null;
+				try {
+					syntaxTree = syntaxTrees.removeFirst().get();
+				} catch (ExecutionException e) {
+					/* fallback to parse it in main thread, where the error will be reported */
+				}
+				parseFile(fileParser, fileFullPath, syntaxTree, phase2Files);
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+
+	private boolean isCached(String fileFullPath) {
+		return parseCache!=null && parseCache.isValid(fileFullPath);
+	}
+
 	protected void parseFile(String fileFullPath, Set<String> phase2Files) {
-		FileParser fileParser = createFileParser();
+		parseFile(createFileParser(), fileFullPath, null, phase2Files);
+	}
+
+	private void parseFile(FileParser fileParser, String fileFullPath, Object syntaxTree, Set<String> phase2Files) {
 		try {
 			if (fileParser.isPhase2Files(fileFullPath)){
 				phase2Files.add(fileFullPath);
-			}else {
-				fileParser.parse(fileFullPath);
+			}else if (parseCache==null) {
+				fileParser.parse(fileFullPath, syntaxTree);
+			}else if (!parseCache.load(fileFullPath)) {
+				fileParser.parse(fileFullPath, syntaxTree);
+				parseCache.save(fileFullPath);
 			}
 		} catch (IOException e) {
 			e.printStackTrace();
@@ -216,6 +308,58 @@ abstract public class AbstractLangProcessor {
 	}
 
 
+	/**
+	 * The number of threads used to parse files. 1 (by default) means parse in the main thread only
+	 * @param parseThreads
+	 */
+	public void setParseThreads(int parseThreads) {
+		this.parseThreads = parseThreads;
+	}
+
+	/**
+	 * The directory of the parse cache. The unchanged files are restored from the cache
+	 * instead of being parsed again, if the lang supports it.
+	 * @param parseCacheDir - null (by default) means no cache
+	 */
+	public void setParseCacheDir(String parseCacheDir) {
+		this.parseCacheDir = parseCacheDir;
+	}
+
+	/**
+	 * @return the parse cache of the last run, or null if no cache is used
+	 */
+	public ParseCache getParseCache() {
+		return parseCache;
+	}
+
+	/**
+	 * @return the number of source files found in the last run
+	 */
+	public int getFileCount() {
+		return fileCount;
+	}
+
+	/**
+	 * Add the language specific metrics (e.g. of its caches) to the report
+	 * @param metrics
+	 */
+	public void reportMetrics(PipelineMetrics metrics) {
+	}
+
+	/**
+	 * Release the language specific resources (e.g. memory-mapped files) at the end of the analysis
+	 */
+	public void shutdown() {
+	}
+
+	/**
+	 * Replace the entity repo. It should be invoked before the binding resolver is created.
+	 * @param entityRepo
+	 */
+	public void setEntityRepo(EntityRepo entityRepo) {
+		this.entityRepo = entityRepo;
+	}
+
 	public EntityRepo getEntityRepo() {
 		return this.entityRepo;
 	}
@@ -245,4 +389,11 @@ abstract public class AbstractLangProcessor {
 	 * @return
 	 */
 	public boolean supportCallAsImpl(){return false;};
+
+	/**
+	 * Whether the parse result of each file could be cached between runs, i.e. the entities of
+	 * a file only depend on the file itself (and the packages it declares)
+	 * @return
+	 */
+	public boolean supportParseCache(){return false;};
 }
@@ -0,0 +1,252 @@
+package depends.extractor;
+
+import org.antlr.v4.runtime.ANTLRErrorListener;
+import org.antlr.v4.runtime.ANTLRErrorStrategy;
+import org.antlr.v4.runtime.BailErrorStrategy;
+import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.Parser;
+import org.antlr.v4.runtime.atn.ATN;
+import org.antlr.v4.runtime.atn.LexerATNSimulator;
+import org.antlr.v4.runtime.atn.ParserATNSimulator;
+import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.dfa.DFA;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * The adaptive prediction caches (the DFA and the prediction contexts) of the ANTLR grammar
+ * of a language, shared by all the files and the parser threads of the language, so that
+ * files are parsed with a warm DFA instead of building it again for each file.
+ * The DFA is not cleared per file any more; it is reset only when its estimated size is over
+ * the ceiling (see setMaxBytes), and while no parse of the language is running.
+ *
+ * Files are parsed in two stages by default: the faster SLL prediction with a bail-out error
+ * strategy first, and the full LL prediction (with the error recovery and reports) only if
+ * the SLL stage fails. It could be turned off per language by setTwoStageParse().
+ */
+public class AntlrPredictionCache {
+	public static final long DEFAULT_MAX_BYTES = 256L << 20;
+	/* rough sizes, including the ATN configurations of a state */
+	private static final long BYTES_PER_DFA_STATE = 1024;
+	private static final long BYTES_PER_CONTEXT = 128;
+	private static final ConcurrentHashMap<String, AntlrPredictionCache> caches = new ConcurrentHashMap<>();
+	private static volatile long maxBytes = DEFAULT_MAX_BYTES;
+	private static final Set<String> llOnlyLanguages = ConcurrentHashMap.newKeySet();
+
+	private final String language;
+	private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+	private volatile PredictionContextCache lexerContexts = new PredictionContextCache();
+	private volatile PredictionContextCache parserContexts = new PredictionContextCache();
+	private ATN lexerATN;
+	private DFA[] lexerDFA;
+	private ATN parserATN;
+	private DFA[] parserDFA;
+	private final AtomicLong parsedFiles = new AtomicLong();
+	private final AtomicLong resets = new AtomicLong();
+	private final AtomicLong sllParses = new AtomicLong();
+	private final AtomicLong llFallbacks = new AtomicLong();
+
+	private AntlrPredictionCache(String language) {
+		this.language = language;
+	}
+
+	public static AntlrPredictionCache of(String language) {
+		return caches.computeIfAbsent(language, AntlrPredictionCache::new);
+	}
+
+	/**
+	 * @return the caches of all languages
+	 */
+	public static Collection<AntlrPredictionCache> all() {
+		return caches.values();
+	}
+
+	/**
+	 * Whether to parse the files of the language by SLL first (the default), or by LL only
+	 */
+	public static void setTwoStageParse(String language, boolean twoStage) {
+		if (twoStage)
+			llOnlyLanguages.remove(language);
+		else
+			llOnlyLanguages.add(language);
+	}
+
+	public static boolean isTwoStageParse(String language) {
+		return !llOnlyLanguages.contains(language);
+	}
+
+	/**
+	 * The ceiling of the estimated bytes of the prediction caches of each language
+	 */
+	public static void setMaxBytes(long bytes) {
+		maxBytes = bytes;
+	}
+
+	/**
+	 * Let the lexer predict with the shared caches
+	 */
+	public void configure(Lexer lexer) {
+		LexerATNSimulator interpreter = lexer.getInterpreter();
+		synchronized (this) {
+			if (lexerDFA == null) {
+				lexerATN = interpreter.atn;
+				lexerDFA = interpreter.decisionToDFA;
+			}
+		}
+		lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), interpreter.decisionToDFA, lexerContexts));
+	}
+
+	/**
+	 * Let the parser predict with the shared caches
+	 */
+	public void configure(Parser parser) {
+		ParserATNSimulator interpreter = parser.getInterpreter();
+		synchronized (this) {
+			if (parserDFA == null) {
+				parserATN = interpreter.atn;
+				parserDFA = interpreter.decisionToDFA;
+			}
+		}
+		parser.setInterpreter(new ParserATNSimulator(parser, parser.getATN(), interpreter.decisionToDFA, parserContexts));
+	}
+
+	/**
+	 * Parse the file by the rule, with the parser configured by this cache
+	 * @return the result of the rule
+	 */
+	public <P extends Parser, T> T parse(P parser, Function<P, T> rule) {
+		lock.readLock().lock();
+		try {
+			if (!isTwoStageParse(language))
+				return rule.apply(parser);
+			return parseTwoStage(parser, rule);
+		} finally {
+			lock.readLock().unlock();
+			parsedFiles.incrementAndGet();
+			resetIfOverCeiling();
+		}
+	}
+
+	private <P extends Parser, T> T parseTwoStage(P parser, Function<P, T> rule) {
+		ANTLRErrorStrategy errorHandler = parser.getErrorHandler();
+		List<? extends ANTLRErrorListener> errorListeners = new ArrayList<>(parser.getErrorListeners());
+		PredictionMode predictionMode = parser.getInterpreter().getPredictionMode();
+		parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+		parser.setErrorHandler(new BailErrorStrategy());
+		parser.removeErrorListeners();
+		try {
+			T result = rule.apply(parser);
+			sllParses.incrementAndGet();
+			return result;
+		} catch (ParseCancellationException e) {
+			/* fall through to the LL stage */
+		} finally {
+			parser.setErrorHandler(errorHandler);
+			for (ANTLRErrorListener listener : errorListeners) {
+				parser.addErrorListener(listener);
+			}
+			parser.getInterpreter().setPredictionMode(predictionMode);
+		}
+		/* the SLL stage failed: parse again from the first token by LL */
+		llFallbacks.incrementAndGet();
+		parser.reset();
+		return rule.apply(parser);
+	}
+
+	private void resetIfOverCeiling() {
+		if (getEstimatedBytes() <= maxBytes)
+			return;
+		lock.writeLock().lock();
+		try {
+			if (getEstimatedBytes() > maxBytes)
+				reset();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * The same as clearDFA() of the interpreters, for both the lexer and the parser
+	 */
+	private synchronized void reset() {
+		clear(lexerATN, lexerDFA);
+		clear(parserATN, parserDFA);
+		lexerContexts = new PredictionContextCache();
+		parserContexts = new PredictionContextCache();
+		resets.incrementAndGet();
+	}
+
+	private static void clear(ATN atn, DFA[] decisionToDFA) {
+		if (decisionToDFA == null)
+			return;
+		for (int d = 0; d < decisionToDFA.length; d++) {
+			decisionToDFA[d] = new DFA(atn.getDecisionState(d), d);
+		}
+	}
+
+	/**
+	 * @return the estimated bytes of the DFA states and the prediction contexts
+	 */
+	public long getEstimatedBytes() {
+		return getDfaStates() * BYTES_PER_DFA_STATE
+				+ (long) (lexerContexts.size() + parserContexts.size()) * BYTES_PER_CONTEXT;
+	}
+
+	public synchronized long getDfaStates() {
+		return statesOf(lexerDFA) + statesOf(parserDFA);
+	}
+
+	private static long statesOf(DFA[] decisionToDFA) {
+		if (decisionToDFA == null)
+			return 0;
+		long states = 0;
+		for (DFA dfa : decisionToDFA) {
+			states += dfa.states.size();
+		}
+		return states;
+	}
+
+	public String getLanguage() {
+		return language;
+	}
+
+	public long getParsedFiles() {
+		return parsedFiles.get();
+	}
+
+	/**
+	 * @return how many times the DFA is reset for the ceiling
+	 */
+	public long getResets() {
+		return resets.get();
+	}
+
+	/**
+	 * @return the number of files parsed by the SLL stage successfully
+	 */
+	public long getSllParses() {
+		return sllParses.get();
+	}
+
+	/**
+	 * @return the number of files parsed again by LL after the SLL stage failed
+	 */
+	public long getLlFallbacks() {
+		return llFallbacks.get();
+	}
+
+	@Override
+	public String toString() {
+		return String.format("%s: %d files parsed, %d by SLL, %d fallbacks to LL, %d DFA states, %d DFA resets",
+				language, getParsedFiles(), getSllParses(), getLlFallbacks(), getDfaStates(), getResets());
+	}
+}
@@ -39,6 +39,16 @@ public abstract class FileParser {
 	 * @throws IOException
 	 */
 	public final void parse(String filePath) throws IOException{
+		parse(filePath,null);
+	}
+
+	/**
+	 * parse files with the syntax tree built ahead by parseSyntax()
+	 * @param filePath
+	 * @param syntaxTree - the result of parseSyntax(), or null if not available
+	 * @throws IOException
+	 */
+	public final void parse(String filePath, Object syntaxTree) throws IOException{
 		filePath = FileUtil.uniqFilePath(filePath);
 		/* If file already exist, skip it */
 		FileEntity fileEntity = entityRepo.getFileEntity(filePath);
@@ -48,7 +58,10 @@ public abstract class FileParser {
 				fileEntity.setInProjectScope(true);
 		}else {
 			System.out.println("parsing " + filePath + "...");
-			parseFile(filePath);
+			if (syntaxTree!=null)
+				parseFile(filePath, syntaxTree);
+			else
+				parseFile(filePath);
 			entityRepo.completeFile(filePath);
 		}
 	}
@@ -60,6 +73,28 @@ public abstract class FileParser {
 	 */
 	protected abstract void parseFile(String filePath) throws IOException;
 
+	/**
+	 * Build the syntax tree of the file only. It is invoked by the parse worker threads,
+	 * so it must not touch entityRepo or any other shared state.
+	 * @param filePath
+	 * @return the syntax tree, or null if the parser could not separate syntax parsing
+	 *         from entity extraction (then the whole file is parsed by parseFile(filePath))
+	 * @throws IOException
+	 */
+	public Object parseSyntax(String filePath) throws IOException {
+		return null;
+	}
+
+	/**
+	 * Extract entities from the syntax tree built by parseSyntax()
+	 * @param filePath - it is alread unique file path name
+	 * @param syntaxTree
+	 * @throws IOException
+	 */
+	protected void parseFile(String filePath, Object syntaxTree) throws IOException {
+		parseFile(filePath);
+	}
+
 	protected boolean isPhase2Files(String filePath){
 		return false;
 	}
@@ -0,0 +1,101 @@
+package depends.extractor.cpp;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread-safe LRU cache bounded by the total weight (the estimated bytes) of its values.
+ * A value heavier than the limit is not cached at all.
+ */
+public class BoundedCache<K, V> {
+	private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+	private final LinkedHashMap<K, Long> weights = new LinkedHashMap<>();
+	private final ToLongFunction<V> weigher;
+	private long maxWeight;
+	private long weight = 0;
+	private long hits = 0;
+	private long misses = 0;
+	private long evictions = 0;
+
+	public BoundedCache(long maxWeight, ToLongFunction<V> weigher) {
+		this.maxWeight = maxWeight;
+		this.weigher = weigher;
+	}
+
+	public synchronized V get(K key) {
+		V value = entries.get(key);
+		if (value == null)
+			misses++;
+		else
+			hits++;
+		return value;
+	}
+
+	public synchronized void put(K key, V value) {
+		remove(key);
+		long w = weigher.applyAsLong(value);
+		if (w > maxWeight)
+			return;
+		entries.put(key, value);
+		weights.put(key, w);
+		weight += w;
+		evictToLimit();
+	}
+
+	public synchronized void remove(K key) {
+		if (entries.remove(key) != null)
+			weight -= weights.remove(key);
+	}
+
+	public synchronized void setMaxWeight(long maxWeight) {
+		this.maxWeight = maxWeight;
+		evictToLimit();
+	}
+
+	public synchronized void clear() {
+		entries.clear();
+		weights.clear();
+		weight = 0;
+	}
+
+	private void evictToLimit() {
+		Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+		while (weight > maxWeight && iterator.hasNext()) {
+			K eldest = iterator.next().getKey();
+			iterator.remove();
+			weight -= weights.remove(eldest);
+			evictions++;
+		}
+	}
+
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return the total weight of the cached values
+	 */
+	public synchronized long getWeight() {
+		return weight;
+	}
+
+	public synchronized long getHitCount() {
+		return hits;
+	}
+
+	public synchronized long getMissCount() {
+		return misses;
+	}
+
+	public synchronized long getEvictionCount() {
+		return evictions;
+	}
+
+	@Override
+	public synchronized String toString() {
+		return String.format("%d entries, %d bytes, %d hits, %d misses, %d evictions",
+				entries.size(), weight, hits, misses, evictions);
+	}
+}
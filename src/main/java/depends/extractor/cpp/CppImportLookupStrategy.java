@@ -34,6 +34,7 @@ import depends.importtypes.Import;
 import depends.relations.ImportLookupStrategy;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class CppImportLookupStrategy extends ImportLookupStrategy {
 
@@ -69,16 +70,13 @@ public class CppImportLookupStrategy extends ImportLookupStrategy {
 		return null;
 	}
 
-	private Map<Integer, HashSet<Integer> > includedFiles  = new HashMap<>();
+	private Map<Integer, HashSet<Integer> > includedFiles  = new ConcurrentHashMap<>();
 	private  HashSet<Integer> getIncludedFiles(FileEntity fileEntity) {
-
-		if (includedFiles.containsKey(fileEntity.getId())) {
-				return includedFiles.get(fileEntity.getId());
-		}
-		HashSet<Integer> fileSet = new HashSet<>();
-		foundIncludedFiles(fileSet, fileEntity.getImportedFiles());
-		includedFiles.put(fileEntity.getId(), fileSet);
-		return fileSet;
+		return includedFiles.computeIfAbsent(fileEntity.getId(), id -> {
+			HashSet<Integer> fileSet = new HashSet<>();
+			foundIncludedFiles(fileSet, fileEntity.getImportedFiles());
+			return fileSet;
+		});
 	}
 
 	private void foundIncludedFiles(HashSet<Integer> fileSet, Collection<Entity> importedFiles) {
@@ -28,7 +28,9 @@ import depends.entity.repo.BuiltInType;
 import depends.extractor.AbstractLangProcessor;
 import depends.extractor.FileParser;
 import depends.extractor.cpp.cdt.CdtCppFileParser;
+import depends.extractor.cpp.cdt.FileCache;
 import depends.extractor.cpp.cdt.PreprocessorHandler;
+import depends.metrics.PipelineMetrics;
 import depends.relations.ImportLookupStrategy;
 
 import java.util.ArrayList;
@@ -60,7 +62,7 @@ public class CppProcessor extends AbstractLangProcessor {
 	@Override
 	public FileParser createFileParser() {
 		if (macroRepo == null) {
-			macroRepo = new MacroEhcacheRepo(entityRepo);
+			macroRepo = new MacroMappedRepo();
 			macroRepo.buildDefaultMap(super.includePaths());
 		}
 		if (preprocessorHandler==null) {
@@ -102,4 +104,20 @@ public class CppProcessor extends AbstractLangProcessor {
 	public boolean supportCallAsImpl() {
 		return true;
 	}
+
+	@Override
+	public void reportMetrics(PipelineMetrics metrics) {
+		metrics.cache("fileCache", FileCache.getInstance().getHitCount(), FileCache.getInstance().getMissCount());
+		if (macroRepo instanceof MacroMappedRepo) {
+			MacroSnapshotStore store = ((MacroMappedRepo) macroRepo).getStore();
+			metrics.count("macroSnapshots", store.getSnapshotCount());
+			metrics.count("macroMappedBytes", store.getMappedBytes());
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		if (macroRepo != null)
+			macroRepo.close();
+	}
 }
@@ -0,0 +1,151 @@
+package depends.extractor.cpp;
+
+import multilang.depends.util.file.FileUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Keeps the default macros built from the include paths (see MacroRepo.buildDefaultMap)
+ * on disk between runs. An entry is keyed by the include paths, in order, the content
+ * hashes of the files among them, which are the files parsed for the default macros, and
+ * the paths, sizes and modification times of all files under the directories among them,
+ * where the headers included by those files are found.
+ * The cache is disabled unless its directory is set.
+ */
+public class DefaultMacroCache {
+	private static final Logger logger = LoggerFactory.getLogger(DefaultMacroCache.class);
+	private static final int FORMAT_VERSION = 1;
+	private static final String SUFFIX = ".macros";
+	private static String cacheDir = null;
+
+	public static synchronized void setCacheDir(String dir) {
+		cacheDir = dir;
+	}
+
+	public static synchronized boolean isEnabled() {
+		return cacheDir != null;
+	}
+
+	/**
+	 * @return the cached default macros of the include paths, or null if there is no
+	 * up-to-date entry
+	 */
+	@SuppressWarnings("unchecked")
+	public static Map<String, String> load(List<String> includePaths) {
+		if (!isEnabled())
+			return null;
+		try {
+			String key = keyOf(includePaths);
+			File entry = entryOf(key);
+			if (!entry.exists())
+				return null;
+			try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(new FileInputStream(entry)))) {
+				if (in.readInt() != FORMAT_VERSION || !key.equals(in.readObject()))
+					return null;
+				Map<String, String> macros = (Map<String, String>) in.readObject();
+				logger.info("default macros of " + includePaths.size() + " include paths loaded from macro cache");
+				return macros;
+			}
+		} catch (IOException | ClassNotFoundException | RuntimeException e) {
+			logger.warn("cannot load default macros from macro cache: " + e);
+			return null;
+		}
+	}
+
+	public static void save(List<String> includePaths, Map<String, String> macros) {
+		if (!isEnabled())
+			return;
+		File temp = null;
+		try {
+			String key = keyOf(includePaths);
+			File entry = entryOf(key);
+			entry.getParentFile().mkdirs();
+			temp = new File(entry.getPath() + ".tmp");
+			try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(FORMAT_VERSION);
+				out.writeObject(key);
+				out.writeObject(new HashMap<>(macros));
+			}
+			Files.move(temp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			logger.warn("cannot save default macros to macro cache: " + e);
+			if (temp != null)
+				temp.delete();
+		}
+	}
+
+	private static String keyOf(List<String> includePaths) throws IOException {
+		StringBuilder key = new StringBuilder();
+		for (String path : includePaths) {
+			key.append(path).append('|');
+			if (FileUtil.isDirectory(path))
+				key.append(hex(directoryDigest(new File(path).toPath())));
+			else if (new File(path).exists())
+				key.append(hex(digest(Files.readAllBytes(new File(path).toPath()))));
+			key.append('\n');
+		}
+		return key.toString();
+	}
+
+	private static byte[] directoryDigest(Path dir) throws IOException {
+		MessageDigest digest = newDigest();
+		try (Stream<Path> files = Files.walk(dir)) {
+			Iterator<Path> iterator = files.filter(Files::isRegularFile).sorted().iterator();
+			while (iterator.hasNext()) {
+				Path file = iterator.next();
+				BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+				String entry = dir.relativize(file) + "|" + attributes.size() + "|" + attributes.lastModifiedTime().toMillis() + "\n";
+				digest.update(entry.getBytes(StandardCharsets.UTF_8));
+			}
+		} catch (UncheckedIOException e) {
+			throw e.getCause();
+		}
+		return digest.digest();
+	}
+
+	private static synchronized File entryOf(String key) {
+		return new File(cacheDir, hex(digest(key.getBytes(StandardCharsets.UTF_8))) + SUFFIX);
+	}
+
+	private static byte[] digest(byte[] bytes) {
+		return newDigest().digest(bytes);
+	}
+
+	private static MessageDigest newDigest() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(String.format("%02x", b));
+		}
+		return sb.toString();
+	}
+}
@@ -0,0 +1,142 @@
+package depends.extractor.cpp;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the #include directives of a source file by lexing only the preprocessor
+ * directives, without parsing it.
+ * Like the CDT scanner with inactive code processed, it reports the includes of all
+ * conditional branches, in the order of the file. Comments, string literals and line
+ * continuations are handled; a macro include (#include FOO) is reported as written.
+ */
+public class IncludeDirectiveScanner {
+
+	/**
+	 * @return the names of the included files, without the quotes or angle brackets
+	 */
+	public static List<String> scan(String file) {
+		try {
+			return scanContent(new String(Files.readAllBytes(new File(file).toPath())));
+		} catch (IOException e) {
+			return new ArrayList<>();
+		}
+	}
+
+	public static List<String> scanContent(String content) {
+		List<String> includes = new ArrayList<>();
+		String text = content.replace("\\\r\n", "").replace("\\\n", "");
+		int length = text.length();
+		boolean lineStart = true;
+		int i = 0;
+		while (i < length) {
+			char c = text.charAt(i);
+			if (c == '\n') {
+				lineStart = true;
+				i++;
+			} else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '*') {
+				int end = text.indexOf("*/", i + 2);
+				i = end < 0 ? length : end + 2;
+			} else if (c == '/' && i + 1 < length && text.charAt(i + 1) == '/') {
+				i = lineEnd(text, i);
+			} else if (Character.isWhitespace(c)) {
+				i++;
+			} else if (c == '#' && lineStart) {
+				i = directive(text, i + 1, includes);
+				lineStart = false;
+			} else if (c == '"' || c == '\'') {
+				i = literalEnd(text, i);
+				lineStart = false;
+			} else {
+				lineStart = false;
+				i++;
+			}
+		}
+		return includes;
+	}
+
+	/**
+	 * Read the directive after '#'
+	 * @return the position after the directive name and its include argument if any
+	 */
+	private static int directive(String text, int i, List<String> includes) {
+		i = skipBlanks(text, i);
+		int start = i;
+		while (i < text.length() && (Character.isLetterOrDigit(text.charAt(i)) || text.charAt(i) == '_'))
+			i++;
+		String name = text.substring(start, i);
+		if (!name.equals("include") && !name.equals("include_next") && !name.equals("import"))
+			return i;
+		i = skipBlanks(text, i);
+		if (i >= text.length())
+			return i;
+		char open = text.charAt(i);
+		if (open == '"' || open == '<') {
+			int end = text.indexOf(open == '"' ? '"' : '>', i + 1);
+			int eol = lineEnd(text, i);
+			if (end > 0 && end < eol) {
+				includes.add(text.substring(i + 1, end));
+				return end + 1;
+			}
+			return eol;
+		}
+		int eol = lineEnd(text, i);
+		String macro = stripComment(text.substring(i, eol)).trim();
+		if (!macro.isEmpty())
+			includes.add(macro);
+		return eol;
+	}
+
+	private static int skipBlanks(String text, int i) {
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c == ' ' || c == '\t' || c == '\f' || c == '\u000B' || c == '\r') {
+				i++;
+			} else if (c == '/' && i + 1 < text.length() && text.charAt(i + 1) == '*') {
+				int end = text.indexOf("*/", i + 2);
+				if (end < 0)
+					return text.length();
+				i = end + 2;
+			} else {
+				break;
+			}
+		}
+		return i;
+	}
+
+	private static int lineEnd(String text, int i) {
+		int end = text.indexOf('\n', i);
+		return end < 0 ? text.length() : end;
+	}
+
+	private static int literalEnd(String text, int i) {
+		char quote = text.charAt(i);
+		i++;
+		while (i < text.length()) {
+			char c = text.charAt(i);
+			if (c == '\\') {
+				i += 2;
+			} else if (c == quote) {
+				return i + 1;
+			} else if (c == '\n') {
+				return i;
+			} else {
+				i++;
+			}
+		}
+		return i;
+	}
+
+	private static String stripComment(String s) {
+		int comment = s.indexOf("//");
+		if (comment >= 0)
+			s = s.substring(0, comment);
+		comment = s.indexOf("/*");
+		if (comment >= 0)
+			s = s.substring(0, comment);
+		return s;
+	}
+}
@@ -0,0 +1,169 @@
+package depends.extractor.cpp;
+
+import multilang.depends.util.file.TemporaryFile;
+import org.eclipse.cdt.core.dom.ast.IASTPreprocessorMacroDefinition;
+import org.eclipse.cdt.core.dom.ast.IMacroBinding;
+
+import java.io.File;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * The macro repo backed by the off-heap {@link MacroSnapshotStore}, in the temporary directory.
+ * The macros of a file almost always start from the default macros, so only the macros
+ * differing from the default ones are stored, and get() returns a read-only view of the
+ * default macros overridden by them. The (rare) macros without all default ones are stored
+ * as they are.
+ */
+public class MacroMappedRepo extends MacroRepo {
+	private final MacroSnapshotStore store;
+	/* the files whose macros are stored as they are */
+	private final Set<String> withoutDefaults = new HashSet<>();
+
+	public MacroMappedRepo() {
+		File dir = new File(TemporaryFile.getInstance().macroPath(0)).getParentFile();
+		store = new MacroSnapshotStore(dir);
+	}
+
+	@Override
+	public synchronized Map<String, String> get(String incl) {
+		Map<String, String> macros = store.get(incl);
+		if (macros == null)
+			return Collections.emptyMap();
+		if (withoutDefaults.contains(incl))
+			return macros;
+		return new DefaultsOverlay(getDefaultMap(), macros);
+	}
+
+	@Override
+	public void putMacros(String fileFullPath, Map<String, String> macroMap,
+			IASTPreprocessorMacroDefinition[] macroDefinitions) {
+		if (macroDefinitions.length == 0 && macroMap.size() == 0)
+			return;
+		Map<String, String> macros = new HashMap<>(get(fileFullPath));
+		macros.putAll(macroMap);
+		for (IASTPreprocessorMacroDefinition def : macroDefinitions) {
+			macros.put(((IMacroBinding)def.getName().resolveBinding()).toString(), new String(def.getExpansion()));
+		}
+		put(fileFullPath, macros);
+	}
+
+	private synchronized void put(String fileFullPath, Map<String, String> macros) {
+		Map<String, String> defaults = getDefaultMap();
+		if (!macros.keySet().containsAll(defaults.keySet())) {
+			withoutDefaults.add(fileFullPath);
+			store.put(fileFullPath, macros);
+			return;
+		}
+		withoutDefaults.remove(fileFullPath);
+		Map<String, String> changed = new HashMap<>();
+		for (Map.Entry<String, String> e : macros.entrySet()) {
+			if (!Objects.equals(e.getValue(), defaults.get(e.getKey())))
+				changed.put(e.getKey(), e.getValue());
+		}
+		store.put(fileFullPath, changed);
+	}
+
+	@Override
+	public void close() {
+		store.close();
+	}
+
+	public MacroSnapshotStore getStore() {
+		return store;
+	}
+
+	/**
+	 * The default macros overridden by the changed ones, read-only
+	 */
+	private static class DefaultsOverlay extends AbstractMap<String, String> {
+		private final Map<String, String> defaults;
+		private final Map<String, String> changed;
+		private int size = -1;
+
+		DefaultsOverlay(Map<String, String> defaults, Map<String, String> changed) {
+			this.defaults = defaults;
+			this.changed = changed;
+		}
+
+		@Override
+		public String get(Object key) {
+			String value = changed.get(key);
+			return value != null ? value : defaults.get(key);
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return changed.containsKey(key) || defaults.containsKey(key);
+		}
+
+		@Override
+		public int size() {
+			if (size < 0) {
+				int added = 0;
+				for (String key : changed.keySet()) {
+					if (!defaults.containsKey(key))
+						added++;
+				}
+				size = defaults.size() + added;
+			}
+			return size;
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			return new AbstractSet<Entry<String, String>>() {
+				@Override
+				public int size() {
+					return DefaultsOverlay.this.size();
+				}
+
+				@Override
+				public Iterator<Entry<String, String>> iterator() {
+					return new Iterator<Entry<String, String>>() {
+						private final Set<String> overridden = new HashSet<>();
+						private final Iterator<Entry<String, String>> own = changed.entrySet().iterator();
+						private final Iterator<Entry<String, String>> inherited = defaults.entrySet().iterator();
+						private Entry<String, String> next = advance();
+
+						private Entry<String, String> advance() {
+							if (own.hasNext()) {
+								Entry<String, String> entry = own.next();
+								overridden.add(entry.getKey());
+								return entry;
+							}
+							while (inherited.hasNext()) {
+								Entry<String, String> entry = inherited.next();
+								if (!overridden.contains(entry.getKey()))
+									return new SimpleImmutableEntry<>(entry);
+							}
+							return null;
+						}
+
+						@Override
+						public boolean hasNext() {
+							return next != null;
+						}
+
+						@Override
+						public Entry<String, String> next() {
+							if (next == null)
+								throw new NoSuchElementException();
+							Entry<String, String> entry = next;
+							next = advance();
+							return entry;
+						}
+					};
+				}
+			};
+		}
+	}
+}
@@ -22,6 +22,14 @@ public abstract class MacroRepo {
 	 * @return
 	 */
 	public Map<String, String> buildDefaultMap(List<String> sysIncludePath) {
+		boolean cacheable = defaultMacroMap.isEmpty();
+		if (cacheable) {
+			Map<String, String> cached = DefaultMacroCache.load(sysIncludePath);
+			if (cached!=null) {
+				defaultMacroMap.putAll(cached);
+				return defaultMacroMap;
+			}
+		}
 		for (String p : sysIncludePath) {
 			if (!FileUtil.isDirectory(p)) {
 				IScanner scanner = Scanner.buildScanner(p,defaultMacroMap, sysIncludePath, true);
@@ -37,6 +45,8 @@ public abstract class MacroRepo {
 				}
 			}
 		}
+		if (cacheable)
+			DefaultMacroCache.save(sysIncludePath, defaultMacroMap);
 		return defaultMacroMap;
 	}
 	
@@ -45,9 +55,14 @@ public abstract class MacroRepo {
 		return defaultMacroMap;
 	}
 
-
 	public abstract Map<String, String> get(String incl);
 
+	/**
+	 * Release the files held by the repo
+	 */
+	public void close() {
+	}
+
 
 	public abstract void putMacros(String fileFullPath,  Map<String, String> macroMap,
 			IASTPreprocessorMacroDefinition[] macroDefinitions);
@@ -0,0 +1,401 @@
+package depends.extractor.cpp;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * The macro maps of files, stored off heap as snapshots in memory-mapped segment files.
+ * Macro names and expansions are interned in a string table whose strings are kept in the
+ * segments too; the heap only keeps the location and hash code of each string, and an
+ * open addressing index of them. A snapshot keeps the string ids, sorted by name id.
+ * Snapshots are content addressed: a macro set is stored once, no matter how many files
+ * have it, and a file only refers to its snapshot.
+ * A loaded map is a read-only view of the snapshot, which decodes the strings on access.
+ * The segment files are private to the store, and deleted when it is closed.
+ */
+public class MacroSnapshotStore {
+	private static final int SEGMENT_SIZE = 16 << 20;
+
+	private final File dir;
+	private final List<File> files = new ArrayList<>();
+	private final List<FileChannel> channels = new ArrayList<>();
+	private final List<MappedByteBuffer> segments = new ArrayList<>();
+	/* bytes used in the last segment */
+	private int used = 0;
+	private long mappedBytes = 0;
+	/* location of each string, segment << 32 | offset, indexed by string id */
+	private long[] stringLocations = new long[1024];
+	/* hash code of each string, indexed by string id */
+	private int[] stringHashes = new int[1024];
+	private int stringCount = 0;
+	/* string id + 1 by hash code, with linear probing; 0 means an empty slot */
+	private int[] stringTable = new int[2048];
+	/* content hash -> locations of the snapshots with that hash */
+	private final Map<Long, long[]> snapshots = new HashMap<>();
+	/* file -> location of its snapshot, segment << 32 | offset */
+	private final Map<String, Long> fileSnapshots = new HashMap<>();
+	private int sharedSnapshots = 0;
+
+	/**
+	 * @param dir - the directory of the segment files
+	 */
+	public MacroSnapshotStore(File dir) {
+		this.dir = dir;
+	}
+
+	/**
+	 * @return a read-only view of the macros of the file, or null if there is none
+	 */
+	public synchronized Map<String, String> get(String file) {
+		Long location = fileSnapshots.get(file);
+		if (location == null)
+			return null;
+		return new SnapshotView(segments.toArray(new MappedByteBuffer[0]), stringLocations, location);
+	}
+
+	/**
+	 * Replace the macros of the file
+	 */
+	public synchronized void put(String file, Map<String, String> macros) {
+		int[] pairs = new int[macros.size() * 2];
+		long[] sortable = new long[macros.size()];
+		int i = 0;
+		try {
+			for (Map.Entry<String, String> e : macros.entrySet()) {
+				sortable[i++] = ((long) intern(e.getKey()) << 32) | intern(String.valueOf(e.getValue()));
+			}
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		Arrays.sort(sortable);
+		for (i = 0; i < sortable.length; i++) {
+			pairs[i * 2] = (int) (sortable[i] >>> 32);
+			pairs[i * 2 + 1] = (int) sortable[i];
+		}
+		long hash = hashOf(pairs);
+		long[] candidates = snapshots.get(hash);
+		if (candidates != null) {
+			for (long location : candidates) {
+				if (contentEquals(location, pairs)) {
+					fileSnapshots.put(file, location);
+					sharedSnapshots++;
+					return;
+				}
+			}
+		}
+		long location;
+		try {
+			location = append(pairs);
+		} catch (IOException e) {
+			e.printStackTrace();
+			return;
+		}
+		long[] locations = candidates == null ? new long[1] : Arrays.copyOf(candidates, candidates.length + 1);
+		locations[locations.length - 1] = location;
+		snapshots.put(hash, locations);
+		fileSnapshots.put(file, location);
+	}
+
+	private int intern(String s) throws IOException {
+		byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+		int hash = s.hashCode();
+		int slot = slotOf(hash, bytes);
+		if (stringTable[slot] != 0)
+			return stringTable[slot] - 1;
+		int id = stringCount;
+		if (id == stringLocations.length) {
+			stringLocations = Arrays.copyOf(stringLocations, id * 2);
+			stringHashes = Arrays.copyOf(stringHashes, id * 2);
+		}
+		stringLocations[id] = appendString(bytes);
+		stringHashes[id] = hash;
+		stringTable[slot] = id + 1;
+		stringCount++;
+		if (stringCount * 2 > stringTable.length)
+			rehash(stringTable.length * 2);
+		return id;
+	}
+
+	/**
+	 * @return the id of the string, or -1 if it is not interned
+	 */
+	private synchronized int idOf(String s) {
+		int slot = slotOf(s.hashCode(), s.getBytes(StandardCharsets.UTF_8));
+		return stringTable[slot] - 1;
+	}
+
+	/**
+	 * @return the slot of the string in the string table, or the empty slot to put it in
+	 */
+	private int slotOf(int hash, byte[] bytes) {
+		int mask = stringTable.length - 1;
+		int slot = (hash ^ (hash >>> 16)) & mask;
+		while (stringTable[slot] != 0) {
+			int id = stringTable[slot] - 1;
+			if (stringHashes[id] == hash && stringEquals(stringLocations[id], bytes))
+				return slot;
+			slot = (slot + 1) & mask;
+		}
+		return slot;
+	}
+
+	private void rehash(int size) {
+		int[] table = new int[size];
+		int mask = size - 1;
+		for (int id = 0; id < stringCount; id++) {
+			int slot = (stringHashes[id] ^ (stringHashes[id] >>> 16)) & mask;
+			while (table[slot] != 0) {
+				slot = (slot + 1) & mask;
+			}
+			table[slot] = id + 1;
+		}
+		stringTable = table;
+	}
+
+	private boolean stringEquals(long location, byte[] bytes) {
+		MappedByteBuffer segment = segments.get((int) (location >>> 32));
+		int offset = (int) (location & 0xFFFFFFFFL);
+		if (segment.getInt(offset) != bytes.length)
+			return false;
+		for (int i = 0; i < bytes.length; i++) {
+			if (segment.get(offset + 4 + i) != bytes[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static String readString(MappedByteBuffer[] segments, long location) {
+		ByteBuffer segment = segments[(int) (location >>> 32)].duplicate();
+		int offset = (int) (location & 0xFFFFFFFFL);
+		byte[] bytes = new byte[segment.getInt(offset)];
+		segment.position(offset + 4);
+		segment.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long appendString(byte[] bytes) throws IOException {
+		long location = reserve(4 + bytes.length);
+		ByteBuffer segment = segments.get(segments.size() - 1).duplicate();
+		int offset = (int) (location & 0xFFFFFFFFL);
+		segment.putInt(offset, bytes.length);
+		segment.position(offset + 4);
+		segment.put(bytes);
+		return location;
+	}
+
+	private long append(int[] pairs) throws IOException {
+		long location = reserve(4 + pairs.length * 4);
+		MappedByteBuffer segment = segments.get(segments.size() - 1);
+		int offset = (int) (location & 0xFFFFFFFFL);
+		segment.putInt(offset, pairs.length / 2);
+		for (int i = 0; i < pairs.length; i++) {
+			segment.putInt(offset + 4 + i * 4, pairs[i]);
+		}
+		return location;
+	}
+
+	/**
+	 * @return the location of the given bytes in the last segment
+	 */
+	private long reserve(int size) throws IOException {
+		if (segments.isEmpty() || used + size > segments.get(segments.size() - 1).capacity())
+			newSegment(Math.max(SEGMENT_SIZE, size));
+		long location = ((long) (segments.size() - 1) << 32) | used;
+		used += size;
+		return location;
+	}
+
+	private void newSegment(int size) throws IOException {
+		dir.mkdirs();
+		File file = File.createTempFile("macros-", ".segment", dir);
+		files.add(file);
+		FileChannel channel = new RandomAccessFile(file, "rw").getChannel();
+		channels.add(channel);
+		segments.add(channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+		mappedBytes += size;
+		used = 0;
+	}
+
+	private boolean contentEquals(long location, int[] pairs) {
+		MappedByteBuffer segment = segments.get((int) (location >>> 32));
+		int offset = (int) (location & 0xFFFFFFFFL);
+		if (segment.getInt(offset) * 2 != pairs.length)
+			return false;
+		for (int i = 0; i < pairs.length; i++) {
+			if (segment.getInt(offset + 4 + i * 4) != pairs[i])
+				return false;
+		}
+		return true;
+	}
+
+	private static long hashOf(int[] pairs) {
+		long hash = 0xcbf29ce484222325L;
+		for (int v : pairs) {
+			hash ^= v;
+			hash *= 0x100000001b3L;
+		}
+		return hash;
+	}
+
+	/**
+	 * @return the number of distinct snapshots stored
+	 */
+	public synchronized int getSnapshotCount() {
+		int count = 0;
+		for (long[] locations : snapshots.values()) {
+			count += locations.length;
+		}
+		return count;
+	}
+
+	/**
+	 * @return how many times an existing snapshot is reused for a file
+	 */
+	public synchronized int getSharedSnapshotCount() {
+		return sharedSnapshots;
+	}
+
+	public synchronized int getStringCount() {
+		return stringCount;
+	}
+
+	public synchronized long getMappedBytes() {
+		return mappedBytes;
+	}
+
+	public synchronized void close() {
+		segments.clear();
+		for (FileChannel channel : channels) {
+			try {
+				channel.close();
+			} catch (IOException e) {
+			}
+		}
+		channels.clear();
+		for (File file : files) {
+			file.delete();
+		}
+		files.clear();
+		fileSnapshots.clear();
+		snapshots.clear();
+		stringLocations = new long[1024];
+		stringHashes = new int[1024];
+		stringTable = new int[2048];
+		stringCount = 0;
+		mappedBytes = 0;
+	}
+
+	/**
+	 * A read-only view of a snapshot. The segments and the string locations are the ones
+	 * when the view is taken; they already hold all strings of the snapshot, which are
+	 * never moved, so the view reads them without the lock of the store.
+	 */
+	private class SnapshotView extends AbstractMap<String, String> {
+		private final MappedByteBuffer[] segments;
+		private final long[] stringLocations;
+		private final MappedByteBuffer snapshot;
+		private final int offset;
+		private final int count;
+
+		SnapshotView(MappedByteBuffer[] segments, long[] stringLocations, long location) {
+			this.segments = segments;
+			this.stringLocations = stringLocations;
+			this.snapshot = segments[(int) (location >>> 32)];
+			this.offset = (int) (location & 0xFFFFFFFFL);
+			this.count = snapshot.getInt(offset);
+		}
+
+		@Override
+		public int size() {
+			return count;
+		}
+
+		@Override
+		public boolean containsKey(Object key) {
+			return indexOf(key) >= 0;
+		}
+
+		@Override
+		public String get(Object key) {
+			int index = indexOf(key);
+			return index < 0 ? null : valueAt(index);
+		}
+
+		/**
+		 * The pairs are sorted by name id, so the name is searched by its id
+		 */
+		private int indexOf(Object key) {
+			if (!(key instanceof String))
+				return -1;
+			int id = idOf((String) key);
+			int low = 0;
+			int high = count - 1;
+			while (id >= 0 && low <= high) {
+				int mid = (low + high) >>> 1;
+				int nameId = snapshot.getInt(offset + 4 + mid * 8);
+				if (nameId < id)
+					low = mid + 1;
+				else if (nameId > id)
+					high = mid - 1;
+				else
+					return mid;
+			}
+			return -1;
+		}
+
+		private String nameAt(int index) {
+			return readString(segments, stringLocations[snapshot.getInt(offset + 4 + index * 8)]);
+		}
+
+		private String valueAt(int index) {
+			return readString(segments, stringLocations[snapshot.getInt(offset + 8 + index * 8)]);
+		}
+
+		@Override
+		public Set<Entry<String, String>> entrySet() {
+			return new AbstractSet<Entry<String, String>>() {
+				@Override
+				public int size() {
+					return count;
+				}
+
+				@Override
+				public Iterator<Entry<String, String>> iterator() {
+					return new Iterator<Entry<String, String>>() {
+						private int index = 0;
+
+						@Override
+						public boolean hasNext() {
+							return index < count;
+						}
+
+						@Override
+						public Entry<String, String> next() {
+							if (!hasNext())
+								throw new NoSuchElementException();
+							Entry<String, String> entry = new SimpleImmutableEntry<>(nameAt(index), valueAt(index));
+							index++;
+							return entry;
+						}
+					};
+				}
+			};
+		}
+	}
+}
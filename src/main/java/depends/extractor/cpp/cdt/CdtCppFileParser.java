@@ -26,12 +26,14 @@ package depends.extractor.cpp.cdt;
 
 import depends.entity.repo.EntityRepo;
 import depends.extractor.cpp.CppFileParser;
+import depends.extractor.cpp.IncludeDirectiveScanner;
 import depends.extractor.cpp.MacroRepo;
 import depends.relations.IBindingResolver;
 import org.eclipse.cdt.core.dom.ast.IASTTranslationUnit;
 
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public class CdtCppFileParser extends CppFileParser {
@@ -58,19 +60,17 @@ public class CdtCppFileParser extends CppFileParser {
 	 */
 	public void parse(String fileFullPath,Map<String, String> macroMap) throws IOException {
 		CppVisitor bridge = new CppVisitor(fileFullPath, entityRepo, preprocessorHandler, bindingResolver);
-		IASTTranslationUnit tu = (new CDTParser(preprocessorHandler.getIncludePaths())).parse(fileFullPath,macroMap);
-		boolean containsIncludes = false;
-		for (String incl:preprocessorHandler.getDirectIncludedFiles(tu.getAllPreprocessorStatements(),fileFullPath)) {
+		/* the includes are found by lexing the directives only, so that the file is parsed
+		 * once, with the macros of the included files */
+		List<String> includes = IncludeDirectiveScanner.scan(fileFullPath);
+		for (String incl:preprocessorHandler.getDirectIncludedFiles(includes,fileFullPath)) {
 			CdtCppFileParser importedParser = new CdtCppFileParser(entityRepo, preprocessorHandler, bindingResolver,macroRepo);
 			importedParser.parse(incl);
 			Map<String, String> macros = macroRepo.get(incl);
 			if (macros!=null)
 				macroMap.putAll(macros);
-			containsIncludes = true;
-		}
-		if (containsIncludes) {
-			tu = (new CDTParser(preprocessorHandler.getIncludePaths())).parse(fileFullPath,macroMap);
 		}
+		IASTTranslationUnit tu = (new CDTParser(preprocessorHandler.getIncludePaths())).parse(fileFullPath,macroMap);
 		macroRepo.putMacros(fileFullPath,macroMap,tu.getMacroDefinitions());
 		tu.accept(bridge);
 		return;
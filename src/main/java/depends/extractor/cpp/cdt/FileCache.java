@@ -1,34 +1,87 @@
 package depends.extractor.cpp.cdt;
 
-import java.util.HashMap;
+import java.io.File;
 
 import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.parser.util.AbstractCharArray;
 import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
 
+import depends.extractor.cpp.BoundedCache;
+
+/**
+ * The contents of the included files, shared by all scanners. It is thread-safe, and
+ * bounded by the estimated bytes of the char buffers; the least recently used contents
+ * are evicted first.
+ */
 public class FileCache {
-	private HashMap<String, InternalFileContent> cache;
-	private HashMap<IIndexFileLocation, InternalFileContent> cache2;
-	private FileCache() {
-		this.cache = new HashMap<>();
+	public static final long DEFAULT_MAX_BYTES = 256L << 20;
+	private static final FileCache inst = new FileCache(DEFAULT_MAX_BYTES);
+
+	private final BoundedCache<String, InternalFileContent> cache;
+	private final BoundedCache<IIndexFileLocation, InternalFileContent> cache2;
+
+	private FileCache(long maxBytes) {
+		this.cache = new BoundedCache<>(maxBytes, FileCache::weightOf);
+		this.cache2 = new BoundedCache<>(maxBytes, FileCache::weightOf);
 	}
-	static FileCache inst = null;
+
 	public static FileCache getInstance() {
-		if (inst==null) inst = new FileCache();
 		return inst;
 	}
+
+	/**
+	 * The upper limit of the estimated bytes of the contents, for each kind of key
+	 */
+	public static void setMaxBytes(long maxBytes) {
+		inst.cache.setMaxWeight(maxBytes);
+		inst.cache2.setMaxWeight(maxBytes);
+	}
+
 	public InternalFileContent get(String filePath) {
-		InternalFileContent result = cache.get(filePath);
-		return result;
+		return cache.get(filePath);
 	}
+
 	public void put(String filePath, InternalFileContent c) {
+		if (c==null) return;
 		cache.put(filePath,c);
 	}
+
 	public InternalFileContent get(IIndexFileLocation ifl) {
-		InternalFileContent result = cache2.get(ifl);
-		return result;
+		return cache2.get(ifl);
 	}
+
 	public void put(IIndexFileLocation ifl, InternalFileContent c) {
+		if (c==null) return;
 		cache2.put(ifl,c);
 	}
 
+	public void clear() {
+		cache.clear();
+		cache2.clear();
+	}
+
+	public long getHitCount() {
+		return cache.getHitCount() + cache2.getHitCount();
+	}
+
+	public long getMissCount() {
+		return cache.getMissCount() + cache2.getMissCount();
+	}
+
+	/**
+	 * @return the statistics of the contents cached by path and by index location
+	 */
+	public String getStats() {
+		return "by path: " + cache + "; by index location: " + cache2;
+	}
+
+	private static long weightOf(InternalFileContent content) {
+		long length = -1;
+		AbstractCharArray source = content.getSource();
+		if (source!=null)
+			length = source.tryGetLength();
+		if (length<0 && content.getFileLocation()!=null)
+			length = new File(content.getFileLocation()).length();
+		return 64 + 2 * Math.max(length, 0);
+	}
 }
@@ -96,6 +96,27 @@ public class PreprocessorHandler {
 		}
 		return includedFullPathNames;
 	}
+
+	/**
+	 * The included files found by the IncludeDirectiveScanner, resolved in the same way
+	 * as the include statements of a translation unit
+	 * @param includes the included names, without the quotes or angle brackets
+	 */
+	public List<String> getDirectIncludedFiles(List<String> includes, String fileLocation) {
+		ArrayList<String> includedFullPathNames = new ArrayList<>();
+		for (String incl:includes) {
+			String path = resolveInclude(incl, fileLocation);
+			if (!existFile(path)) {
+				continue;
+			}
+			if (FileUtil.isDirectory(path)) {
+				continue;
+			}
+			includedFullPathNames.add(path);
+		}
+		return includedFullPathNames;
+	}
+
 	private String resolveInclude(IASTPreprocessorIncludeStatement incl) {
 		String path = incl.toString();
 		int pos = path.indexOf(' ');
@@ -104,9 +125,13 @@ public class PreprocessorHandler {
 			path = path.substring(1);
 			path = path.substring(0,path.length()-1);
 		}
-		//First search in local directory
 		IASTFileLocation location = incl.getFileLocation();
-		String locationDir = FileUtil.getLocatedDir(location.getFileName());
+		return resolveInclude(path, location.getFileName());
+	}
+
+	private String resolveInclude(String path, String fileLocation) {
+		//First search in local directory
+		String locationDir = FileUtil.getLocatedDir(fileLocation);
 		ArrayList<String> searchPath = new ArrayList<>();
 		searchPath.add(locationDir);
 		searchPath.addAll(includePaths);
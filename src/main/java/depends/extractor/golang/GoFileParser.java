@@ -27,20 +27,20 @@ package depends.extractor.golang;
 import depends.entity.Entity;
 import depends.entity.FileEntity;
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrPredictionCache;
 import depends.relations.IBindingResolver;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
-import org.antlr.v4.runtime.atn.LexerATNSimulator;
-import org.antlr.v4.runtime.atn.ParserATNSimulator;
-import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import java.io.IOException;
 
 
 public class GoFileParser extends  depends.extractor.FileParser{
+	private static final AntlrPredictionCache predictionCache = AntlrPredictionCache.of("go");
 	private IBindingResolver bindingResolver;
 	public GoFileParser(EntityRepo entityRepo, IBindingResolver bindingResolver) {
         this.entityRepo = entityRepo;
@@ -49,20 +49,13 @@ public class GoFileParser extends  depends.extractor.FileParser{
 
 	@Override
 	protected void parseFile(String fileFullPath) throws IOException {
-		CharStream input = CharStreams.fromFileName(fileFullPath);
-        Lexer lexer = new GoLexer(input);
-        lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), lexer.getInterpreter().decisionToDFA, new PredictionContextCache()));
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        GoParser parser = new GoParser(tokens);
-        ParserATNSimulator interpreter = new ParserATNSimulator(parser, parser.getATN(), parser.getInterpreter().decisionToDFA, new PredictionContextCache());
-        parser.setInterpreter(interpreter);
+		GoParser parser = createParser(fileFullPath);
         GoListener bridge = new GoListener(fileFullPath, entityRepo, bindingResolver);
 	    ParseTreeWalker walker = new ParseTreeWalker();
 	    try {
-	    	walker.walk(bridge, parser.sourceFile());
+	    	walker.walk(bridge, predictionCache.parse(parser, GoParser::sourceFile));
 			Entity fileEntity = entityRepo.getEntity(fileFullPath);
 			((FileEntity)fileEntity).cacheAllExpressions();
-			interpreter.clearDFA();
 			bridge.done();
 	    }catch (Exception e) {
 	    	System.err.println("error encountered during parse..." );
@@ -70,5 +63,36 @@ public class GoFileParser extends  depends.extractor.FileParser{
 	    }
 	    
     }
+
+	@Override
+	public Object parseSyntax(String fileFullPath) throws IOException {
+		GoParser parser = createParser(fileFullPath);
+		return predictionCache.parse(parser, GoParser::sourceFile);
+	}
+
+	@Override
+	protected void parseFile(String fileFullPath, Object syntaxTree) throws IOException {
+        GoListener bridge = new GoListener(fileFullPath, entityRepo, bindingResolver);
+	    ParseTreeWalker walker = new ParseTreeWalker();
+	    try {
+	    	walker.walk(bridge, (ParseTree) syntaxTree);
+			Entity fileEntity = entityRepo.getEntity(fileFullPath);
+			((FileEntity)fileEntity).cacheAllExpressions();
+			bridge.done();
+	    }catch (Exception e) {
+	    	System.err.println("error encountered during parse..." );
+	    	e.printStackTrace();
+	    }
+	}
+
+	private GoParser createParser(String fileFullPath) throws IOException {
+		CharStream input = CharStreams.fromFileName(fileFullPath);
+        Lexer lexer = new GoLexer(input);
+        predictionCache.configure(lexer);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        GoParser parser = new GoParser(tokens);
+        predictionCache.configure(parser);
+        return parser;
+	}
 	
 }
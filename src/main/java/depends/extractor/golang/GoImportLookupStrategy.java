@@ -100,4 +100,9 @@ public class GoImportLookupStrategy extends ImportLookupStrategy{
 		return true;
 	}
 
+	@Override
+	public boolean supportImportedTypeCache() {
+		return true;
+	}
+
 }
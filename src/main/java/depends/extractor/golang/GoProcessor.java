@@ -85,4 +85,9 @@ public class GoProcessor extends AbstractLangProcessor {
 		return depedencyTypes;
 	}
 
+	@Override
+	public boolean supportParseCache() {
+		return true;
+	}
+
 }
@@ -25,21 +25,21 @@ SOFTWARE.
 package depends.extractor.java;
 
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrPredictionCache;
 import depends.extractor.FileParser;
 import depends.relations.IBindingResolver;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
-import org.antlr.v4.runtime.atn.LexerATNSimulator;
-import org.antlr.v4.runtime.atn.ParserATNSimulator;
-import org.antlr.v4.runtime.atn.PredictionContextCache;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import java.io.IOException;
 
 
 public class JavaFileParser extends FileParser {
+	private static final AntlrPredictionCache predictionCache = AntlrPredictionCache.of("java");
 	private IBindingResolver bindingResolver;
 	public JavaFileParser(EntityRepo entityRepo, IBindingResolver bindingResolver) {
         this.entityRepo = entityRepo;
@@ -48,24 +48,44 @@ public class JavaFileParser extends FileParser {
 
 	@Override
 	protected void parseFile(String fileFullPath) throws IOException {
-		CharStream input = CharStreams.fromFileName(fileFullPath);
-        Lexer lexer = new JavaLexer(input);
-        lexer.setInterpreter(new LexerATNSimulator(lexer, lexer.getATN(), lexer.getInterpreter().decisionToDFA, new PredictionContextCache()));
-        CommonTokenStream tokens = new CommonTokenStream(lexer);
-        JavaParser parser = new JavaParser(tokens);
-        ParserATNSimulator interpreter = new ParserATNSimulator(parser, parser.getATN(), parser.getInterpreter().decisionToDFA, new PredictionContextCache());
-        parser.setInterpreter(interpreter);
+		JavaParser parser = createParser(fileFullPath);
         JavaListener bridge = new JavaListener(fileFullPath, entityRepo, bindingResolver);
 	    ParseTreeWalker walker = new ParseTreeWalker();
 	    try {
-	    	walker.walk(bridge, parser.compilationUnit());
-			interpreter.clearDFA();
-
+	    	walker.walk(bridge, predictionCache.parse(parser, JavaParser::compilationUnit));
 	    }catch (Exception e) {
 	    	System.err.println("error encountered during parse..." );
 	    	e.printStackTrace();
 	    }
 	    
     }
+
+	@Override
+	public Object parseSyntax(String fileFullPath) throws IOException {
+		JavaParser parser = createParser(fileFullPath);
+		return predictionCache.parse(parser, JavaParser::compilationUnit);
+	}
+
+	@Override
+	protected void parseFile(String fileFullPath, Object syntaxTree) throws IOException {
+        JavaListener bridge = new JavaListener(fileFullPath, entityRepo, bindingResolver);
+	    ParseTreeWalker walker = new ParseTreeWalker();
+	    try {
+	    	walker.walk(bridge, (ParseTree) syntaxTree);
+	    }catch (Exception e) {
+	    	System.err.println("error encountered during parse..." );
+	    	e.printStackTrace();
+	    }
+	}
+
+	private JavaParser createParser(String fileFullPath) throws IOException {
+		CharStream input = CharStreams.fromFileName(fileFullPath);
+        Lexer lexer = new JavaLexer(input);
+        predictionCache.configure(lexer);
+        CommonTokenStream tokens = new CommonTokenStream(lexer);
+        JavaParser parser = new JavaParser(tokens);
+        predictionCache.configure(parser);
+        return parser;
+	}
 	
 }
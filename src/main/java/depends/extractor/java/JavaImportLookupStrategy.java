@@ -102,4 +102,9 @@ public class JavaImportLookupStrategy extends ImportLookupStrategy{
 		return true;
 	}
 
+	@Override
+	public boolean supportImportedTypeCache() {
+		return true;
+	}
+
 }
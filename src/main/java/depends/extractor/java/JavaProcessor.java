@@ -83,6 +83,10 @@ public class JavaProcessor extends AbstractLangProcessor {
 		depedencyTypes.add(ANNOTATION);
 		return depedencyTypes;
 	}
-	
+
+	@Override
+	public boolean supportParseCache() {
+		return true;
+	}
 
 }
@@ -1,26 +1,48 @@
 package depends.extractor.kotlin;
 
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrPredictionCache;
 import depends.extractor.FileParser;
 import depends.relations.IBindingResolver;
 import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import java.io.IOException;
 
 public class KotlinFileParser extends FileParser {
+	private static final AntlrPredictionCache predictionCache = AntlrPredictionCache.of("kotlin");
 	@Override
 	protected void parseFile(String fileFullPath) throws IOException {
+		KotlinParser parser = createParser(fileFullPath);
+		KotlinListener bridge = new KotlinListener(fileFullPath, entityRepo, bindingResolver);
+		ParseTreeWalker walker = new ParseTreeWalker();
+		walker.walk(bridge, predictionCache.parse(parser, KotlinParser::kotlinFile));
+	}
+
+	@Override
+	public Object parseSyntax(String fileFullPath) throws IOException {
+		return predictionCache.parse(createParser(fileFullPath), KotlinParser::kotlinFile);
+	}
+
+	@Override
+	protected void parseFile(String fileFullPath, Object syntaxTree) throws IOException {
+		KotlinListener bridge = new KotlinListener(fileFullPath, entityRepo, bindingResolver);
+		ParseTreeWalker walker = new ParseTreeWalker();
+		walker.walk(bridge, (ParseTree) syntaxTree);
+	}
+
+	private KotlinParser createParser(String fileFullPath) throws IOException {
 		CharStream input = CharStreams.fromFileName(fileFullPath);
 		Lexer lexer = new KotlinLexer(input);
+		predictionCache.configure(lexer);
 		CommonTokenStream tokens = new CommonTokenStream(lexer);
 		KotlinParser parser = new KotlinParser(tokens);
-		KotlinListener bridge = new KotlinListener(fileFullPath, entityRepo, bindingResolver);
-		ParseTreeWalker walker = new ParseTreeWalker();
-		walker.walk(bridge, parser.kotlinFile());
+		predictionCache.configure(parser);
+		return parser;
 	}
 	
 	private IBindingResolver bindingResolver;
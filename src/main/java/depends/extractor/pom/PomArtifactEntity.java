@@ -36,7 +36,7 @@ import depends.entity.TypeEntity;
 
 public class PomArtifactEntity extends TypeEntity {
 	HashMap<String,String> properties;
-	public PomArtifactEntity(String simpleName, Entity parent, Integer id) {
+	public PomArtifactEntity(String simpleName, Entity parent, int id) {
 		super(GenericName.build(simpleName), parent, id);
 		properties = new HashMap<>();
 	}
@@ -25,6 +25,7 @@ SOFTWARE.
 package depends.extractor.pom;
 
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrPredictionCache;
 import depends.extractor.FileParser;
 import depends.extractor.xml.XMLLexer;
 import depends.extractor.xml.XMLParser;
@@ -33,12 +34,14 @@ import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import java.io.IOException;
 import java.util.List;
 
 public class PomFileParser extends FileParser {
+	private static final AntlrPredictionCache predictionCache = AntlrPredictionCache.of("pom");
 	private PomProcessor parseCreator;
 	private List<String> includePaths;
 	private IBindingResolver bindingResolver;
@@ -53,13 +56,32 @@ public class PomFileParser extends FileParser {
 	@Override
 
 	protected void parseFile(String fileFullPath) throws IOException {
+        XMLParser parser = createParser(fileFullPath);
+        PomListener bridge = new PomListener(fileFullPath, entityRepo, includePaths,parseCreator, bindingResolver);
+	    ParseTreeWalker walker = new ParseTreeWalker();
+	    walker.walk(bridge, predictionCache.parse(parser, XMLParser::document));
+	}
+
+	@Override
+	public Object parseSyntax(String fileFullPath) throws IOException {
+		return predictionCache.parse(createParser(fileFullPath), XMLParser::document);
+	}
+
+	@Override
+	protected void parseFile(String fileFullPath, Object syntaxTree) throws IOException {
+        PomListener bridge = new PomListener(fileFullPath, entityRepo, includePaths,parseCreator, bindingResolver);
+	    ParseTreeWalker walker = new ParseTreeWalker();
+	    walker.walk(bridge, (ParseTree) syntaxTree);
+	}
+
+	private XMLParser createParser(String fileFullPath) throws IOException {
         CharStream input = CharStreams.fromFileName(fileFullPath);
         Lexer lexer = new XMLLexer(input);
+        predictionCache.configure(lexer);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
         XMLParser parser = new XMLParser(tokens);
-        PomListener bridge = new PomListener(fileFullPath, entityRepo, includePaths,parseCreator, bindingResolver);
-	    ParseTreeWalker walker = new ParseTreeWalker();
-	    walker.walk(bridge, parser.document());
+        predictionCache.configure(parser);
+        return parser;
 	}
 
 }
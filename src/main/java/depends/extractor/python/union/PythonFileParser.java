@@ -1,6 +1,7 @@
 package depends.extractor.python.union;
 
 import depends.entity.repo.EntityRepo;
+import depends.extractor.AntlrPredictionCache;
 import depends.extractor.FileParser;
 import depends.extractor.IncludedFileLocator;
 import depends.extractor.python.PythonLexer;
@@ -11,11 +12,13 @@ import org.antlr.v4.runtime.CharStream;
 import org.antlr.v4.runtime.CharStreams;
 import org.antlr.v4.runtime.CommonTokenStream;
 import org.antlr.v4.runtime.Lexer;
+import org.antlr.v4.runtime.tree.ParseTree;
 import org.antlr.v4.runtime.tree.ParseTreeWalker;
 
 import java.io.IOException;
 
 public class PythonFileParser extends FileParser {
+	private static final AntlrPredictionCache predictionCache = AntlrPredictionCache.of("python");
 	private IBindingResolver bindingResolver;
 	private IncludedFileLocator includeFileLocator;
 	private PythonProcessor processor;
@@ -31,15 +34,33 @@ public class PythonFileParser extends FileParser {
 	@Override
 	protected void parseFile(String fileFullPath) throws IOException {
 		fileFullPath = FileUtil.uniqFilePath(fileFullPath);
+        PythonParser parser = createParser(fileFullPath);
+        PythonCodeListener bridge = new PythonCodeListener(fileFullPath, entityRepo, bindingResolver, includeFileLocator, processor);
+	    ParseTreeWalker walker = new ParseTreeWalker();
+	    walker.walk(bridge, predictionCache.parse(parser, PythonParser::file_input));
+	}
+
+	@Override
+	public Object parseSyntax(String fileFullPath) throws IOException {
+		return predictionCache.parse(createParser(FileUtil.uniqFilePath(fileFullPath)), PythonParser::file_input);
+	}
+
+	@Override
+	protected void parseFile(String fileFullPath, Object syntaxTree) throws IOException {
+		fileFullPath = FileUtil.uniqFilePath(fileFullPath);
+        PythonCodeListener bridge = new PythonCodeListener(fileFullPath, entityRepo, bindingResolver, includeFileLocator, processor);
+	    ParseTreeWalker walker = new ParseTreeWalker();
+	    walker.walk(bridge, (ParseTree) syntaxTree);
+	}
+
+	private PythonParser createParser(String fileFullPath) throws IOException {
         CharStream input = CharStreams.fromFileName(fileFullPath);
         Lexer lexer = new PythonLexer(input);
+        predictionCache.configure(lexer);
         CommonTokenStream tokens = new CommonTokenStream(lexer);
-        
-        
         PythonParser parser = new PythonParser(tokens);
-        PythonCodeListener bridge = new PythonCodeListener(fileFullPath, entityRepo, bindingResolver, includeFileLocator, processor);
-	    ParseTreeWalker walker = new ParseTreeWalker();
-	    walker.walk(bridge, parser.file_input());
+        predictionCache.configure(parser);
+        return parser;
 	}
 
 }
@@ -36,16 +36,25 @@ import depends.format.plantuml.BriefPlantUmlFormatDependencyDumper;
 import depends.format.plantuml.PlantUmlFormatDependencyDumper;
 import depends.format.xml.XmlFormatDependencyDumper;
 import depends.matrix.core.DependencyMatrix;
+import depends.metrics.PipelineMetrics;
 import edu.emory.mathcs.backport.java.util.Arrays;
 
 public class DependencyDumper {
 
 	private DependencyMatrix dependencyMatrix;
+	private boolean prettyPrint = true;
 
 	public DependencyDumper(DependencyMatrix dependencies) {
 		this.dependencyMatrix = dependencies;
 	}
 	
+	/**
+	 * Whether pretty print the output (only applicable for JSON output format)
+	 */
+	public void setPrettyPrint(boolean prettyPrint) {
+		this.prettyPrint = prettyPrint;
+	}
+
 	public void outputResult(String projectName, String outputDir, String[] outputFormat) {
         outputDeps(projectName,outputDir,outputFormat);
 	}
@@ -56,7 +65,7 @@ public class DependencyDumper {
 		AbstractFormatDependencyDumper[] builders = new AbstractFormatDependencyDumper[] {
 		 	new DetailTextFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
 		 	new XmlFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
-		 	new JsonFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
+		 	new JsonFormatDependencyDumper(dependencyMatrix,projectName,outputDir,prettyPrint),
 		 	new ExcelXlsFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
 		 	new ExcelXlsxFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
 		 	new DotFormatDependencyDumper(dependencyMatrix,projectName,outputDir),
@@ -66,7 +75,9 @@ public class DependencyDumper {
 		};
 		for (AbstractFormatDependencyDumper builder:builders) {
 			if (formatList.contains(builder.getFormatName())){
-				builder.output();
+				try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().start("dumper." + builder.getFormatName())) {
+					builder.output();
+				}
 			}
 		}
     }
@@ -27,11 +27,10 @@ package depends.format.dot;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
-import java.util.Collection;
 
 import depends.format.AbstractFormatDependencyDumper;
 import depends.matrix.core.DependencyMatrix;
-import depends.matrix.core.DependencyPair;
+import depends.matrix.core.SparseDependencyMatrix;
 
 public class DotFormatDependencyDumper extends  AbstractFormatDependencyDumper{
 	@Override
@@ -54,9 +53,7 @@ public class DotFormatDependencyDumper extends  AbstractFormatDependencyDumper{
 			}
 			writer.println("digraph");
 			writer.println("{");
-	        Collection<DependencyPair> dependencyPairs = matrix.getDependencyPairs();
-
-	        addRelations(writer,dependencyPairs); 
+	        addRelations(writer,matrix.getSparseMatrix()); 
 			writer.println("}");
 			writer.close();
 			return true;
@@ -66,11 +63,12 @@ public class DotFormatDependencyDumper extends  AbstractFormatDependencyDumper{
 		}
 	}
 
-	private void addRelations(PrintWriter writer, Collection<DependencyPair> dependencyPairs) {
-		for (DependencyPair dependencyPair:dependencyPairs) {
-            int src = dependencyPair.getFrom();
-            int dst = dependencyPair.getTo();
-        	writer.println("\t"+src + " -> " + dst + ";");
-        }		
+	private void addRelations(PrintWriter writer, SparseDependencyMatrix dependencies) {
+		for (int src = 0; src < dependencies.getRowCount(); src++) {
+			for (int entry = dependencies.getRowStart(src); entry < dependencies.getRowEnd(src); entry++) {
+				int dst = dependencies.getColumn(entry);
+				writer.println("\t"+src + " -> " + dst + ";");
+			}
+		}
 	}
 }
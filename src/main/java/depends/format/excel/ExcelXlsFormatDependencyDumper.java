@@ -26,7 +26,6 @@ package depends.format.excel;
 
 import java.io.File;
 import java.io.IOException;
-import java.util.Collection;
 
 import org.apache.poi.hssf.usermodel.HSSFCell;
 import org.apache.poi.hssf.usermodel.HSSFRow;
@@ -35,8 +34,7 @@ import org.apache.poi.hssf.usermodel.HSSFWorkbook;
 
 import depends.format.AbstractFormatDependencyDumper;
 import depends.matrix.core.DependencyMatrix;
-import depends.matrix.core.DependencyPair;
-import depends.matrix.core.DependencyValue;
+import depends.matrix.core.SparseDependencyMatrix;
 
 public class ExcelXlsFormatDependencyDumper extends AbstractFormatDependencyDumper {
 	private HSSFWorkbook workbook;
@@ -57,7 +55,7 @@ public class ExcelXlsFormatDependencyDumper extends AbstractFormatDependencyDump
 			return false;
 		}
 		startFile();
-		Collection<DependencyPair> dependencyPairs = matrix.getDependencyPairs();
+		SparseDependencyMatrix dependencies = matrix.getSparseMatrix();
 		HSSFRow[] row = new HSSFRow[matrix.getNodes().size()];
 
 		// create header row
@@ -86,19 +84,21 @@ public class ExcelXlsFormatDependencyDumper extends AbstractFormatDependencyDump
 		}
 		;
 
-		for (DependencyPair dependencyPair : dependencyPairs) {
-			HSSFCell cell = row[dependencyPair.getFrom()].createCell(dependencyPair.getTo() + 2);
-			cell.setCellValue(buildDependencyValues(dependencyPair.getDependencies()));
+		for (int from = 0; from < dependencies.getRowCount(); from++) {
+			for (int entry = dependencies.getRowStart(from); entry < dependencies.getRowEnd(from); entry++) {
+				HSSFCell cell = row[from].createCell(dependencies.getColumn(entry) + 2);
+				cell.setCellValue(buildDependencyValues(dependencies, entry));
+			}
 		}
 		closeFile(filename);
 		return true;
 	}
 
-	private String buildDependencyValues(Collection<DependencyValue> dependencies) {
+	private String buildDependencyValues(SparseDependencyMatrix dependencies, int entry) {
 		StringBuilder sb = new StringBuilder();
-		for (DependencyValue dependency : dependencies) {
+		for (int value = dependencies.getValueStart(entry); value < dependencies.getValueEnd(entry); value++) {
 			String comma = sb.length() > 0 ? "," : "";
-			sb.append(comma).append(dependency.getType()).append("(").append(dependency.getWeight()).append(")");
+			sb.append(comma).append(dependencies.getType(value)).append("(").append(dependencies.getWeight(value)).append(")");
 		}
 		return sb.toString();
 	}
@@ -26,7 +26,6 @@ package depends.format.excel;
 
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.util.Collection;
 
 import org.apache.poi.xssf.usermodel.XSSFCell;
 import org.apache.poi.xssf.usermodel.XSSFRow;
@@ -35,8 +34,7 @@ import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 
 import depends.format.AbstractFormatDependencyDumper;
 import depends.matrix.core.DependencyMatrix;
-import depends.matrix.core.DependencyPair;
-import depends.matrix.core.DependencyValue;
+import depends.matrix.core.SparseDependencyMatrix;
 
 public class ExcelXlsxFormatDependencyDumper extends AbstractFormatDependencyDumper {
 	private XSSFWorkbook workbook;
@@ -54,7 +52,7 @@ public class ExcelXlsxFormatDependencyDumper extends AbstractFormatDependencyDum
 		String filename = composeFilename() + ".xlsx";
 
 		startFile();
-		Collection<DependencyPair> dependencyPairs = matrix.getDependencyPairs();
+		SparseDependencyMatrix dependencies = matrix.getSparseMatrix();
 		XSSFRow[] row = new XSSFRow[matrix.getNodes().size()];
 
 		// create header row
@@ -83,19 +81,21 @@ public class ExcelXlsxFormatDependencyDumper extends AbstractFormatDependencyDum
 		}
 		;
 
-		for (DependencyPair dependencyPair : dependencyPairs) {
-			XSSFCell cell = row[dependencyPair.getFrom()].createCell(dependencyPair.getTo() + 2);
-			cell.setCellValue(buildDependencyValues(dependencyPair.getDependencies()));
+		for (int from = 0; from < dependencies.getRowCount(); from++) {
+			for (int entry = dependencies.getRowStart(from); entry < dependencies.getRowEnd(from); entry++) {
+				XSSFCell cell = row[from].createCell(dependencies.getColumn(entry) + 2);
+				cell.setCellValue(buildDependencyValues(dependencies, entry));
+			}
 		}
 		closeFile(filename);
 		return true;
 	}
 
-	private String buildDependencyValues(Collection<DependencyValue> dependencies) {
+	private String buildDependencyValues(SparseDependencyMatrix dependencies, int entry) {
 		StringBuilder sb = new StringBuilder();
-		for (DependencyValue dependency : dependencies) {
+		for (int value = dependencies.getValueStart(entry); value < dependencies.getValueEnd(entry); value++) {
 			String comma = sb.length() > 0 ? "," : "";
-			sb.append(comma).append(dependency.getType()).append("(").append(dependency.getWeight()).append(")");
+			sb.append(comma).append(dependencies.getType(value)).append("(").append(dependencies.getWeight(value)).append(")");
 		}
 		return sb.toString();
 	}
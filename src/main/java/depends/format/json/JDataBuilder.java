@@ -25,7 +25,6 @@ SOFTWARE.
 package depends.format.json;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,14 +32,12 @@ import java.util.Map;
 import depends.format.FileAttributes;
 import depends.matrix.core.DependencyDetail;
 import depends.matrix.core.DependencyMatrix;
-import depends.matrix.core.DependencyPair;
-import depends.matrix.core.DependencyValue;
+import depends.matrix.core.SparseDependencyMatrix;
 
 public class JDataBuilder {
 	public JDepObject build(DependencyMatrix dependencyMatrix, FileAttributes attribute) {
 		ArrayList<String> files = dependencyMatrix.getNodes();
-		Collection<DependencyPair> dependencyPairs = dependencyMatrix.getDependencyPairs();
-		ArrayList<JCellObject> cellObjects = buildCellObjects(dependencyPairs); // transform finalRes into cellObjects
+		ArrayList<JCellObject> cellObjects = buildCellObjects(dependencyMatrix.getSparseMatrix()); // transform finalRes into cellObjects
 
 		JDepObject depObject = new JDepObject();
 		depObject.setVariables(files);
@@ -51,37 +48,37 @@ public class JDataBuilder {
 		return depObject;
 	}
 
-	private ArrayList<JCellObject> buildCellObjects(Collection<DependencyPair> dependencyPairs) {
-		ArrayList<JCellObject> cellObjects = new ArrayList<JCellObject>();
+	private ArrayList<JCellObject> buildCellObjects(SparseDependencyMatrix matrix) {
+		ArrayList<JCellObject> cellObjects = new ArrayList<JCellObject>(matrix.getEntryCount());
 
-		for (DependencyPair dependencyPair : dependencyPairs) {
-			Map<String, Float> valueObject = buildValueObject(dependencyPair.getDependencies());
-			List<DetailItem> details = buildDetails(dependencyPair.getDependencies());
-			JCellObject cellObject = new JCellObject();
-			cellObject.setSrc(dependencyPair.getFrom());
-			cellObject.setDest(dependencyPair.getTo());
-			cellObject.setValues(valueObject);
-			cellObject.setDetails(details);
-			cellObjects.add(cellObject);
+		for (int row = 0; row < matrix.getRowCount(); row++) {
+			for (int entry = matrix.getRowStart(row); entry < matrix.getRowEnd(row); entry++) {
+				JCellObject cellObject = new JCellObject();
+				cellObject.setSrc(row);
+				cellObject.setDest(matrix.getColumn(entry));
+				cellObject.setValues(buildValueObject(matrix, entry));
+				cellObject.setDetails(buildDetails(matrix, entry));
+				cellObjects.add(cellObject);
+			}
 		}
 		return cellObjects;
 	}
 
-	private List<DetailItem> buildDetails(Collection<DependencyValue> dependencies) {
+	private List<DetailItem> buildDetails(SparseDependencyMatrix matrix, int entry) {
 		List<DetailItem>  r = new ArrayList<>();
-		for (DependencyValue dependency : dependencies) {
-			for (DependencyDetail detail:dependency.getDetails()) {
-				r.add(new DetailItem(detail.getSrc(),detail.getDest(),dependency.getType()));
+		for (int value = matrix.getValueStart(entry); value < matrix.getValueEnd(entry); value++) {
+			for (DependencyDetail detail:matrix.getDetails(value)) {
+				r.add(new DetailItem(detail.getSrc(),detail.getDest(),matrix.getType(value)));
 			}
 		}
 		if (r.size()==0) return null;
 		return r;
 	}
 
-	private Map<String, Float> buildValueObject(Collection<DependencyValue> dependencies) {
+	private Map<String, Float> buildValueObject(SparseDependencyMatrix matrix, int entry) {
 		Map<String, Float> valueObject = new HashMap<String, Float>();
-		for (DependencyValue dependency : dependencies) {
-			valueObject.put(dependency.getType(), (float) dependency.getWeight());
+		for (int value = matrix.getValueStart(entry); value < matrix.getValueEnd(entry); value++) {
+			valueObject.put(matrix.getType(value), (float) matrix.getWeight(value));
 		}
 		return valueObject;
 	}
@@ -25,41 +25,100 @@ SOFTWARE.
 package depends.format.json;
 
 import java.io.File;
+import java.io.IOException;
 
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 
 import depends.format.AbstractFormatDependencyDumper;
 import depends.format.FileAttributes;
+import depends.matrix.core.DependencyDetail;
 import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.SparseDependencyMatrix;
 
+/**
+ * Streams the matrix into the json file cell by cell, so no object tree (see JDataBuilder)
+ * is built for the whole matrix. The output is the same as serializing the JDepObject.
+ */
 public class JsonFormatDependencyDumper extends AbstractFormatDependencyDumper {
+	private final boolean prettyPrint;
+
 	@Override
 	public String getFormatName() {
 		return "json";
 	}
 
 	public JsonFormatDependencyDumper(DependencyMatrix dependencyMatrix, String projectName, String outputDir) {
+		this(dependencyMatrix, projectName, outputDir, true);
+	}
+
+	public JsonFormatDependencyDumper(DependencyMatrix dependencyMatrix, String projectName, String outputDir, boolean prettyPrint) {
 		super(dependencyMatrix, projectName,outputDir);
+		this.prettyPrint = prettyPrint;
 	}
 
 	@Override
 	public boolean output() {
-		JDataBuilder jBuilder = new JDataBuilder();
-		JDepObject jDepObject = jBuilder.build(matrix, new FileAttributes(name));
-		toJson(jDepObject, composeFilename()+ ".json");
+		ObjectMapper mapper = new ObjectMapper();
+		mapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(new File(composeFilename()+ ".json"), JsonEncoding.UTF8)) {
+			if (prettyPrint)
+				generator.useDefaultPrettyPrinter();
+			writeMatrix(generator, new FileAttributes(name));
+		} catch (IOException e) {
+			e.printStackTrace();
+			return false;
+		}
 		return true;
 	}
 
-	
-
-	private void toJson(JDepObject depObject, String jsonFileName) {
-		ObjectMapper mapper = new ObjectMapper();
-		try {
-			mapper.writerWithDefaultPrettyPrinter().writeValue(new File(jsonFileName), depObject);
-		} catch (Exception e) {
-			e.printStackTrace();
+	private void writeMatrix(JsonGenerator generator, FileAttributes attribute) throws IOException {
+		generator.writeStartObject();
+		generator.writeStringField("schemaVersion", attribute.getSchemaVersion());
+		generator.writeStringField("name", attribute.getAttributeName());
+		generator.writeArrayFieldStart("variables");
+		for (String node:matrix.getNodes()) {
+			generator.writeString(node);
+		}
+		generator.writeEndArray();
+		generator.writeArrayFieldStart("cells");
+		SparseDependencyMatrix dependencies = matrix.getSparseMatrix();
+		for (int row = 0; row < dependencies.getRowCount(); row++) {
+			for (int entry = dependencies.getRowStart(row); entry < dependencies.getRowEnd(row); entry++) {
+				writeCell(generator, dependencies, row, entry);
+			}
 		}
+		generator.writeEndArray();
+		generator.writeEndObject();
+	}
 
+	private void writeCell(JsonGenerator generator, SparseDependencyMatrix dependencies, int row, int entry) throws IOException {
+		generator.writeStartObject();
+		generator.writeNumberField("src", row);
+		generator.writeNumberField("dest", dependencies.getColumn(entry));
+		generator.writeObjectFieldStart("values");
+		boolean hasDetails = false;
+		for (int value = dependencies.getValueStart(entry); value < dependencies.getValueEnd(entry); value++) {
+			generator.writeNumberField(dependencies.getType(value), (float) dependencies.getWeight(value));
+			hasDetails = hasDetails || !dependencies.getDetails(value).isEmpty();
+		}
+		generator.writeEndObject();
+		if (hasDetails) {
+			generator.writeArrayFieldStart("details");
+			for (int value = dependencies.getValueStart(entry); value < dependencies.getValueEnd(entry); value++) {
+				for (DependencyDetail detail:dependencies.getDetails(value)) {
+					generator.writeStartObject();
+					generator.writeObjectField("src", detail.getSrc());
+					generator.writeObjectField("dest", detail.getDest());
+					generator.writeStringField("type", dependencies.getType(value));
+					generator.writeEndObject();
+				}
+			}
+			generator.writeEndArray();
+		}
+		generator.writeEndObject();
 	}
 
 }
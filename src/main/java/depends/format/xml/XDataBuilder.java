@@ -25,22 +25,19 @@ SOFTWARE.
 package depends.format.xml;
 
 import java.util.ArrayList;
-import java.util.Collection;
 
 import depends.format.FileAttributes;
 import depends.matrix.core.DependencyMatrix;
-import depends.matrix.core.DependencyPair;
-import depends.matrix.core.DependencyValue;
+import depends.matrix.core.SparseDependencyMatrix;
 
 public class XDataBuilder {
     public XDepObject build(DependencyMatrix matrix,FileAttributes attribute) {
         ArrayList<String> files = matrix.getNodes();
-        Collection<DependencyPair> dependencyPairs = matrix.getDependencyPairs();
 
         XFiles xFiles = new XFiles();
         xFiles.setFiles(files);
 
-        ArrayList<XCell> xCellList = buildCellList(dependencyPairs);
+        ArrayList<XCell> xCellList = buildCellList(matrix.getSparseMatrix());
 
         XCells xCells = new XCells();
         xCells.setCells(xCellList);
@@ -55,26 +52,28 @@ public class XDataBuilder {
     }
 
 
-    private ArrayList<XCell> buildCellList(Collection<DependencyPair> dependencyPairs) {
-    	ArrayList<XCell> cellList = new ArrayList<XCell>();
-        for (DependencyPair pair : dependencyPairs) {
-                ArrayList<XDepend> xDepends = buildDependList(pair.getDependencies());
+    private ArrayList<XCell> buildCellList(SparseDependencyMatrix matrix) {
+    	ArrayList<XCell> cellList = new ArrayList<XCell>(matrix.getEntryCount());
+        for (int row = 0; row < matrix.getRowCount(); row++) {
+            for (int entry = matrix.getRowStart(row); entry < matrix.getRowEnd(row); entry++) {
+                ArrayList<XDepend> xDepends = buildDependList(matrix, entry);
                 XCell xCell = new XCell();
-                xCell.setSrc(pair.getFrom());
-                xCell.setDest(pair.getTo());
+                xCell.setSrc(row);
+                xCell.setDest(matrix.getColumn(entry));
                 xCell.setDepends(xDepends);
                 cellList.add(xCell);
+            }
         } 
         return cellList;
 	}
 
-	private ArrayList<XDepend> buildDependList(Collection<DependencyValue> dependencies) {
+	private ArrayList<XDepend> buildDependList(SparseDependencyMatrix matrix, int entry) {
 		ArrayList<XDepend> dependList = new ArrayList<XDepend>();
 
-        for (DependencyValue dependency : dependencies) {
+        for (int value = matrix.getValueStart(entry); value < matrix.getValueEnd(entry); value++) {
             XDepend xDepend = new XDepend();
-            xDepend.setWeight(dependency.getWeight());
-            xDepend.setName(dependency.getType());
+            xDepend.setWeight(matrix.getWeight(value));
+            xDepend.setName(matrix.getType(value));
             dependList.add(xDepend);
         } 
         return dependList;
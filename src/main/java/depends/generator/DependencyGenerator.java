@@ -33,6 +33,7 @@ import depends.matrix.core.DependencyDetail;
 import depends.matrix.core.DependencyMatrix;
 import depends.matrix.core.LocationInfo;
 import depends.matrix.transform.OrderedMatrixGenerator;
+import depends.metrics.PipelineMetrics;
 import depends.relations.Relation;
 import multilang.depends.util.file.path.EmptyFilenameWritter;
 import multilang.depends.util.file.path.FilenameWritter;
@@ -56,9 +57,14 @@ public abstract class DependencyGenerator {
 	public abstract String getType();
 	public DependencyMatrix identifyDependencies(EntityRepo entityRepo, List<String> typeFilter) {
 		System.out.println("dependencie data generating...");
-		DependencyMatrix dependencyMatrix = build(entityRepo, typeFilter);
+		DependencyMatrix dependencyMatrix;
+		try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().start("generator." + getType())) {
+			dependencyMatrix = build(entityRepo, typeFilter);
+		}
 		System.out.println("reorder dependency matrix...");
-		dependencyMatrix = new OrderedMatrixGenerator(dependencyMatrix).build();
+		try (PipelineMetrics.Phase phase = PipelineMetrics.getInstance().start("matrixReorder." + getType())) {
+			dependencyMatrix = new OrderedMatrixGenerator(dependencyMatrix).build();
+		}
 		System.out.println("Dependencies data generating done successfully...");
 		logger.info("Dependencies data generating done successfully...");
 		return dependencyMatrix;
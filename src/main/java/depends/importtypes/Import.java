@@ -24,7 +24,9 @@ SOFTWARE.
 
 package depends.importtypes;
 
-public abstract class Import {
+import java.io.Serializable;
+
+public abstract class Import implements Serializable {
 	private String content;
 	public String getContent() {
 		return content;
@@ -27,29 +27,66 @@ package depends.matrix.core;
 import multilang.depends.util.file.path.FilenameWritter;
 
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
+import java.util.function.IntUnaryOperator;
 
 import static depends.deptypes.DependencyType.POSSIBLE_DEP;
 
 public class DependencyMatrix {
 	private final boolean outputSelfDependencies;
-	private HashMap<String, DependencyPair> dependencyPairs = new HashMap<>();
+	private DependencyPairMap dependencyPairs;
+	private SparseDependencyMatrix sparseMatrix = null;
     private ArrayList<String> nodes = new ArrayList<>();
     private HashMap<Integer,String> nodeIdToName = new HashMap<>();
 	private List<String> typeFilter;
+	private BitSet checkedTypes = new BitSet();
+	private BitSet filteredTypes = new BitSet();
 
 	public DependencyMatrix(int size, List<String> typeFilter,boolean outputSelfDependencies) {
-		dependencyPairs = new HashMap<>(size);
+		dependencyPairs = new DependencyPairMap(size);
 		this.typeFilter = typeFilter;
 		this.outputSelfDependencies = outputSelfDependencies;
 	}
 
+	/**
+	 * @return the dependency pairs, ordered by (from, to)
+	 */
 	public Collection<DependencyPair> getDependencyPairs() {
+		if (sparseMatrix!=null)
+			return sparseMatrix.toDependencyPairs();
         return dependencyPairs.values();
     }
 
+	/**
+	 * The dependencies in CSR form, which the dumpers could iterate without pair objects.
+	 * If the matrix is not reordered yet, the rows are the node ids.
+	 */
+	public SparseDependencyMatrix getSparseMatrix() {
+		if (sparseMatrix!=null)
+			return sparseMatrix;
+		return SparseDependencyMatrix.build(nodes.size(), dependencyPairs, id->id, true);
+	}
+
+	/**
+	 * Re-number the nodes in place, and compact the dependencies into the CSR form.
+	 * No dependency could be added after that.
+	 * @param orderedNodes the nodes in the new order; the new id of a node is its index
+	 * @param newIdOf maps the current node id to the new one
+	 */
+	public DependencyMatrix reorder(ArrayList<String> orderedNodes, IntUnaryOperator newIdOf) {
+		sparseMatrix = SparseDependencyMatrix.build(orderedNodes.size(), dependencyPairs, newIdOf, outputSelfDependencies);
+		dependencyPairs = null;
+		this.nodes = orderedNodes;
+		this.nodeIdToName = new HashMap<>();
+		for (int id=0;id<nodes.size();id++) {
+			nodeIdToName.put(id, nodes.get(id));
+		}
+		return this;
+	}
+
 	public void addNode(String name, int id) {
 		this.nodes.add(name);
 		this.nodeIdToName.put(id, name);
@@ -58,33 +95,50 @@ public class DependencyMatrix {
 	public void addDependency(String depType, Integer from, Integer to,  int weight,List<DependencyDetail> details) {
 		if (typeFilter!=null && (!typeFilter.contains(depType)))
 			return;
-		if (!outputSelfDependencies && from.equals(to) ){
+		int fromId = from;
+		int toId = to;
+		if (!outputSelfDependencies && fromId==toId ){
 			return;
 		}
-		if( from == -1 || to == -1) {
+		if( fromId == -1 || toId == -1) {
 		    return;
 		}
-		if (dependencyPairs.get(DependencyPair.key(from,to))==null) {
-			dependencyPairs.put(DependencyPair.key(from,to),new DependencyPair(from,to));
-		}
-		DependencyPair dependencyPair = dependencyPairs.get(DependencyPair.key(from,to));
-		dependencyPair.addDependency(depType,weight,details);
+		DependencyPair dependencyPair = pairsForAdding().getOrCreate(fromId,toId);
+		dependencyPair.addDependency(DependencyTypeCodes.codeOf(depType),depType,weight,details);
 	}
 	
 	public void addDependency(String depType, Integer from, Integer to,  int weight,DependencyDetail detail) {
-		if (typeFilter!=null && (!typeFilter.contains(depType.replace(POSSIBLE_DEP,""))))
+		int typeCode = DependencyTypeCodes.codeOf(depType);
+		if (typeFilter!=null && isFiltered(typeCode, depType))
 			return;
-		if (!outputSelfDependencies && from.equals(to) ){
+		int fromId = from;
+		int toId = to;
+		if (!outputSelfDependencies && fromId==toId ){
 			return;
 		}
-		if( from == -1 || to == -1) {
+		if( fromId == -1 || toId == -1) {
 			return;
 		}
-		if (dependencyPairs.get(DependencyPair.key(from,to))==null) {
-			dependencyPairs.put(DependencyPair.key(from,to),new DependencyPair(from,to));
+		DependencyPair dependencyPair = pairsForAdding().getOrCreate(fromId,toId);
+		dependencyPair.addDependency(typeCode,depType,weight,detail);
+	}
+
+	private DependencyPairMap pairsForAdding() {
+		if (dependencyPairs==null)
+			throw new IllegalStateException("dependencies could not be added to a reordered matrix");
+		return dependencyPairs;
+	}
+
+	/**
+	 * The possible dependencies are filtered the same as the actual ones;
+	 * the result is remembered by the type code.
+	 */
+	private boolean isFiltered(int typeCode, String depType) {
+		if (!checkedTypes.get(typeCode)) {
+			checkedTypes.set(typeCode);
+			filteredTypes.set(typeCode, !typeFilter.contains(depType.replace(POSSIBLE_DEP,"")));
 		}
-		DependencyPair dependencyPair = dependencyPairs.get(DependencyPair.key(from,to));
-		dependencyPair.addDependency(depType,weight,detail);
+		return filteredTypes.get(typeCode);
 	}
 	
     public ArrayList<String> getNodes() {
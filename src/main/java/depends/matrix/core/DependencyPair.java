@@ -24,35 +24,67 @@ SOFTWARE.
 
 package depends.matrix.core;
 
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
 import java.util.List;
 
 public class DependencyPair {
-	private Integer from;
-	private Integer to;
-	HashMap<String, DependencyValue> dependencies;
+	private int from;
+	private int to;
+	private int[] typeCodes = new int[2];
+	private DependencyValue[] dependencies = new DependencyValue[2];
+	private int size = 0;
 	public DependencyPair(Integer from, Integer to) {
 		this.from = from;
 		this.to= to;
-		dependencies = new HashMap<>();
 	}
 	public static String key(Integer from, Integer to) {
 		return ""+from+"-->"+to;
 	}
 	
 	public void addDependency(String depType, int weight, DependencyDetail detail) {
-		if (dependencies.get(depType)==null)
-			dependencies.put(depType, new DependencyValue(depType));
-		DependencyValue value = dependencies.get(depType);
-		value.addDependency(weight,detail);
+		addDependency(DependencyTypeCodes.codeOf(depType), depType, weight, detail);
 	}
 	
 	public void addDependency(String depType, int weight, List<DependencyDetail> details) {
-		if (dependencies.get(depType)==null)
-			dependencies.put(depType, new DependencyValue(depType));
-		DependencyValue value = dependencies.get(depType);		
-		value.addDependency(weight,details);
+		addDependency(DependencyTypeCodes.codeOf(depType), depType, weight, details);
+	}
+
+	void addDependency(int typeCode, String depType, int weight, DependencyDetail detail) {
+		valueOf(typeCode, depType).addDependency(weight,detail);
+	}
+
+	void addDependency(int typeCode, String depType, int weight, List<DependencyDetail> details) {
+		valueOf(typeCode, depType).addDependency(weight,details);
+	}
+
+	/**
+	 * A pair has only a few types of dependencies, so the types are searched linearly
+	 */
+	private DependencyValue valueOf(int typeCode, String depType) {
+		for (int i=0;i<size;i++) {
+			if (typeCodes[i]==typeCode)
+				return dependencies[i];
+		}
+		if (size==typeCodes.length) {
+			typeCodes = Arrays.copyOf(typeCodes, size*2);
+			dependencies = Arrays.copyOf(dependencies, size*2);
+		}
+		typeCodes[size] = typeCode;
+		dependencies[size] = new DependencyValue(depType);
+		return dependencies[size++];
+	}
+	
+	int size() {
+		return size;
+	}
+
+	int getTypeCode(int index) {
+		return typeCodes[index];
+	}
+
+	DependencyValue getValue(int index) {
+		return dependencies[index];
 	}
 	
 	public Integer getFrom() {
@@ -62,7 +94,7 @@ public class DependencyPair {
 		return to;
 	}
 	public Collection<DependencyValue> getDependencies() {
-		return dependencies.values();
+		return Arrays.asList(dependencies).subList(0, size);
 	}
 	public void reMap(Integer from, Integer to) {
 		this.from = from;
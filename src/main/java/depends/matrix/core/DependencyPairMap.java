@@ -0,0 +1,113 @@
+package depends.matrix.core;
+
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+/**
+ * An open addressing (linear probing) map from the pair key packed as (from<<32)|to
+ * to the dependency pair, so adding a dependency neither builds a string key nor boxes the ids.
+ * The values are iterated in the order of (from, to).
+ */
+class DependencyPairMap {
+	private static final int MAX_CAPACITY = 1 << 30;
+	private long[] keys;
+	private DependencyPair[] values;
+	private int size = 0;
+	private int mask;
+
+	DependencyPairMap(int expectedSize) {
+		int capacity = 16;
+		while (capacity < expectedSize * 2L && capacity < MAX_CAPACITY)
+			capacity <<= 1;
+		keys = new long[capacity];
+		values = new DependencyPair[capacity];
+		mask = capacity - 1;
+	}
+
+	static long key(int from, int to) {
+		return ((long) from << 32) | (to & 0xFFFFFFFFL);
+	}
+
+	DependencyPair get(long key) {
+		for (int i = indexOf(key); values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return values[i];
+		}
+		return null;
+	}
+
+	/**
+	 * @return the pair of the key, created if not exists
+	 */
+	DependencyPair getOrCreate(int from, int to) {
+		long key = key(from, to);
+		int i = indexOf(key);
+		for (; values[i] != null; i = (i + 1) & mask) {
+			if (keys[i] == key)
+				return values[i];
+		}
+		DependencyPair pair = new DependencyPair(from, to);
+		keys[i] = key;
+		values[i] = pair;
+		size++;
+		if (size * 2 > values.length && values.length < MAX_CAPACITY)
+			rehash(values.length << 1);
+		return pair;
+	}
+
+	int size() {
+		return size;
+	}
+
+	Collection<DependencyPair> values() {
+		return new AbstractCollection<DependencyPair>() {
+			@Override
+			public Iterator<DependencyPair> iterator() {
+				return Arrays.asList(sortedValues()).iterator();
+			}
+
+			@Override
+			public int size() {
+				return size;
+			}
+		};
+	}
+
+	DependencyPair[] sortedValues() {
+		long[] sortedKeys = new long[size];
+		int count = 0;
+		for (int i = 0; i < values.length; i++) {
+			if (values[i] != null)
+				sortedKeys[count++] = keys[i];
+		}
+		Arrays.sort(sortedKeys);
+		DependencyPair[] sorted = new DependencyPair[size];
+		for (int i = 0; i < size; i++) {
+			sorted[i] = get(sortedKeys[i]);
+		}
+		return sorted;
+	}
+
+	private void rehash(int capacity) {
+		long[] oldKeys = keys;
+		DependencyPair[] oldValues = values;
+		keys = new long[capacity];
+		values = new DependencyPair[capacity];
+		mask = capacity - 1;
+		for (int j = 0; j < oldValues.length; j++) {
+			if (oldValues[j] == null) continue;
+			int i = indexOf(oldKeys[j]);
+			while (values[i] != null)
+				i = (i + 1) & mask;
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+	}
+
+	private int indexOf(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32)) & mask;
+	}
+}
@@ -0,0 +1,36 @@
+package depends.matrix.core;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns the dependency type names to small int codes, so the types of a pair
+ * are told apart by comparing ints instead of hashing strings.
+ */
+final class DependencyTypeCodes {
+	private static final ConcurrentHashMap<String, Integer> codes = new ConcurrentHashMap<>();
+	private static volatile String[] names = new String[0];
+
+	private DependencyTypeCodes() {
+	}
+
+	static int codeOf(String type) {
+		Integer code = codes.get(type);
+		if (code != null)
+			return code;
+		synchronized (codes) {
+			code = codes.get(type);
+			if (code != null)
+				return code;
+			String[] grown = Arrays.copyOf(names, names.length + 1);
+			grown[names.length] = type;
+			names = grown;
+			codes.put(type, grown.length - 1);
+			return grown.length - 1;
+		}
+	}
+
+	static String nameOf(int code) {
+		return names[code];
+	}
+}
@@ -0,0 +1,202 @@
+package depends.matrix.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * The dependencies in compressed sparse row (CSR) form: the entries (cells) of row r are
+ * [rowOffsets[r], rowOffsets[r+1]), ordered by column, and the values (dependency types
+ * and weights) of entry e are [valueOffsets[e], valueOffsets[e+1]).
+ * The details are kept in a side store, which is null if no detail is generated.
+ * It is built once from the pairs, and never changed after that.
+ */
+public class SparseDependencyMatrix {
+	private static final List<DependencyDetail> NO_DETAILS = Collections.emptyList();
+	private final int[] rowOffsets;
+	private final int[] columns;
+	private final int[] valueOffsets;
+	private final int[] valueTypes;
+	private final int[] weights;
+	private final DependencyDetail[][] details;
+
+	private SparseDependencyMatrix(int[] rowOffsets, int[] columns, int[] valueOffsets,
+			int[] valueTypes, int[] weights, DependencyDetail[][] details) {
+		this.rowOffsets = rowOffsets;
+		this.columns = columns;
+		this.valueOffsets = valueOffsets;
+		this.valueTypes = valueTypes;
+		this.weights = weights;
+		this.details = details;
+	}
+
+	/**
+	 * Build the matrix from the pairs, with the node ids re-numbered by newIdOf.
+	 * The pairs which fall into the same cell after re-numbering are merged, in the order of (from, to).
+	 * @param nodeCount the minimal number of rows
+	 */
+	static SparseDependencyMatrix build(int nodeCount, DependencyPairMap pairMap, IntUnaryOperator newIdOf,
+			boolean outputSelfDependencies) {
+		DependencyPair[] pairs = pairMap.sortedValues();
+		int[] rows = new int[pairs.length];
+		int[] cols = new int[pairs.length];
+		int rowCount = nodeCount;
+		int valueCount = 0;
+		for (int i = 0; i < pairs.length; i++) {
+			rows[i] = newIdOf.applyAsInt(pairs[i].getFrom());
+			cols[i] = newIdOf.applyAsInt(pairs[i].getTo());
+			rowCount = Math.max(rowCount, rows[i] + 1);
+			valueCount += pairs[i].size();
+		}
+
+		// counting sort by row, then sort the cells of each row by column
+		int[] rowOffsets = new int[rowCount + 1];
+		for (int i = 0; i < pairs.length; i++) {
+			rowOffsets[rows[i] + 1]++;
+		}
+		for (int r = 0; r < rowCount; r++) {
+			rowOffsets[r + 1] += rowOffsets[r];
+		}
+		int[] next = Arrays.copyOf(rowOffsets, rowCount);
+		long[] cells = new long[pairs.length];
+		for (int i = 0; i < pairs.length; i++) {
+			cells[next[rows[i]]++] = ((long) cols[i] << 32) | i;
+		}
+
+		int[] columns = new int[pairs.length];
+		int[] valueOffsets = new int[pairs.length + 1];
+		int[] valueTypes = new int[valueCount];
+		int[] weights = new int[valueCount];
+		DependencyDetail[][] details = new DependencyDetail[valueCount][];
+		boolean hasDetails = false;
+		int entry = 0;
+		int value = 0;
+		for (int r = 0; r < rowCount; r++) {
+			int start = rowOffsets[r];
+			int end = rowOffsets[r + 1];
+			Arrays.sort(cells, start, end);
+			rowOffsets[r] = entry;
+			for (int i = start; i < end; i++) {
+				int col = (int) (cells[i] >>> 32);
+				if (!outputSelfDependencies && col == r)
+					continue;
+				boolean sameCell = entry > rowOffsets[r] && columns[entry - 1] == col;
+				if (!sameCell) {
+					columns[entry] = col;
+					valueOffsets[entry] = value;
+					entry++;
+				}
+				DependencyPair pair = pairs[(int) cells[i]];
+				for (int t = 0; t < pair.size(); t++) {
+					int v = sameCell ? indexOfType(valueTypes, valueOffsets[entry - 1], value, pair.getTypeCode(t)) : -1;
+					DependencyValue dependencyValue = pair.getValue(t);
+					if (v < 0) {
+						v = value++;
+						valueTypes[v] = pair.getTypeCode(t);
+					}
+					weights[v] += dependencyValue.getWeight();
+					if (!dependencyValue.getDetails().isEmpty()) {
+						details[v] = append(details[v], dependencyValue.getDetails());
+						hasDetails = true;
+					}
+				}
+			}
+		}
+		rowOffsets[rowCount] = entry;
+		valueOffsets[entry] = value;
+		return new SparseDependencyMatrix(rowOffsets, Arrays.copyOf(columns, entry),
+				Arrays.copyOf(valueOffsets, entry + 1), Arrays.copyOf(valueTypes, value),
+				Arrays.copyOf(weights, value), hasDetails ? Arrays.copyOf(details, value) : null);
+	}
+
+	private static int indexOfType(int[] valueTypes, int start, int end, int typeCode) {
+		for (int v = start; v < end; v++) {
+			if (valueTypes[v] == typeCode)
+				return v;
+		}
+		return -1;
+	}
+
+	private static DependencyDetail[] append(DependencyDetail[] details, List<DependencyDetail> more) {
+		if (details == null)
+			return more.toArray(new DependencyDetail[0]);
+		DependencyDetail[] r = Arrays.copyOf(details, details.length + more.size());
+		for (int i = 0; i < more.size(); i++) {
+			r[details.length + i] = more.get(i);
+		}
+		return r;
+	}
+
+	public int getRowCount() {
+		return rowOffsets.length - 1;
+	}
+
+	public int getEntryCount() {
+		return columns.length;
+	}
+
+	/**
+	 * @return the first entry of the row
+	 */
+	public int getRowStart(int row) {
+		return rowOffsets[row];
+	}
+
+	/**
+	 * @return the entry after the last entry of the row
+	 */
+	public int getRowEnd(int row) {
+		return rowOffsets[row + 1];
+	}
+
+	public int getColumn(int entry) {
+		return columns[entry];
+	}
+
+	/**
+	 * @return the first value of the entry
+	 */
+	public int getValueStart(int entry) {
+		return valueOffsets[entry];
+	}
+
+	/**
+	 * @return the value after the last value of the entry
+	 */
+	public int getValueEnd(int entry) {
+		return valueOffsets[entry + 1];
+	}
+
+	public String getType(int value) {
+		return DependencyTypeCodes.nameOf(valueTypes[value]);
+	}
+
+	public int getWeight(int value) {
+		return weights[value];
+	}
+
+	public List<DependencyDetail> getDetails(int value) {
+		if (details == null || details[value] == null)
+			return NO_DETAILS;
+		return Arrays.asList(details[value]);
+	}
+
+	/**
+	 * Build the pair objects, for the consumers which do not iterate the matrix directly
+	 */
+	List<DependencyPair> toDependencyPairs() {
+		List<DependencyPair> pairs = new ArrayList<>(getEntryCount());
+		for (int row = 0; row < getRowCount(); row++) {
+			for (int entry = getRowStart(row); entry < getRowEnd(row); entry++) {
+				DependencyPair pair = new DependencyPair(row, getColumn(entry));
+				for (int value = getValueStart(entry); value < getValueEnd(entry); value++) {
+					pair.addDependency(valueTypes[value], getType(value), getWeight(value), getDetails(value));
+				}
+				pairs.add(pair);
+			}
+		}
+		return pairs;
+	}
+}
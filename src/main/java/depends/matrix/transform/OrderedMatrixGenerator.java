@@ -24,8 +24,6 @@ SOFTWARE.
 */
 
 import depends.matrix.core.DependencyMatrix;
-import depends.matrix.core.DependencyPair;
-import depends.matrix.core.DependencyValue;
 
 import java.util.ArrayList;
 import java.util.Comparator;
@@ -46,22 +44,13 @@ public class OrderedMatrixGenerator  {
 			}
 		});
 	    
-	    DependencyMatrix ordered = new DependencyMatrix((int)(matrix.getDependencyPairs().size()/0.75+1),null,matrix.isOutputSelfDependencies());
 		HashMap<String, Integer> nodesMap = new HashMap<>();
 		for (int id=0;id<reMappedNodes.size();id++) {
 			nodesMap.put(reMappedNodes.get(id), id);
-			ordered.addNode(reMappedNodes.get(id), id);
 		}
 
-		//add dependencies
-		for (DependencyPair dependencyPair:matrix.getDependencyPairs()) {
-			Integer from = dependencyPair.getFrom();
-			Integer to = dependencyPair.getTo();
-			for (DependencyValue dep:dependencyPair.getDependencies()) {
-				ordered.addDependency(dep.getType(), translateToNewId( nodesMap, from), translateToNewId( nodesMap, to), dep.getWeight(),dep.getDetails());
-			}
-		}
-		return ordered;
+		//re-number the dependencies in place, into the sparse form
+		return matrix.reorder(reMappedNodes, id->translateToNewId( nodesMap, id));
 	}
 	private Integer translateToNewId( HashMap<String, Integer> nodesMap, Integer id) {
 		return nodesMap.get(matrix.getNodeName(id));
@@ -0,0 +1,226 @@
+package depends.metrics;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.ThreadMXBean;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The instrumentation of an analysis: the wall/CPU/GC time of the pipeline phases,
+ * the counters (files, entities, expressions, spilled bytes etc.) and the hit rates of
+ * the caches. Phases of the same name (e.g. the dumper of a format, run for each
+ * generator) are accumulated.
+ * The CPU time is the CPU time of the process when it is available, so that the work of
+ * the worker threads is included; otherwise it is the CPU time of the calling thread.
+ */
+public class PipelineMetrics {
+	public static final String SCHEMA_VERSION = "1.0";
+	private static final PipelineMetrics inst = new PipelineMetrics();
+
+	private String language = "";
+	private long startWall;
+	private long startCpu;
+	private long startGc;
+	private final Map<String, PhaseStats> phases = new LinkedHashMap<>();
+	private final Map<String, Long> counters = new LinkedHashMap<>();
+	private final Map<String, long[]> caches = new LinkedHashMap<>();
+
+	PipelineMetrics() {
+		reset();
+	}
+
+	public static PipelineMetrics getInstance() {
+		return inst;
+	}
+
+	/**
+	 * Drop all metrics, and start the total time from now
+	 */
+	public synchronized void reset() {
+		phases.clear();
+		counters.clear();
+		caches.clear();
+		language = "";
+		startWall = System.nanoTime();
+		startCpu = cpuTime();
+		startGc = gcTime();
+	}
+
+	public synchronized void setLanguage(String language) {
+		this.language = language;
+	}
+
+	/**
+	 * Start timing a phase; it is recorded when the returned phase is closed
+	 */
+	public Phase start(String name) {
+		return new Phase(name);
+	}
+
+	public synchronized void count(String name, long value) {
+		counters.put(name, value);
+	}
+
+	public synchronized void cache(String name, long hits, long misses) {
+		caches.put(name, new long[]{hits, misses});
+	}
+
+	private synchronized void record(String name, long wall, long cpu, long gc) {
+		PhaseStats stats = phases.computeIfAbsent(name, k -> new PhaseStats());
+		stats.count++;
+		stats.wallNanos += wall;
+		stats.cpuNanos += cpu;
+		stats.gcMillis += gc;
+	}
+
+	/**
+	 * @return the accumulated wall time of the phase in milliseconds, or 0 if it is not run
+	 */
+	public synchronized long getWallMillis(String phase) {
+		PhaseStats stats = phases.get(phase);
+		return stats == null ? 0 : stats.wallNanos / 1000000;
+	}
+
+	public synchronized int getPhaseCount(String phase) {
+		PhaseStats stats = phases.get(phase);
+		return stats == null ? 0 : stats.count;
+	}
+
+	public synchronized Long getCounter(String name) {
+		return counters.get(name);
+	}
+
+	/**
+	 * Write the report as JSON. The throughput (files per second) is computed by the
+	 * "files" counter and the "parse" phase.
+	 */
+	public synchronized void write(File file) throws IOException {
+		long wall = System.nanoTime() - startWall;
+		long cpu = cpuTime() - startCpu;
+		long gc = gcTime() - startGc;
+		ObjectMapper mapper = new ObjectMapper();
+		try (JsonGenerator generator = mapper.getFactory().createGenerator(file, JsonEncoding.UTF8)) {
+			generator.useDefaultPrettyPrinter();
+			generator.writeStartObject();
+			generator.writeStringField("schemaVersion", SCHEMA_VERSION);
+			generator.writeStringField("language", language);
+			generator.writeNumberField("wallMs", wall / 1000000);
+			generator.writeNumberField("cpuMs", cpu / 1000000);
+			generator.writeNumberField("gcMs", gc);
+			generator.writeNumberField("gcCount", gcCount());
+			generator.writeNumberField("peakHeapBytes", peakHeap());
+			generator.writeArrayFieldStart("phases");
+			for (Map.Entry<String, PhaseStats> e : phases.entrySet()) {
+				generator.writeStartObject();
+				generator.writeStringField("name", e.getKey());
+				generator.writeNumberField("count", e.getValue().count);
+				generator.writeNumberField("wallMs", e.getValue().wallNanos / 1000000);
+				generator.writeNumberField("cpuMs", e.getValue().cpuNanos / 1000000);
+				generator.writeNumberField("gcMs", e.getValue().gcMillis);
+				generator.writeEndObject();
+			}
+			generator.writeEndArray();
+			generator.writeObjectFieldStart("languages");
+			generator.writeObjectFieldStart(language);
+			long files = counters.getOrDefault("files", 0L);
+			long parseNanos = phases.containsKey("parse") ? phases.get("parse").wallNanos : 0;
+			generator.writeNumberField("files", files);
+			generator.writeNumberField("filesPerSecond", parseNanos == 0 ? 0.0 : files * 1e9 / parseNanos);
+			generator.writeEndObject();
+			generator.writeEndObject();
+			generator.writeObjectFieldStart("counters");
+			for (Map.Entry<String, Long> e : counters.entrySet()) {
+				generator.writeNumberField(e.getKey(), e.getValue());
+			}
+			generator.writeEndObject();
+			generator.writeObjectFieldStart("caches");
+			for (Map.Entry<String, long[]> e : caches.entrySet()) {
+				long hits = e.getValue()[0];
+				long misses = e.getValue()[1];
+				generator.writeObjectFieldStart(e.getKey());
+				generator.writeNumberField("hits", hits);
+				generator.writeNumberField("misses", misses);
+				generator.writeNumberField("hitRate", hits + misses == 0 ? 0.0 : (double) hits / (hits + misses));
+				generator.writeEndObject();
+			}
+			generator.writeEndObject();
+			generator.writeEndObject();
+		}
+	}
+
+	private static long cpuTime() {
+		OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+		if (os instanceof com.sun.management.OperatingSystemMXBean) {
+			long time = ((com.sun.management.OperatingSystemMXBean) os).getProcessCpuTime();
+			if (time >= 0)
+				return time;
+		}
+		ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+		return threads.isCurrentThreadCpuTimeSupported() ? threads.getCurrentThreadCpuTime() : 0;
+	}
+
+	private static long gcTime() {
+		long time = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			time += Math.max(gc.getCollectionTime(), 0);
+		}
+		return time;
+	}
+
+	private static long gcCount() {
+		long count = 0;
+		for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+			count += Math.max(gc.getCollectionCount(), 0);
+		}
+		return count;
+	}
+
+	private static long peakHeap() {
+		long peak = 0;
+		for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+			if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+				peak += pool.getPeakUsage().getUsed();
+		}
+		return peak;
+	}
+
+	/**
+	 * A running phase, recorded once closed
+	 */
+	public class Phase implements AutoCloseable {
+		private final String name;
+		private final long wall = System.nanoTime();
+		private final long cpu = cpuTime();
+		private final long gc = gcTime();
+		private boolean closed = false;
+
+		private Phase(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public void close() {
+			if (closed)
+				return;
+			closed = true;
+			record(name, System.nanoTime() - wall, cpuTime() - cpu, gcTime() - gc);
+		}
+	}
+
+	private static class PhaseStats {
+		int count;
+		long wallNanos;
+		long cpuNanos;
+		long gcMillis;
+	}
+}
@@ -35,6 +35,10 @@ import org.slf4j.LoggerFactory;
 
 import java.lang.management.ManagementFactory;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
 
 public class BindingResolver implements IBindingResolver{
 
@@ -46,6 +50,12 @@ public class BindingResolver implements IBindingResolver{
 	private boolean eagerExpressionResolve = false;
 	private boolean isCollectUnsolvedBindings = false;
 	private boolean isDuckTypingDeduce = true;
+	private int threads = 1;
+	private volatile boolean isDeclarationPhase = false;
+	private volatile boolean isImportsInferred = false;
+	private volatile boolean isSupertypesInferred = false;
+	private FunctionNameIndex functionNameIndex;
+	private final NameResolutionCache nameResolutionCache = new NameResolutionCache();
 	private static Logger logger = LoggerFactory.getLogger(IBindingResolver.class);
 
 	public BindingResolver(AbstractLangProcessor langProcessor,
@@ -67,6 +77,7 @@ public class BindingResolver implements IBindingResolver{
 			logger.info("Resolve type bindings...");
 		}
 		resolveTypes(isEagerExpressionResolve);
+		logger.debug("Name resolution cache: {}", nameResolutionCache);
 		System.out.println("Dependency analaysing....");
 		if (logger.isInfoEnabled()) {
 			logger.info("Dependency analaysing...");
@@ -76,14 +87,102 @@ public class BindingResolver implements IBindingResolver{
 	}
 
 
+	/**
+	 * The number of threads used to infer the declarations of files.
+	 * With more than one thread, the expressions are resolved in a separate phase, see resolveTypesInParallel
+	 */
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
 	private void resolveTypes(boolean eagerExpressionResolve) {
 		this.eagerExpressionResolve = eagerExpressionResolve;
+		this.functionNameIndex = null;
+		nameResolutionCache.clear();
+		if (threads>1) {
+			resolveTypesInParallel();
+			return;
+		}
 		Iterator<Entity> iterator = repo.sortedFileIterator();
 		while(iterator.hasNext()) {
 			Entity entity= iterator.next();
 			entity.inferEntities(this);
 		}
 	}
+
+	/**
+	 * The imports of all files are inferred first, then the inherited and implemented types
+	 * of all types (by one thread in file order, see inferImportsAndSupertypes).
+	 * Then the declarations (mixins, types of vars/functions etc.) of files are inferred
+	 * concurrently, file by file. The declaration phase adds nothing to the repo, and reads the
+	 * supertypes of other types only after they are all inferred.
+	 * At last, for the languages resolving expressions eagerly, the expressions and the
+	 * candidate types deduced from them are resolved in file order by one thread, the same
+	 * order as the single thread resolving.
+	 * Note that different from the single thread resolving, the names of a file could be
+	 * found through the supertypes of the types sorted after it, and the expressions of a
+	 * file could see the declarations of the files sorted after it.
+	 */
+	private void resolveTypesInParallel() {
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		try {
+			inferImportsAndSupertypes(pool);
+			isDeclarationPhase = true;
+			forEachFile(pool, file -> file.inferEntities(this));
+		} finally {
+			isDeclarationPhase = false;
+			isImportsInferred = false;
+			isSupertypesInferred = false;
+			pool.shutdownNow();
+		}
+		if (!eagerExpressionResolve) return;
+		Iterator<Entity> iterator = repo.sortedFileIterator();
+		while(iterator.hasNext()) {
+			Entity entity= iterator.next();
+			entity.inferExpressions(this);
+		}
+	}
+
+	/**
+	 * The imports are inferred by the pool. The supertypes are inferred by the calling thread
+	 * in file order, because resolving them looks up the supertypes of the other types.
+	 */
+	private void inferImportsAndSupertypes(ForkJoinPool pool) {
+		forEachFile(pool, file -> {
+			if (file instanceof FileEntity)
+				((FileEntity) file).inferImports(this);
+		});
+		isImportsInferred = true;
+		forEachFile(null, file -> file.inferSupertypes(this));
+		isSupertypesInferred = true;
+	}
+
+	private void forEachFile(ForkJoinPool pool, Consumer<Entity> action) {
+		Iterator<Entity> iterator = repo.sortedFileIterator();
+		if (pool==null) {
+			while(iterator.hasNext()) {
+				action.accept(iterator.next());
+			}
+			return;
+		}
+		List<Future<?>> pending = new ArrayList<>();
+		while(iterator.hasNext()) {
+			Entity entity= iterator.next();
+			pending.add(pool.submit(() -> action.accept(entity)));
+		}
+		try {
+			for (Future<?> future:pending) {
+				future.get();
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new RuntimeException(e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException)e.getCause();
+			throw new RuntimeException(e.getCause());
+		}
+	}
 	
 
 	@Override
@@ -104,7 +203,9 @@ public class BindingResolver implements IBindingResolver{
 
 	private void addUnsolvedBinding(UnsolvedBindings item) {
 		if (!isCollectUnsolvedBindings) return;
-		 	this.unsolvedSymbols.add(item);
+		synchronized (unsolvedSymbols) {
+			this.unsolvedSymbols.add(item);
+		}
 	}
 	@Override
 	public Collection<Entity> getImportedFiles(List<Import> importedNames) {
@@ -231,7 +332,10 @@ public class BindingResolver implements IBindingResolver{
 	public Entity lookupTypeInImported(FileEntity fileEntity, String name) {
 		if (fileEntity == null)
 			return null;
-		Entity type = importLookupStrategy.lookupImportedType(name, fileEntity);
+		Entity type = importLookupStrategy.supportImportedTypeCache()
+				? nameResolutionCache.lookup(NameResolutionCache.IMPORTED, fileEntity, name,
+						() -> importLookupStrategy.lookupImportedType(name, fileEntity))
+				: importLookupStrategy.lookupImportedType(name, fileEntity);
 		if (type != null)
 			return type;
 		return null;
@@ -241,11 +345,17 @@ public class BindingResolver implements IBindingResolver{
 	/**
 	 * In Java/C++ etc, the same package names should take priority of resolving.
 	 * the entity lookup is implemented recursively.
+	 * The results are cached until any name becomes visible, see NameResolutionCache
 	 * @param fromEntity
 	 * @param name
 	 * @return
 	 */
 	private Entity findEntityUnderSamePackage(Entity fromEntity, String name) {
+		return nameResolutionCache.lookup(NameResolutionCache.SAME_PACKAGE, fromEntity, name,
+				() -> searchEntityUnderSamePackage(fromEntity, name));
+	}
+
+	private Entity searchEntityUnderSamePackage(Entity fromEntity, String name) {
 		while (true) {
 			Entity entity = fromEntity.getByName(name, new HashSet<>());
 			if (entity!=null) return entity;
@@ -268,25 +378,53 @@ public class BindingResolver implements IBindingResolver{
 	}
 
 	private List<TypeEntity> searchTypesInRepo(VarEntity fromEntity, List<FunctionCall> functionCalls) {
-		List<TypeEntity> types = new ArrayList<>();
-		Iterator<Entity> iterator = repo.sortedFileIterator();
-		while(iterator.hasNext()) {
-			Entity f = iterator.next();
-			if (f instanceof FileEntity) {
-				for (TypeEntity type:((FileEntity)f).getDeclaredTypes()) {
-					FunctionMatcher functionMatcher = new FunctionMatcher(type.getFunctions());
-					if (functionMatcher.containsAll(functionCalls)) {
-						types.add(type);
-					}
-				}
-			}
-		}
-		return types;
+		return functionNameIndex().search(functionCalls);
+	}
+
+	/**
+	 * The index is built at the first search of the resolving, when all files are parsed
+	 */
+	private synchronized FunctionNameIndex functionNameIndex() {
+		if (functionNameIndex==null)
+			functionNameIndex = new FunctionNameIndex(repo.sortedFileIterator());
+		return functionNameIndex;
+	}
+
+	/**
+	 * @return the hits of the name lookups cached in the last resolving
+	 */
+	public long getNameCacheHits() {
+		return nameResolutionCache.getHitCount();
+	}
+
+	public long getNameCacheMisses() {
+		return nameResolutionCache.getMissCount();
+	}
+
+	/**
+	 * @return the duck typing searches of the last resolving, and how many of them are memoized
+	 */
+	public synchronized long getDuckTypingQueries() {
+		return functionNameIndex==null?0:functionNameIndex.getQueries();
+	}
+
+	public synchronized long getDuckTypingMemoHits() {
+		return functionNameIndex==null?0:functionNameIndex.getMemoHits();
 	}
 
 	@Override
 	public boolean isEagerExpressionResolve() {
-		return eagerExpressionResolve;
+		return eagerExpressionResolve && !isDeclarationPhase;
+	}
+
+	@Override
+	public boolean isImportsInferred() {
+		return isImportsInferred;
+	}
+
+	@Override
+	public boolean isSupertypesInferred() {
+		return isSupertypesInferred;
 	}
 
 	@Override
@@ -0,0 +1,118 @@
+package depends.relations;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.FunctionCall;
+import depends.entity.FunctionEntity;
+import depends.entity.GenericName;
+import depends.entity.TypeEntity;
+
+import java.util.*;
+
+/**
+ * The inverted index from function names to the declared types which contain them,
+ * for duck typing deduction. The types are numbered in the order of files and
+ * their declarations, so the result of a search is in the same order as a scan of
+ * all files.
+ * It is built once after parsing; the functions of types should not change after that.
+ */
+class FunctionNameIndex {
+	private static final int[] NOTHING = new int[0];
+	private static final int MAX_MEMO_ENTRIES = 10000;
+
+	private final List<TypeEntity> types = new ArrayList<>();
+	private final Map<GenericName, int[]> postings = new HashMap<>();
+	private final Map<Set<GenericName>, int[]> memo = new LinkedHashMap<Set<GenericName>, int[]>(16, 0.75f, true) {
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Set<GenericName>, int[]> eldest) {
+			return size() > MAX_MEMO_ENTRIES;
+		}
+	};
+	private long queries = 0;
+	private long memoHits = 0;
+
+	FunctionNameIndex(Iterator<Entity> files) {
+		Map<GenericName, List<Integer>> lists = new HashMap<>();
+		while (files.hasNext()) {
+			Entity file = files.next();
+			if (!(file instanceof FileEntity))
+				continue;
+			for (TypeEntity type : ((FileEntity) file).getDeclaredTypes()) {
+				int ordinal = types.size();
+				types.add(type);
+				Set<GenericName> names = new HashSet<>();
+				for (FunctionEntity function : type.getFunctions()) {
+					if (names.add(function.getRawName()))
+						lists.computeIfAbsent(function.getRawName(), k -> new ArrayList<>()).add(ordinal);
+				}
+			}
+		}
+		for (Map.Entry<GenericName, List<Integer>> e : lists.entrySet()) {
+			postings.put(e.getKey(), e.getValue().stream().mapToInt(Integer::intValue).toArray());
+		}
+	}
+
+	/**
+	 * @return the types which contain all of the called functions
+	 */
+	synchronized List<TypeEntity> search(List<FunctionCall> functionCalls) {
+		queries++;
+		Set<GenericName> names = new HashSet<>();
+		for (FunctionCall functionCall : functionCalls) {
+			names.add(functionCall.getRawName());
+		}
+		int[] ordinals = memo.get(names);
+		if (ordinals != null) {
+			memoHits++;
+		} else {
+			ordinals = intersect(names);
+			memo.put(names, ordinals);
+		}
+		List<TypeEntity> result = new ArrayList<>(ordinals.length);
+		for (int ordinal : ordinals) {
+			result.add(types.get(ordinal));
+		}
+		return result;
+	}
+
+	/**
+	 * Intersect the posting lists, from the rarest name to the most common one
+	 */
+	private int[] intersect(Set<GenericName> names) {
+		if (names.isEmpty()) {
+			int[] all = new int[types.size()];
+			for (int i = 0; i < all.length; i++) {
+				all[i] = i;
+			}
+			return all;
+		}
+		List<int[]> lists = new ArrayList<>(names.size());
+		for (GenericName name : names) {
+			int[] list = postings.get(name);
+			if (list == null)
+				return NOTHING;
+			lists.add(list);
+		}
+		lists.sort(Comparator.comparingInt(list -> list.length));
+		int[] result = lists.get(0);
+		for (int i = 1; i < lists.size() && result.length > 0; i++) {
+			int[] list = lists.get(i);
+			int[] next = new int[result.length];
+			int count = 0;
+			for (int ordinal : result) {
+				if (Arrays.binarySearch(list, ordinal) >= 0)
+					next[count++] = ordinal;
+			}
+			result = Arrays.copyOf(next, count);
+		}
+		return result;
+	}
+
+	synchronized long getQueries() {
+		return queries;
+	}
+
+	synchronized long getMemoHits() {
+		return memoHits;
+	}
+}
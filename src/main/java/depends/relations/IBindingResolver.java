@@ -64,5 +64,15 @@ public interface IBindingResolver {
 
     boolean isEagerExpressionResolve();
 
+    /**
+     * Whether the imports of all files are already inferred before the other entities
+     */
+    boolean isImportsInferred();
+
+    /**
+     * Whether the inherited and implemented types of all types are already inferred before the other entities
+     */
+    boolean isSupertypesInferred();
+
     EntityRepo getRepo();
 }
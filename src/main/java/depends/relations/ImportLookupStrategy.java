@@ -73,6 +73,14 @@ public abstract class ImportLookupStrategy {
 	 */
 	public abstract boolean supportGlobalNameLookup();
 
+	/** Whether the result of lookupImportedType could be cached by the binding resolver;
+	 * it should be true only if the result depends on nothing but the name, the imports of
+	 * the file and the entities of the repo.
+	 */
+	public boolean supportImportedTypeCache() {
+		return false;
+	}
+
 	public void setBindingResolver(IBindingResolver bindingResolver){
 		this.bindingResolver = bindingResolver;
 	}
@@ -0,0 +1,103 @@
+package depends.relations;
+
+import depends.entity.Entity;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * The memo of the name lookups of the binding resolver, keyed by the kind of lookup,
+ * the scope entity (by identity) and the name. Names not found are remembered too.
+ * An entry is valid only while no name became visible since it was computed
+ * (see Entity.visibleNamesChanged()). Stale entries are not dropped on a change, they are
+ * recomputed and overwritten by the next lookup of the same key.
+ */
+class NameResolutionCache {
+	static final int SAME_PACKAGE = 0;
+	static final int IMPORTED = 1;
+	private static final int MAX_ENTRIES = 200000;
+
+	private final ConcurrentHashMap<Key, Result> results = new ConcurrentHashMap<>();
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * @return the entity of the name in the scope, computed by the lookup if it is not cached
+	 */
+	Entity lookup(int kind, Entity scope, String name, Supplier<Entity> lookup) {
+		long current = Entity.getVisibleNamesVersion();
+		Key key = new Key(kind, scope, name);
+		Result result = results.get(key);
+		if (result != null && result.version == current) {
+			hits.incrementAndGet();
+			return result.entity;
+		}
+		misses.incrementAndGet();
+		Entity entity = lookup.get();
+		if (results.size() >= MAX_ENTRIES)
+			results.clear();
+		results.put(key, new Result(current, entity));
+		return entity;
+	}
+
+	void clear() {
+		results.clear();
+		hits.set(0);
+		misses.set(0);
+	}
+
+	long getHitCount() {
+		return hits.get();
+	}
+
+	long getMissCount() {
+		return misses.get();
+	}
+
+	int size() {
+		return results.size();
+	}
+
+	@Override
+	public String toString() {
+		long lookups = getHitCount() + getMissCount();
+		return String.format("%d hits, %d misses (%.1f%%)", getHitCount(), getMissCount(),
+				lookups == 0 ? 0.0 : 100.0 * getHitCount() / lookups);
+	}
+
+	private static class Key {
+		final int kind;
+		final Entity scope;
+		final String name;
+
+		Key(int kind, Entity scope, String name) {
+			this.kind = kind;
+			this.scope = scope;
+			this.name = name;
+		}
+
+		@Override
+		public int hashCode() {
+			return (kind * 31 + System.identityHashCode(scope)) * 31 + name.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof Key))
+				return false;
+			Key other = (Key) obj;
+			return kind == other.kind && scope == other.scope && name.equals(other.name);
+		}
+	}
+
+	private static class Result {
+		final long version;
+		final Entity entity;
+
+		Result(long version, Entity entity) {
+			this.version = version;
+			this.entity = entity;
+		}
+	}
+}
@@ -0,0 +1,56 @@
+package depends.relations;
+
+import depends.entity.ContainerEntity;
+import depends.entity.Entity;
+import depends.entity.Expression;
+
+import java.util.ArrayList;
+
+/**
+ * Relations computed by a worker thread. They are added to the entities later,
+ * by one thread and in the same order as they were computed, so the relation
+ * lists are the same as computed in a single thread.
+ */
+class RelationBuffer {
+	private ArrayList<Entity> entities = new ArrayList<>();
+	private ArrayList<Expression> expressions = new ArrayList<>();
+	private ArrayList<Relation> relations = new ArrayList<>();
+
+	void add(Entity entity, Relation relation) {
+		append(entity, null, relation);
+	}
+
+	void add(ContainerEntity entity, Expression expression, Relation relation) {
+		append(entity, expression, relation);
+	}
+
+	/**
+	 * Relations from the expressions of a container are de-duplicated per visit of the container
+	 */
+	void endOfExpressions(ContainerEntity entity) {
+		append(entity, null, null);
+	}
+
+	private void append(Entity entity, Expression expression, Relation relation) {
+		entities.add(entity);
+		expressions.add(expression);
+		relations.add(relation);
+	}
+
+	void flush() {
+		for (int i=0;i<entities.size();i++) {
+			Entity entity = entities.get(i);
+			Relation relation = relations.get(i);
+			if (relation==null) {
+				((ContainerEntity)entity).clearExpressionUses();
+			}else if (expressions.get(i)==null) {
+				entity.addRelation(relation);
+			}else {
+				((ContainerEntity)entity).addRelation(expressions.get(i), relation);
+			}
+		}
+		entities.clear();
+		expressions.clear();
+		relations.clear();
+	}
+}
@@ -30,7 +30,12 @@ import depends.entity.repo.EntityRepo;
 import depends.extractor.AbstractLangProcessor;
 
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 
 public class RelationCounter {
@@ -40,6 +45,8 @@ public class RelationCounter {
 	private EntityRepo repo;
 	private boolean callAsImpl;
 	private AbstractLangProcessor langProcessor;
+	private int threads = 1;
+	private HashMap<Integer, Entity> unindexedEntities = new HashMap<>();
 
 	public RelationCounter(EntityRepo repo, AbstractLangProcessor langProcessor, IBindingResolver bindingResolver) {
 		this.entities = repo.getFileEntities();
@@ -49,66 +56,160 @@ public class RelationCounter {
 		this.langProcessor = langProcessor;
 	}
 	
+	public void setThreads(int threads) {
+		this.threads = threads;
+	}
+
 	public void computeRelations() {
+		if (threads>1) {
+			computeRelationsInParallel();
+			return;
+		}
 		entities.forEach(entity->
-		computeRelationOf(entity));
+		computeRelationOf(entity, null));
+	}
+
+	/**
+	 * Files are computed by a fork-join pool, each into its own relation buffer. The buffers
+	 * are added to the entities file by file in the original order, so the output is the
+	 * same as the single thread mode.
+	 * If the expressions are not resolved during binding resolution, resolving them changes
+	 * the shared states (the repo, the binding resolver etc.), so they are resolved in a serial
+	 * pass before.
+	 */
+	private void computeRelationsInParallel() {
+		if (!bindingResolver.isEagerExpressionResolve()) {
+			entities.forEach(entity->resolveExpressionsOf(entity));
+		}
+		ForkJoinPool pool = new ForkJoinPool(threads);
+		LinkedList<Future<RelationBuffer>> buffers = new LinkedList<>();
+		/* limit the computed but not merged files to save memory */
+		int maxPending = threads * 4;
+		try {
+			for (Entity entity:entities) {
+				buffers.add(pool.submit(() -> {
+					RelationBuffer buffer = new RelationBuffer();
+					computeRelationOf(entity, buffer);
+					return buffer;
+				}));
+				if (buffers.size()>=maxPending)
+					buffers.removeFirst().get().flush();
+			}
+			while (!buffers.isEmpty())
+				buffers.removeFirst().get().flush();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException)e.getCause();
+			throw new RuntimeException(e.getCause());
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	/**
+	 * Resolve and spill the expressions again. The referred entities which could not be
+	 * reloaded by id (e.g. the multi-declare entities) are remembered for the reloading.
+	 */
+	private void resolveExpressionsOf(Entity entity) {
+		if (!entity.inScope())
+			return;
+		if (entity instanceof ContainerEntity) {
+			ContainerEntity container = (ContainerEntity)entity;
+			container.reloadExpression(repo);
+			container.resolveExpressions(bindingResolver);
+			for (Expression expression:container.expressionList()) {
+				Entity referredEntity = expression.getReferredEntity();
+				if (referredEntity!=null && repo.getEntity(referredEntity.getId())!=referredEntity)
+					unindexedEntities.put(referredEntity.getId(), referredEntity);
+			}
+			container.cacheExpressions();
+		}
+		entity.getChildren().forEach(child->resolveExpressionsOf(child));
+	}
+
+	private Entity entityOfId(int id) {
+		Entity entity = unindexedEntities.get(id);
+		if (entity!=null) return entity;
+		return repo.getEntity(id);
 	}
 
-	private void computeRelationOf(Entity entity) {
+	private void addRelation(RelationBuffer buffer, Entity entity, Relation relation) {
+		if (buffer==null)
+			entity.addRelation(relation);
+		else
+			buffer.add(entity, relation);
+	}
+
+	private void addRelation(RelationBuffer buffer, ContainerEntity entity, Expression expression, Relation relation) {
+		if (buffer==null)
+			entity.addRelation(expression, relation);
+		else
+			buffer.add(entity, expression, relation);
+	}
+
+	private void computeRelationOf(Entity entity, RelationBuffer buffer) {
 		if (!entity.inScope())
 			return;
 		if (entity instanceof FileEntity) {
-			computeImports((FileEntity)entity);
+			computeImports((FileEntity)entity, buffer);
 		}
 		else if (entity instanceof FunctionEntity) {
-			computeFunctionRelations((FunctionEntity)entity);
+			computeFunctionRelations((FunctionEntity)entity, buffer);
 		}
 		else if (entity instanceof TypeEntity) {
-			computeTypeRelations((TypeEntity)entity);
+			computeTypeRelations((TypeEntity)entity, buffer);
 		}
 		if (entity instanceof ContainerEntity) {
-			computeContainerRelations((ContainerEntity)entity);
+			computeContainerRelations((ContainerEntity)entity, buffer);
 		}
-		entity.getChildren().forEach(child->computeRelationOf(child));
+		entity.getChildren().forEach(child->computeRelationOf(child, buffer));
 	}
 
 	
 
-	private void computeContainerRelations(ContainerEntity entity) {
+	private void computeContainerRelations(ContainerEntity entity, RelationBuffer buffer) {
 		for (VarEntity var:entity.getVars()) {
 			if (var.getType()!=null)
-				entity.addRelation(buildRelation(entity,DependencyType.CONTAIN,var.getType(),var.getLocation()));
+				addRelation(buffer, entity, buildRelation(entity,DependencyType.CONTAIN,var.getType(),var.getLocation()));
 			for (Entity type:var.getResolvedTypeParameters()) {
-				var.addRelation(buildRelation(var, DependencyType.PARAMETER,type));
+				addRelation(buffer, var, buildRelation(var, DependencyType.PARAMETER,type));
 			}
 		}
 		for (Entity type:entity.getResolvedAnnotations()) {
-			entity.addRelation(buildRelation(entity,DependencyType.ANNOTATION,type));
+			addRelation(buffer, entity, buildRelation(entity,DependencyType.ANNOTATION,type));
 		}
 		for (Entity type:entity.getResolvedTypeParameters()) {
-			entity.addRelation(buildRelation(entity,DependencyType.USE,type));
+			addRelation(buffer, entity, buildRelation(entity,DependencyType.USE,type));
 		}
 		for (ContainerEntity mixin:entity.getResolvedMixins()) {
-			entity.addRelation(buildRelation(entity,DependencyType.MIXIN,mixin));
+			addRelation(buffer, entity, buildRelation(entity,DependencyType.MIXIN,mixin));
 		}
 		
-		entity.reloadExpression(repo);
-		if (!bindingResolver.isEagerExpressionResolve())
-		{
-			entity.resolveExpressions(bindingResolver);
+		if (buffer==null) {
+			entity.reloadExpression(repo);
+			if (!bindingResolver.isEagerExpressionResolve())
+			{
+				entity.resolveExpressions(bindingResolver);
+			}
+		}else {
+			entity.reloadExpression(this::entityOfId);
 		}
 		for (Expression expression:entity.expressionList()){
 			if (expression.isStatement()) {
 				continue;
 			}
 			Entity referredEntity = expression.getReferredEntity();
-			addRelationFromExpression(entity, expression, referredEntity, false);
+			addRelationFromExpression(entity, expression, referredEntity, false, buffer);
 		}
 		entity.clearExpressions();
+		if (buffer!=null)
+			buffer.endOfExpressions(entity);
 	}
 
 
-	private void addRelationFromExpression(ContainerEntity entity, Expression expression, Entity referredEntity, boolean possibleDependency) {
+	private void addRelationFromExpression(ContainerEntity entity, Expression expression, Entity referredEntity, boolean possibleDependency, RelationBuffer buffer) {
 		
 		if (referredEntity==null) {
 			return;
@@ -118,7 +219,7 @@ public class RelationCounter {
 		}
 		if (referredEntity instanceof MultiDeclareEntities) {
 			for (Entity e:((MultiDeclareEntities)referredEntity).getEntities()) {
-				addRelationFromExpression(entity,expression,e, true);
+				addRelationFromExpression(entity,expression,e, true, buffer);
 			}
 			return;
 		}
@@ -127,8 +228,8 @@ public class RelationCounter {
 		if (expression.isCall()) {
 			/* if it is a FunctionEntityProto, add Relation to all Impl Entities*/
 			if (callAsImpl && referredEntity instanceof FunctionEntityProto) {
-				if (entity.getAncestorOfType(FileEntity.class).getId().equals(referredEntity.getAncestorOfType(FileEntity.class).getId())){
-					entity.addRelation(buildRelation(entity,DependencyType.CALL,referredEntity,expression.getLocation(), possibleDependency));
+				if (entity.getAncestorOfType(FileEntity.class).getId()==referredEntity.getAncestorOfType(FileEntity.class).getId()){
+					addRelation(buffer, entity, buildRelation(entity,DependencyType.CALL,referredEntity,expression.getLocation(), possibleDependency));
 				}else {
 					Entity multiDeclare = repo.getEntity(referredEntity.getQualifiedName());
 					if (multiDeclare instanceof MultiDeclareEntities) {
@@ -136,47 +237,47 @@ public class RelationCounter {
 						List<Entity> entities = m.getEntities().stream().filter(item -> (item instanceof FunctionEntityImpl))
 								.collect(Collectors.toList());
 						for (Entity e : entities) {
-							entity.addRelation(expression, buildRelation(entity, DependencyType.LINK, e, expression.getLocation(), true));
+							addRelation(buffer, entity, expression, buildRelation(entity, DependencyType.LINK, e, expression.getLocation(), true));
 							matched = true;
 						}
 					}
 				}
 			}
-			entity.addRelation(buildRelation(entity,DependencyType.CALL,referredEntity,expression.getLocation(), possibleDependency));
+			addRelation(buffer, entity, buildRelation(entity,DependencyType.CALL,referredEntity,expression.getLocation(), possibleDependency));
 			matched = true;
 
 		}
 		if (expression.isCreate()) {
-			entity.addRelation(buildRelation(entity,DependencyType.CREATE,referredEntity,expression.getLocation(), possibleDependency));
+			addRelation(buffer, entity, buildRelation(entity,DependencyType.CREATE,referredEntity,expression.getLocation(), possibleDependency));
 			matched = true;
 		}
 		if (expression.isThrow()) {
-			entity.addRelation(buildRelation(entity,DependencyType.THROW,referredEntity,expression.getLocation(), possibleDependency));
+			addRelation(buffer, entity, buildRelation(entity,DependencyType.THROW,referredEntity,expression.getLocation(), possibleDependency));
 			matched = true;
 		}
 		if (expression.isCast()) { 
-			entity.addRelation(buildRelation(entity,DependencyType.CAST,referredEntity,expression.getLocation(), possibleDependency));
+			addRelation(buffer, entity, buildRelation(entity,DependencyType.CAST,referredEntity,expression.getLocation(), possibleDependency));
 			matched = true;
 		}
 		if (!matched)  {
 			if (callAsImpl && repo.getEntity(referredEntity.getQualifiedName()) instanceof MultiDeclareEntities &&
 					(referredEntity instanceof VarEntity ||referredEntity instanceof FunctionEntity)) {
-				if (entity.getAncestorOfType(FileEntity.class).getId().equals(referredEntity.getAncestorOfType(FileEntity.class).getId())){
-					entity.addRelation(buildRelation(entity,DependencyType.USE,referredEntity,expression.getLocation(), possibleDependency));
+				if (entity.getAncestorOfType(FileEntity.class).getId()==referredEntity.getAncestorOfType(FileEntity.class).getId()){
+					addRelation(buffer, entity, buildRelation(entity,DependencyType.USE,referredEntity,expression.getLocation(), possibleDependency));
 				}else {
 					MultiDeclareEntities m = (MultiDeclareEntities) (repo.getEntity(referredEntity.getQualifiedName()));
 					for (Entity e : m.getEntities()) {
 						if (e == referredEntity) {
-							entity.addRelation(expression, buildRelation(entity, DependencyType.USE, e, expression.getLocation(), true));
+							addRelation(buffer, entity, expression, buildRelation(entity, DependencyType.USE, e, expression.getLocation(), true));
 						} else {
-							entity.addRelation(expression, buildRelation(entity, DependencyType.LINK, e, expression.getLocation(), true));
+							addRelation(buffer, entity, expression, buildRelation(entity, DependencyType.LINK, e, expression.getLocation(), true));
 						}
 						matched = true;
 					}
 				}
 			}
 			else {
-				entity.addRelation(expression,buildRelation(entity,DependencyType.USE,referredEntity,expression.getLocation(), possibleDependency));
+				addRelation(buffer, entity, expression, buildRelation(entity,DependencyType.USE,referredEntity,expression.getLocation(), possibleDependency));
 			}
 		}
 	}
@@ -208,47 +309,47 @@ public class RelationCounter {
 		return new Relation(langProcessor.getRelationMapping(type),referredEntity,location, possibleDependency);
 	}
 
-	private void computeTypeRelations(TypeEntity type) {
+	private void computeTypeRelations(TypeEntity type, RelationBuffer buffer) {
 		for (TypeEntity superType:type.getInheritedTypes()) {
-			type.addRelation(buildRelation(type,DependencyType.INHERIT,superType));
+			addRelation(buffer, type, buildRelation(type,DependencyType.INHERIT,superType));
 		}
 		for (TypeEntity interfaceType:type.getImplementedTypes()) {
-			type.addRelation(buildRelation(type,DependencyType.IMPLEMENT,interfaceType));
+			addRelation(buffer, type, buildRelation(type,DependencyType.IMPLEMENT,interfaceType));
 		}
 	}
 
-	private void computeFunctionRelations(FunctionEntity func) {
+	private void computeFunctionRelations(FunctionEntity func, RelationBuffer buffer) {
 		for (Entity returnType:func.getReturnTypes()) {
-			func.addRelation(buildRelation(func,DependencyType.RETURN,returnType.getActualReferTo()));
+			addRelation(buffer, func, buildRelation(func,DependencyType.RETURN,returnType.getActualReferTo()));
 		}
 		for (VarEntity parameter:func.getParameters()) {
 			if (parameter.getType()!=null) 
-				func.addRelation(buildRelation(func,DependencyType.PARAMETER,parameter.getActualReferTo()));
+				addRelation(buffer, func, buildRelation(func,DependencyType.PARAMETER,parameter.getActualReferTo()));
 		}
 		for (Entity throwType:func.getThrowTypes()) {
-			func.addRelation(buildRelation(func,DependencyType.THROW,throwType));
+			addRelation(buffer, func, buildRelation(func,DependencyType.THROW,throwType));
 		}
 		for (Entity type:func.getResolvedTypeParameters()) {
-			func.addRelation(buildRelation(func,DependencyType.PARAMETER,type));
+			addRelation(buffer, func, buildRelation(func,DependencyType.PARAMETER,type));
 		}
 		if (func instanceof FunctionEntityImpl) {
 			FunctionEntityImpl funcImpl = (FunctionEntityImpl)func;
 			if(funcImpl.getImplemented()!=null) {
-				func.addRelation(buildRelation(func,DependencyType.IMPLEMENT,funcImpl.getImplemented()));
+				addRelation(buffer, func, buildRelation(func,DependencyType.IMPLEMENT,funcImpl.getImplemented()));
 			}
 		}
 	}
 
-	private void computeImports(FileEntity file) {
+	private void computeImports(FileEntity file, RelationBuffer buffer) {
 		Collection<Entity> imports = file.getImportedRelationEntities();
 		if (imports==null) return;
 		for (Entity imported:imports) {
 			if (imported instanceof FileEntity)
 			{
 				if (((FileEntity)imported).isInProjectScope())
-					file.addRelation(buildRelation(file,DependencyType.IMPORT,imported));
+					addRelation(buffer, file, buildRelation(file,DependencyType.IMPORT,imported));
 			}else {
-				file.addRelation(buildRelation(file,DependencyType.IMPORT,imported));
+				addRelation(buffer, file, buildRelation(file,DependencyType.IMPORT,imported));
 			}
 		}
 	}
@@ -0,0 +1,71 @@
+package depends.entity;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class GenericNameTest {
+
+	@Test
+	public void test_same_name_should_be_same_instance() {
+		GenericName name = GenericName.build(new String("a.b.C"));
+		assertSame(name, GenericName.build("a.b.C"));
+		assertSame(name.getName(), GenericName.build(new String("a.b.C")).getName());
+		assertEquals(name, new GenericName("a.b.C"));
+		assertEquals(name.hashCode(), new GenericName("a.b.C").hashCode());
+	}
+
+	@Test
+	public void test_changes_should_not_modify_the_pooled_name() {
+		GenericName name = GenericName.build("a::B");
+		GenericName replaced = name.replace("::", ".");
+		assertEquals("a::B", name.getName());
+		assertSame(GenericName.build("a.B"), replaced);
+		assertSame(replaced, replaced.replace("::", "."));
+
+		GenericName generic = name.appendArguments(GenericName.build("T"));
+		assertEquals(0, name.getArguments().size());
+		assertEquals("a::B__T__", generic.uniqName());
+		assertEquals("a.B__T__", generic.replace("::", ".").uniqName());
+		assertEquals(GenericName.build("a::B", Arrays.asList(GenericName.build("T"))), generic);
+	}
+
+	@Test
+	public void test_deserialized_name_should_be_pooled() throws IOException, ClassNotFoundException {
+		GenericName name = GenericName.build("java.util.List");
+		GenericName generic = GenericName.build("java.util.List", Arrays.asList(GenericName.build("E")));
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(name);
+			out.writeObject(generic);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertSame(name, in.readObject());
+			GenericName readGeneric = (GenericName) in.readObject();
+			assertEquals(generic, readGeneric);
+			assertSame(name.getName(), readGeneric.getName());
+		}
+	}
+
+	@Test
+	public void test_unique_name_should_not_be_pooled() throws IOException, ClassNotFoundException {
+		GenericName unique = GenericName.buildUnique("anonymous-0f8e");
+		assertNotSame(unique, GenericName.build("anonymous-0f8e"));
+		assertEquals(unique, GenericName.build("anonymous-0f8e"));
+		assertEquals(unique.hashCode(), GenericName.build("anonymous-0f8e").hashCode());
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+			out.writeObject(unique);
+		}
+		try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			assertNotSame(GenericName.build("anonymous-0f8e"), in.readObject());
+		}
+	}
+}
@@ -0,0 +1,71 @@
+package depends.entity;
+
+import depends.extractor.java.JavaProcessor;
+import depends.relations.BindingResolver;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.TemporaryFile;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class ImportedSuffixMatchTest {
+
+	@Test
+	public void test_indexed_match_should_be_same_as_scan() throws IOException {
+		File dir = Files.createTempDirectory("suffix-match-test").toFile();
+		try {
+			FileEntity file = buildWildcardImports(dir, 3, 5);
+			assertEquals(15, file.getImportedTypes().size());
+			String[] names = {"C1_2", ".C1_2", "p1.C1_2", "p0.C1_2", "1_2", "p2.C2_4", "Main", "p2", ""};
+			for (String name : names) {
+				assertEquals(name, scan(file, name), file.importedSuffixMatch(name));
+			}
+			assertEquals("p1.C1_2", file.importedSuffixMatch("C1_2"));
+			assertNull(file.importedSuffixMatch("p0.C1_2"));
+		} finally {
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	private FileEntity buildWildcardImports(File dir, int packages, int classes) throws IOException {
+		StringBuilder main = new StringBuilder("package app;\n");
+		for (int p=0;p<packages;p++) {
+			File pkg = new File(dir, "p" + p);
+			pkg.mkdirs();
+			for (int c=0;c<classes;c++) {
+				FileUtils.fileWrite(new File(pkg, "C" + p + "_" + c + ".java").getPath(),
+						"package p" + p + ";\npublic class C" + p + "_" + c + " {}\n");
+			}
+			main.append("import p").append(p).append(".*;\n");
+		}
+		main.append("public class Main {}\n");
+		File app = new File(dir, "app");
+		app.mkdirs();
+		FileUtils.fileWrite(new File(app, "Main.java").getPath(), main.toString());
+
+		TemporaryFile.reset();
+		JavaProcessor langProcessor = new JavaProcessor();
+		String src = FileUtil.uniqFilePath(dir.getPath());
+		langProcessor.buildDependencies(src, new String[]{}, new BindingResolver(langProcessor, false, false));
+		return langProcessor.getEntityRepo().getFileEntity(FileUtil.uniqFilePath(new File(app, "Main.java").getPath()));
+	}
+
+	/**
+	 * The former implementation of importedSuffixMatch
+	 */
+	private String scan(FileEntity file, String lastName) {
+		if (!lastName.startsWith("."))
+			lastName = "." + lastName;
+		for (Entity imported : file.getImportedTypes()) {
+			if (imported.getQualifiedName(true).endsWith(lastName))
+				return imported.getQualifiedName(true);
+		}
+		return null;
+	}
+}
@@ -0,0 +1,83 @@
+package depends.entity.repo;
+
+import depends.entity.Entity;
+import depends.entity.MultiDeclareEntities;
+import depends.entity.PackageEntity;
+import depends.entity.TypeEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class ConcurrentEntityRepoTest {
+	private ConcurrentEntityRepo repo;
+
+	@Before
+	public void setUp() {
+		repo = new ConcurrentEntityRepo();
+	}
+
+	@Test
+	public void test_lookup_by_name_and_id() {
+		PackageEntity entity = new PackageEntity("a.b", repo.generateId());
+		repo.add(entity);
+		assertEquals(entity, repo.getEntity("a.b"));
+		assertEquals(entity, repo.getEntity(entity.getId()));
+		assertEquals(TypeEntity.buildInType, repo.getEntity(-1));
+		assertNull(repo.getEntity(100000));
+	}
+
+	@Test
+	public void test_same_name_should_be_multi_declared() {
+		repo.add(new PackageEntity("a", repo.generateId()));
+		repo.add(new PackageEntity("a", repo.generateId()));
+		Entity entity = repo.getEntity("a");
+		assertTrue(entity instanceof MultiDeclareEntities);
+		assertEquals(2, ((MultiDeclareEntities) entity).getEntities().size());
+	}
+
+	@Test
+	public void test_iterator_should_be_ordered_by_id() {
+		for (int i = 0; i < 10000; i++) {
+			repo.add(new PackageEntity("p" + i, repo.generateId()));
+		}
+		Iterator<Entity> iterator = repo.entityIterator();
+		int lastId = Integer.MIN_VALUE;
+		int count = 0;
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			assertTrue(entity.getId() > lastId);
+			lastId = entity.getId();
+			count++;
+		}
+		assertEquals(10001, count);
+	}
+
+	@Test
+	public void test_concurrent_add() throws InterruptedException {
+		List<Thread> threads = new ArrayList<>();
+		for (int t = 0; t < 8; t++) {
+			final int threadIndex = t;
+			threads.add(new Thread(() -> {
+				for (int i = 0; i < 5000; i++) {
+					repo.add(new PackageEntity("t" + threadIndex + "." + i, repo.generateId()));
+				}
+			}));
+		}
+		threads.forEach(Thread::start);
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		for (int t = 0; t < 8; t++) {
+			for (int i = 0; i < 5000; i++) {
+				Entity entity = repo.getEntity("t" + t + "." + i);
+				assertNotNull(entity);
+				assertEquals(entity, repo.getEntity(entity.getId()));
+			}
+		}
+	}
+}
@@ -0,0 +1,49 @@
+package depends.entity.repo;
+
+import depends.entity.Entity;
+import depends.entity.PackageEntity;
+import depends.entity.TypeEntity;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Iterator;
+
+import static org.junit.Assert.*;
+
+public class InMemoryEntityRepoTest {
+	private InMemoryEntityRepo repo;
+
+	@Before
+	public void setUp() {
+		repo = new InMemoryEntityRepo();
+	}
+
+	@Test
+	public void test_lookup_by_id() {
+		PackageEntity entity = new PackageEntity("a.b", repo.generateId());
+		repo.add(entity);
+		assertEquals(entity, repo.getEntity(entity.getId()));
+		assertEquals(TypeEntity.buildInType, repo.getEntity(-1));
+		assertNull(repo.getEntity(-2));
+		assertNull(repo.getEntity(100000));
+	}
+
+	@Test
+	public void test_iterator_should_be_ordered_by_id_and_skip_gaps() {
+		for (int i = 0; i < 5000; i++) {
+			int id = repo.generateId();
+			if (i % 3 == 0) continue;
+			repo.add(new PackageEntity("p" + i, id));
+		}
+		Iterator<Entity> iterator = repo.entityIterator();
+		int lastId = Integer.MIN_VALUE;
+		int count = 0;
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			assertTrue(entity.getId() > lastId);
+			lastId = entity.getId();
+			count++;
+		}
+		assertEquals(3333 + 1, count);
+	}
+}
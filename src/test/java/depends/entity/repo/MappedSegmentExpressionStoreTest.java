@@ -0,0 +1,131 @@
+package depends.entity.repo;
+
+import depends.entity.Expression;
+import multilang.depends.util.file.TemporaryFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class MappedSegmentExpressionStoreTest {
+	private static final long SEGMENT_SIZE = 64 << 10;
+	private MappedSegmentExpressionStore store;
+
+	@Before
+	public void setUp() {
+		TemporaryFile.reset();
+	}
+
+	@After
+	public void tearDown() {
+		store.close();
+		TemporaryFile.getInstance().delete();
+	}
+
+	@Test
+	public void test_load_from_mapped_segment() {
+		store = new MappedSegmentExpressionStore(TemporaryFile.getInstance(), 0, 1L << 30, SEGMENT_SIZE);
+		saveAll(60000);
+		assertLoaded(60000);
+		assertTrue(store.getMappedBytes() > 0);
+	}
+
+	@Test
+	public void test_fallback_to_read_if_exceeds_max_mapped_bytes() {
+		store = new MappedSegmentExpressionStore(TemporaryFile.getInstance(), 0, 1024, SEGMENT_SIZE);
+		saveAll(60000);
+		assertLoaded(60000);
+		assertEquals(0, store.getMappedBytes());
+	}
+
+	@Test
+	public void test_mapped_bytes_within_budget() {
+		store = new MappedSegmentExpressionStore(TemporaryFile.getInstance(), 0, SEGMENT_SIZE * 3, SEGMENT_SIZE);
+		saveAll(60000);
+		assertLoaded(60000);
+		assertLoaded(60000);
+		assertTrue(store.getMappedBytes() > 0);
+		assertTrue(store.getMappedBytes() <= SEGMENT_SIZE * 3);
+	}
+
+	@Test
+	public void test_growing_segment_is_not_mapped() {
+		store = new MappedSegmentExpressionStore(TemporaryFile.getInstance(), 0, 1L << 30, 1L << 30);
+		saveAll(60000);
+		assertLoaded(60000);
+		assertEquals(0, store.getMappedBytes());
+	}
+
+	@Test
+	public void test_newer_segments_should_be_preferred() {
+		store = new MappedSegmentExpressionStore(TemporaryFile.getInstance(), 0, SEGMENT_SIZE * 2, SEGMENT_SIZE);
+		saveAll(60000);
+		assertLoaded(60000);
+		Set<Integer> mapped = store.getMappedSegments();
+		assertFalse(mapped.isEmpty());
+		assertTrue(mapped.size() <= 2);
+		assertFalse(mapped.contains(0));
+	}
+
+	@Test
+	public void test_superseded_segments_should_be_released() {
+		store = new MappedSegmentExpressionStore(TemporaryFile.getInstance(), 0, 1L << 30, SEGMENT_SIZE);
+		saveAll(60000);
+		assertLoaded(60000);
+		Set<Integer> firstSaved = store.getMappedSegments();
+		assertFalse(firstSaved.isEmpty());
+		saveAll(60000);
+		assertLoaded(60000);
+		Set<Integer> mapped = store.getMappedSegments();
+		assertFalse(mapped.isEmpty());
+		for (Integer segment : firstSaved) {
+			assertFalse(mapped.contains(segment));
+		}
+	}
+
+	@Test
+	public void test_refused_segment_should_be_admitted_later() {
+		store = new MappedSegmentExpressionStore(TemporaryFile.getInstance(), 0, SEGMENT_SIZE, SEGMENT_SIZE);
+		saveAll(60000);
+		assertLoaded(40000, 40001);
+		assertFalse(store.getMappedSegments().isEmpty());
+		assertLoaded(0, 1);
+		assertFalse(store.getMappedSegments().contains(0));
+		save(20000, 60000);
+		assertLoaded(0, 1);
+		assertTrue(store.getMappedSegments().contains(0));
+		assertLoaded(60000);
+	}
+
+	private void saveAll(int count) {
+		save(0, count);
+	}
+
+	private void save(int from, int to) {
+		for (int id = from; id < to; id++) {
+			ArrayList<Expression> expressions = new ArrayList<>();
+			Expression expression = new Expression(id);
+			expression.setText("expression of " + id);
+			expression.setIdentifier("name" + (id % 10));
+			expressions.add(expression);
+			store.save(id, expressions);
+		}
+	}
+
+	private void assertLoaded(int count) {
+		assertLoaded(0, count);
+	}
+
+	private void assertLoaded(int from, int to) {
+		for (int id = from; id < to; id++) {
+			ArrayList<Expression> expressions = store.load(id);
+			assertEquals(1, expressions.size());
+			assertEquals(Integer.valueOf(id), expressions.get(0).id);
+			assertEquals("name" + (id % 10), expressions.get(0).getIdentifier().getName());
+		}
+	}
+}
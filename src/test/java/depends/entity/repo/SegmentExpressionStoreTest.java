@@ -0,0 +1,134 @@
+package depends.entity.repo;
+
+import depends.entity.*;
+import multilang.depends.util.file.TemporaryFile;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SegmentExpressionStoreTest {
+	private InMemoryEntityRepo repo;
+	private SegmentExpressionStore store;
+
+	@Before
+	public void setUp() {
+		TemporaryFile.reset();
+		repo = new InMemoryEntityRepo();
+		store = new SegmentExpressionStore(TemporaryFile.getInstance());
+	}
+
+	@After
+	public void tearDown() {
+		store.close();
+		TemporaryFile.getInstance().delete();
+	}
+
+	@Test
+	public void test_expressions_should_be_same_after_reload() {
+		FileEntity file = new FileEntity(false, "a.java", repo.generateId());
+		repo.add(file);
+		VarEntity var = new VarEntity(GenericName.build("v"), GenericName.build("int"), file, repo.generateId());
+		repo.add(var);
+
+		ArrayList<Expression> expressions = new ArrayList<>();
+		Expression parent = new Expression(repo.generateId());
+		parent.setText("a.foo()");
+		parent.setIdentifier(GenericName.build("foo", Arrays.asList(GenericName.build("T"))));
+		parent.setDot(true);
+		parent.setCall(true);
+		parent.setLine(12);
+		Expression child = new Expression(repo.generateId());
+		child.setIdentifier("a");
+		child.setRawType("int");
+		child.setSet(true);
+		child.setParent(parent);
+		child.addDeducedTypeVar(var);
+		expressions.add(parent);
+		expressions.add(child);
+		store.save(file.getId(), expressions);
+
+		ArrayList<Expression> reloaded = store.load(file.getId());
+		assertEquals(2, reloaded.size());
+		for (Expression expression:reloaded) {
+			expression.reload(repo, reloaded);
+		}
+		Expression reloadedParent = reloaded.get(0);
+		Expression reloadedChild = reloaded.get(1);
+		assertEquals(parent.id, reloadedParent.id);
+		assertEquals("foo__T__", reloadedParent.getIdentifier().uniqName());
+		assertTrue(reloadedParent.isDot());
+		assertTrue(reloadedParent.isCall());
+		assertFalse(reloadedParent.isSet());
+		assertEquals(Integer.valueOf(12), reloadedParent.getLocation().getLine());
+		assertEquals(GenericName.build("int"), reloadedChild.getRawType());
+		assertTrue(reloadedChild.isSet());
+		assertEquals(reloadedParent, reloadedChild.getParent());
+		assertEquals(parent.toString(), reloadedParent.toString());
+	}
+
+	@Test
+	public void test_save_again_should_replace_and_survive_buffer_flush() {
+		for (int id = 0; id < 60000; id++) {
+			store.save(id, expressionsOf(id, 3));
+		}
+		store.save(7, expressionsOf(7, 5));
+		assertEquals(5, store.load(7).size());
+		assertEquals(3, store.load(8).size());
+		assertEquals(Integer.valueOf(59999 * 100 + 2), store.load(59999).get(2).id);
+		assertNull(store.load(60000));
+	}
+
+	@Test
+	public void test_cache_should_spill_only_on_eviction() {
+		store.close();
+		store = new SegmentExpressionStore(TemporaryFile.getInstance(), 4096);
+		store.save(1, expressionsOf(1, 3));
+		assertEquals(0, store.getSpilledBytes());
+		assertEquals(3, store.load(1).size());
+		assertEquals(1, store.getCacheHits());
+		for (int id = 2; id < 1000; id++) {
+			store.save(id, expressionsOf(id, 3));
+		}
+		assertTrue(store.getSpilledBytes() > 0);
+		assertTrue(store.getCachedBytes() <= 4096);
+		assertEquals(3, store.load(1).size());
+		assertEquals(3, store.load(999).size());
+		assertEquals(1, store.getCacheMisses());
+		assertEquals(2, store.getCacheHits());
+	}
+
+	@Test
+	public void test_cached_expressions_should_be_loaded_as_copies() {
+		store.close();
+		store = new SegmentExpressionStore(TemporaryFile.getInstance(), 1 << 20);
+		ArrayList<Expression> expressions = expressionsOf(1, 3);
+		store.save(1, expressions);
+		expressions.get(0).setText("changed after save");
+		expressions.clear();
+
+		ArrayList<Expression> loaded = store.load(1);
+		assertEquals(3, loaded.size());
+		assertEquals(expressionsOf(1, 3).toString(), loaded.toString());
+		loaded.get(0).setText("changed after load");
+		ArrayList<Expression> loadedAgain = store.load(1);
+		assertNotSame(loaded.get(0), loadedAgain.get(0));
+		assertEquals(expressionsOf(1, 3).toString(), loadedAgain.toString());
+		assertEquals(0, store.getSpilledBytes());
+	}
+
+	private ArrayList<Expression> expressionsOf(int entityId, int count) {
+		ArrayList<Expression> expressions = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			Expression expression = new Expression(entityId * 100 + i);
+			expression.setText("text of expression " + i);
+			expression.setIdentifier("name" + (i % 2));
+			expressions.add(expression);
+		}
+		return expressions;
+	}
+}
@@ -0,0 +1,74 @@
+package depends.extractor;
+
+import depends.extractor.java.JavaLexer;
+import depends.extractor.java.JavaParser;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Lexer;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class AntlrPredictionCacheTest {
+	private static final String CODE = "package a; import java.util.*; class A { int f(List<String> l) { return l.size() + 1; } }";
+
+	@After
+	public void tearDown() {
+		AntlrPredictionCache.setMaxBytes(AntlrPredictionCache.DEFAULT_MAX_BYTES);
+	}
+
+	@Test
+	public void test_dfa_should_be_kept_between_files() {
+		AntlrPredictionCache cache = AntlrPredictionCache.of("test-java-warm");
+		parse(cache);
+		long states = cache.getDfaStates();
+		assertTrue(states > 0);
+		parse(cache);
+		assertEquals(states, cache.getDfaStates());
+		assertEquals(0, cache.getResets());
+	}
+
+	@Test
+	public void test_dfa_should_be_reset_over_ceiling() {
+		AntlrPredictionCache cache = AntlrPredictionCache.of("test-java-reset");
+		AntlrPredictionCache.setMaxBytes(1);
+		parse(cache);
+		assertEquals(1, cache.getResets());
+		assertEquals(0, cache.getDfaStates());
+		assertEquals(1, cache.getParsedFiles());
+	}
+
+	@Test
+	public void test_invalid_code_should_fallback_to_ll() {
+		AntlrPredictionCache cache = AntlrPredictionCache.of("test-java-two-stage");
+		parse(cache);
+		JavaParser.CompilationUnitContext tree = parse(cache, "class A { int f() { return 1 } }");
+		assertEquals(1, cache.getSllParses());
+		assertEquals(1, cache.getLlFallbacks());
+		assertEquals(1, tree.typeDeclaration().size());
+	}
+
+	@Test
+	public void test_ll_only_language_should_not_try_sll() {
+		AntlrPredictionCache cache = AntlrPredictionCache.of("test-java-ll-only");
+		AntlrPredictionCache.setTwoStageParse("test-java-ll-only", false);
+		parse(cache);
+		assertEquals(0, cache.getSllParses());
+		assertEquals(0, cache.getLlFallbacks());
+		assertEquals(1, cache.getParsedFiles());
+	}
+
+	private JavaParser.CompilationUnitContext parse(AntlrPredictionCache cache) {
+		return parse(cache, CODE);
+	}
+
+	private JavaParser.CompilationUnitContext parse(AntlrPredictionCache cache, String code) {
+		Lexer lexer = new JavaLexer(CharStreams.fromString(code));
+		cache.configure(lexer);
+		JavaParser parser = new JavaParser(new CommonTokenStream(lexer));
+		cache.configure(parser);
+		return cache.parse(parser, JavaParser::compilationUnit);
+	}
+}
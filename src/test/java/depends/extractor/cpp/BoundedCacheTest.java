@@ -0,0 +1,35 @@
+package depends.extractor.cpp;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class BoundedCacheTest {
+
+	@Test
+	public void test_least_recently_used_should_be_evicted() {
+		BoundedCache<String, String> cache = new BoundedCache<>(30, String::length);
+		cache.put("a", "0123456789");
+		cache.put("b", "0123456789");
+		cache.put("c", "0123456789");
+		assertNotNull(cache.get("a"));
+		cache.put("d", "0123456789");
+		assertNull(cache.get("b"));
+		assertNotNull(cache.get("a"));
+		assertEquals(30, cache.getWeight());
+		assertEquals(1, cache.getEvictionCount());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void test_too_heavy_value_should_not_be_cached() {
+		BoundedCache<String, String> cache = new BoundedCache<>(5, String::length);
+		cache.put("a", "0123456789");
+		assertNull(cache.get("a"));
+		assertEquals(0, cache.getWeight());
+		cache.put("b", "01234");
+		cache.setMaxWeight(0);
+		assertEquals(0, cache.size());
+	}
+}
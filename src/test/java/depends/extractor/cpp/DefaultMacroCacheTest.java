@@ -0,0 +1,78 @@
+package depends.extractor.cpp;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class DefaultMacroCacheTest {
+	private File dir;
+	/* not under dir, which is an include path of the tests */
+	private File cacheDir;
+
+	@Before
+	public void setUp() throws IOException {
+		dir = Files.createTempDirectory("macro-include").toFile();
+		cacheDir = Files.createTempDirectory("macro-cache").toFile();
+		DefaultMacroCache.setCacheDir(cacheDir.getPath());
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		DefaultMacroCache.setCacheDir(null);
+		FileUtils.deleteDirectory(dir);
+		FileUtils.deleteDirectory(cacheDir);
+	}
+
+	@Test
+	public void test_macros_should_be_reloaded_until_include_file_changes() throws IOException {
+		File config = new File(dir, "config.h");
+		FileUtils.fileWrite(config.getPath(), "#define A 1\n");
+		List<String> includePaths = Arrays.asList(dir.getPath(), config.getPath());
+		Map<String, String> macros = new HashMap<>();
+		macros.put("A", "1");
+		assertNull(DefaultMacroCache.load(includePaths));
+		DefaultMacroCache.save(includePaths, macros);
+		assertEquals(macros, DefaultMacroCache.load(includePaths));
+		assertNull(DefaultMacroCache.load(Arrays.asList(config.getPath())));
+
+		FileUtils.fileWrite(config.getPath(), "#define A 2\n");
+		assertNull(DefaultMacroCache.load(includePaths));
+	}
+
+	@Test
+	public void test_macros_should_be_reloaded_until_header_in_include_dir_changes() throws IOException {
+		File includeDir = new File(dir, "include");
+		includeDir.mkdirs();
+		File header = new File(includeDir, "defs.h");
+		FileUtils.fileWrite(header.getPath(), "#define B 1\n");
+		File config = new File(dir, "config.h");
+		FileUtils.fileWrite(config.getPath(), "#include <defs.h>\n");
+		List<String> includePaths = Arrays.asList(includeDir.getPath(), config.getPath());
+		Map<String, String> macros = new HashMap<>();
+		macros.put("B", "1");
+		DefaultMacroCache.save(includePaths, macros);
+		assertEquals(macros, DefaultMacroCache.load(includePaths));
+
+		FileUtils.fileWrite(header.getPath(), "#define B 22\n");
+		assertNull(DefaultMacroCache.load(includePaths));
+	}
+
+	@Test
+	public void test_disabled_cache_should_not_load() {
+		DefaultMacroCache.setCacheDir(null);
+		List<String> includePaths = Arrays.asList(dir.getPath());
+		DefaultMacroCache.save(includePaths, new HashMap<>());
+		assertNull(DefaultMacroCache.load(includePaths));
+	}
+}
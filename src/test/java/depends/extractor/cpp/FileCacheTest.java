@@ -0,0 +1,41 @@
+package depends.extractor.cpp;
+
+import depends.extractor.cpp.cdt.FileCache;
+import org.eclipse.cdt.core.index.IIndexFileLocation;
+import org.eclipse.cdt.core.parser.FileContent;
+import org.eclipse.cdt.internal.core.parser.scanner.InternalFileContent;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class FileCacheTest {
+
+	@After
+	public void tearDown() {
+		FileCache.getInstance().clear();
+		FileCache.setMaxBytes(FileCache.DEFAULT_MAX_BYTES);
+	}
+
+	@Test
+	public void test_contents_should_be_bounded_by_bytes() {
+		FileCache cache = FileCache.getInstance();
+		cache.clear();
+		FileCache.setMaxBytes(5000);
+		InternalFileContent a = (InternalFileContent) FileContent.create("a.h", new char[1000]);
+		InternalFileContent b = (InternalFileContent) FileContent.create("b.h", new char[1000]);
+		InternalFileContent c = (InternalFileContent) FileContent.create("c.h", new char[1000]);
+		cache.put("a.h", a);
+		cache.put("b.h", b);
+		assertSame(a, cache.get("a.h"));
+		cache.put("c.h", c);
+		assertNull(cache.get("b.h"));
+		assertSame(a, cache.get("a.h"));
+		assertSame(c, cache.get("c.h"));
+	}
+
+	@Test
+	public void test_index_location_should_not_fail_when_empty() {
+		assertNull(FileCache.getInstance().get((IIndexFileLocation) null));
+	}
+}
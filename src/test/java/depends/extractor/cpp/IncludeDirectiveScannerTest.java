@@ -0,0 +1,39 @@
+package depends.extractor.cpp;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+
+public class IncludeDirectiveScannerTest {
+
+	@Test
+	public void test_includes_should_be_found_in_order() {
+		String content = "#include \"a.h\"\n"
+				+ "  #  include <sys/b.h>\n"
+				+ "#ifdef X\n"
+				+ "#include_next \"c.h\" // comment\n"
+				+ "#else\n"
+				+ "#import <d.h>\n"
+				+ "#endif\n"
+				+ "#include HEADER_OF(e) /* comment */\n"
+				+ "int main() { return 0; }\n";
+		assertEquals(Arrays.asList("a.h", "sys/b.h", "c.h", "d.h", "HEADER_OF(e)"),
+				IncludeDirectiveScanner.scanContent(content));
+	}
+
+	@Test
+	public void test_includes_in_comments_and_literals_should_be_ignored() {
+		String content = "/* #include \"a.h\"\n"
+				+ "#include \"b.h\" */\n"
+				+ "// #include \"c.h\"\n"
+				+ "const char* s = \"\\\"#include \\\"d.h\\\"\";\n"
+				+ "int x; #include \"e.h\"\n"
+				+ "/* c */ #include \"f.h\"\n"
+				+ "#define M \\\n"
+				+ "#include \"g.h\"\n"
+				+ "#\\\ninclude \"h.h\"\n";
+		assertEquals(Arrays.asList("f.h", "h.h"), IncludeDirectiveScanner.scanContent(content));
+	}
+}
@@ -0,0 +1,121 @@
+package depends.extractor.cpp;
+
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MacroSnapshotStoreTest {
+
+	@Test
+	public void test_same_macros_should_share_snapshot() throws IOException {
+		File dir = Files.createTempDirectory("macro-store").toFile();
+		MacroSnapshotStore store = new MacroSnapshotStore(dir);
+		try {
+			Map<String, String> macros = new HashMap<>();
+			for (int i = 0; i < 1000; i++) {
+				macros.put("M" + i + "(x)", "x+" + i);
+			}
+			store.put("a.h", macros);
+			store.put("b.h", new HashMap<>(macros));
+			macros.put("EXTRA", "");
+			store.put("c.h", macros);
+			assertEquals(2, store.getSnapshotCount());
+			assertEquals(1, store.getSharedSnapshotCount());
+			assertEquals(macros, store.get("c.h"));
+			macros.remove("EXTRA");
+			assertEquals(macros, store.get("a.h"));
+			assertEquals(macros, store.get("b.h"));
+			assertNull(store.get("d.h"));
+			assertEquals("x+1", store.get("b.h").get("M1(x)"));
+			assertEquals(2002, store.getStringCount());
+		} finally {
+			store.close();
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	public void test_put_should_replace_macros_of_file() throws IOException {
+		File dir = Files.createTempDirectory("macro-store").toFile();
+		MacroSnapshotStore store = new MacroSnapshotStore(dir);
+		try {
+			Map<String, String> macros = new HashMap<>();
+			macros.put("A", "1");
+			store.put("a.h", macros);
+			macros.put("A", "2");
+			store.put("a.h", macros);
+			assertEquals("2", store.get("a.h").get("A"));
+			store.put("empty.h", new HashMap<>());
+			assertTrue(store.get("empty.h").isEmpty());
+		} finally {
+			store.close();
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	public void test_stores_in_same_dir_should_not_share_segments() throws IOException {
+		File dir = Files.createTempDirectory("macro-store").toFile();
+		MacroSnapshotStore first = new MacroSnapshotStore(dir);
+		MacroSnapshotStore second = new MacroSnapshotStore(dir);
+		try {
+			Map<String, String> macros = new HashMap<>();
+			macros.put("A", "1");
+			first.put("a.h", macros);
+			macros.put("A", "2");
+			second.put("a.h", macros);
+			assertEquals("1", first.get("a.h").get("A"));
+			assertEquals("2", second.get("a.h").get("A"));
+		} finally {
+			first.close();
+			second.close();
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	public void test_loaded_macros_should_be_read_only() throws IOException {
+		File dir = Files.createTempDirectory("macro-store").toFile();
+		MacroSnapshotStore store = new MacroSnapshotStore(dir);
+		try {
+			Map<String, String> macros = new HashMap<>();
+			macros.put("A", "1");
+			store.put("a.h", macros);
+			try {
+				store.get("a.h").put("A", "2");
+				fail("the loaded macros should be read-only");
+			} catch (UnsupportedOperationException e) {
+			}
+			assertEquals("1", store.get("a.h").get("A"));
+		} finally {
+			store.close();
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+
+	@Test
+	public void test_close_should_clear_strings() throws IOException {
+		File dir = Files.createTempDirectory("macro-store").toFile();
+		MacroSnapshotStore store = new MacroSnapshotStore(dir);
+		try {
+			Map<String, String> macros = new HashMap<>();
+			macros.put("A", "1");
+			store.put("a.h", macros);
+			assertEquals(2, store.getStringCount());
+			store.close();
+			assertEquals(0, store.getStringCount());
+			assertEquals(0, store.getMappedBytes());
+			assertNull(store.get("a.h"));
+		} finally {
+			store.close();
+			FileUtils.deleteDirectory(dir);
+		}
+	}
+}
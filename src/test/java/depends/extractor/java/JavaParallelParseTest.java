@@ -0,0 +1,41 @@
+package depends.extractor.java;
+
+import depends.entity.Entity;
+import depends.entity.repo.EntityRepo;
+import depends.extractor.AbstractLangProcessor;
+import depends.relations.BindingResolver;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.TemporaryFile;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JavaParallelParseTest {
+
+	@Test
+	public void test_parallel_parse_should_build_same_entities_as_single_thread() {
+		String src = FileUtil.uniqFilePath("./src/test/resources/java-code-examples");
+		List<String> serial = parseAll(src, 1);
+		List<String> parallel = parseAll(src, 4);
+		assertEquals(serial, parallel);
+	}
+
+	private List<String> parseAll(String src, int parseThreads) {
+		TemporaryFile.reset();
+		AbstractLangProcessor langProcessor = new JavaProcessor();
+		langProcessor.setParseThreads(parseThreads);
+		EntityRepo repo = langProcessor.buildDependencies(src, new String[]{},
+				new BindingResolver(langProcessor, false, false));
+		List<String> entities = new ArrayList<>();
+		Iterator<Entity> iterator = repo.entityIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			entities.add(entity.getId() + ":" + entity.getQualifiedName());
+		}
+		return entities;
+	}
+}
@@ -0,0 +1,47 @@
+package depends.extractor.java;
+
+import depends.entity.Entity;
+import depends.entity.repo.EntityRepo;
+import depends.extractor.AbstractLangProcessor;
+import depends.relations.BindingResolver;
+import depends.relations.Relation;
+import depends.relations.RelationCounter;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.TemporaryFile;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JavaParallelRelationTest {
+
+	@Test
+	public void test_parallel_relations_should_be_same_as_single_thread() {
+		String src = FileUtil.uniqFilePath("./src/test/resources/java-code-examples");
+		List<String> serial = computeAll(src, 1);
+		List<String> parallel = computeAll(src, 4);
+		assertEquals(serial, parallel);
+	}
+
+	private List<String> computeAll(String src, int threads) {
+		TemporaryFile.reset();
+		AbstractLangProcessor langProcessor = new JavaProcessor();
+		BindingResolver bindingResolver = new BindingResolver(langProcessor, false, false);
+		EntityRepo repo = langProcessor.buildDependencies(src, new String[]{}, bindingResolver);
+		RelationCounter relationCounter = new RelationCounter(repo, langProcessor, bindingResolver);
+		relationCounter.setThreads(threads);
+		relationCounter.computeRelations();
+		List<String> relations = new ArrayList<>();
+		Iterator<Entity> iterator = repo.entityIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			for (Relation relation : entity.getRelations()) {
+				relations.add(entity.getId() + ":" + relation);
+			}
+		}
+		return relations;
+	}
+}
@@ -0,0 +1,92 @@
+package depends.extractor.java;
+
+import depends.entity.Entity;
+import depends.entity.repo.EntityRepo;
+import depends.extractor.AbstractLangProcessor;
+import depends.relations.BindingResolver;
+import depends.relations.Relation;
+import depends.relations.RelationCounter;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.TemporaryFile;
+import org.codehaus.plexus.util.FileUtils;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+public class JavaParseCacheTest {
+	private File workDir;
+	private String src;
+	private String cacheDir;
+
+	@Before
+	public void setUp() throws IOException {
+		workDir = Files.createTempDirectory("parse-cache-test").toFile();
+		File srcDir = new File(workDir, "src");
+		FileUtils.copyDirectoryStructure(new File("./src/test/resources/java-code-examples"), srcDir);
+		src = FileUtil.uniqFilePath(srcDir.getPath());
+		cacheDir = new File(workDir, "cache").getPath();
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		FileUtils.deleteDirectory(workDir);
+	}
+
+	@Test
+	public void test_relations_from_cache_should_be_same_as_parsed() throws IOException {
+		List<String> expected = computeAll(null);
+		assertEquals(expected, computeAll(cacheDir));
+		AbstractLangProcessor cached = new JavaProcessor();
+		assertEquals(expected, computeAll(cached, cacheDir));
+		assertEquals(0, cached.getParseCache().getParsedFiles());
+		assertEquals(fileCount(), cached.getParseCache().getLoadedFiles());
+	}
+
+	@Test
+	public void test_changed_file_should_be_parsed_again() throws IOException {
+		computeAll(cacheDir);
+		File changed = new File(src, "GenericTypeTest.java");
+		FileUtils.fileAppend(changed.getPath(), "\nclass AddedByTest { GenericTypeTest t; }\n");
+		List<String> expected = computeAll(null);
+		AbstractLangProcessor cached = new JavaProcessor();
+		assertEquals(expected, computeAll(cached, cacheDir));
+		assertEquals(1, cached.getParseCache().getParsedFiles());
+		assertEquals(fileCount() - 1, cached.getParseCache().getLoadedFiles());
+	}
+
+	private int fileCount() throws IOException {
+		return FileUtils.getFiles(new File(src), "**/*.java", null, false).size();
+	}
+
+	private List<String> computeAll(String parseCacheDir) {
+		return computeAll(new JavaProcessor(), parseCacheDir);
+	}
+
+	private List<String> computeAll(AbstractLangProcessor langProcessor, String parseCacheDir) {
+		TemporaryFile.reset();
+		langProcessor.setParseCacheDir(parseCacheDir);
+		BindingResolver bindingResolver = new BindingResolver(langProcessor, false, false);
+		EntityRepo repo = langProcessor.buildDependencies(src, new String[]{}, bindingResolver);
+		new RelationCounter(repo, langProcessor, bindingResolver).computeRelations();
+		List<String> relations = new ArrayList<>();
+		Iterator<Entity> iterator = repo.entityIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			for (Relation relation : entity.getRelations()) {
+				relations.add(entity.getQualifiedName() + " " + relation.getType() + " " + relation.getEntity().getQualifiedName());
+			}
+		}
+		Collections.sort(relations);
+		return relations;
+	}
+}
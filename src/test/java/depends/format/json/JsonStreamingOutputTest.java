@@ -0,0 +1,62 @@
+package depends.format.json;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import depends.format.FileAttributes;
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.LocationInfo;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+public class JsonStreamingOutputTest {
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+	private DependencyMatrix dependencyMatrix;
+
+	@Before
+	public void init() {
+		dependencyMatrix = new DependencyMatrix(0, null, false);
+		for (int i = 0; i < 10; i++)
+			dependencyMatrix.addNode("node" + i, i);
+		for (int i = 0; i < 10; i++) {
+			for (int j = 0; j < 10; j += 3) {
+				DependencyDetail detail = new DependencyDetail(new LocationInfo("from" + i, "type", "file" + i, i),
+						new LocationInfo("to" + j, "function", "file" + j, j));
+				dependencyMatrix.addDependency("Call", i, j, 1, detail);
+				dependencyMatrix.addDependency("Use", i, j, 2, (DependencyDetail) null);
+			}
+		}
+	}
+
+	@Test
+	public void test_streamed_output_should_be_same_as_object_tree() throws IOException {
+		new JsonFormatDependencyDumper(dependencyMatrix, "test", folder.getRoot().getAbsolutePath()).output();
+		ObjectMapper mapper = new ObjectMapper();
+		JDepObject expected = new JDataBuilder().build(dependencyMatrix, new FileAttributes("test"));
+		assertEquals(mapper.readTree(mapper.writeValueAsString(expected)), mapper.readTree(outputFile()));
+		String content = new String(Files.readAllBytes(outputFile().toPath()), "UTF-8");
+		assertEquals(mapper.writerWithDefaultPrettyPrinter().writeValueAsString(mapper.readTree(content)), content);
+	}
+
+	@Test
+	public void test_compact_output_should_not_be_pretty_printed() throws IOException {
+		new JsonFormatDependencyDumper(dependencyMatrix, "test", folder.getRoot().getAbsolutePath(), false).output();
+		ObjectMapper mapper = new ObjectMapper();
+		String content = new String(Files.readAllBytes(outputFile().toPath()), "UTF-8");
+		assertEquals(mapper.writeValueAsString(mapper.readTree(content)), content);
+		JDepObject expected = new JDataBuilder().build(dependencyMatrix, new FileAttributes("test"));
+		assertEquals(mapper.readTree(mapper.writeValueAsString(expected)), mapper.readTree(content));
+	}
+
+	private File outputFile() {
+		return new File(folder.getRoot(), "test.json");
+	}
+}
@@ -0,0 +1,91 @@
+package depends.matrix;
+
+import depends.deptypes.DependencyType;
+import depends.matrix.core.DependencyDetail;
+import depends.matrix.core.DependencyMatrix;
+import depends.matrix.core.DependencyPair;
+import depends.matrix.core.DependencyValue;
+import depends.matrix.core.SparseDependencyMatrix;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+
+import static org.junit.Assert.assertEquals;
+
+public class DependencyMatrixTest {
+
+	@Test
+	public void test_dependencies_of_same_pair_and_type_should_be_merged() {
+		DependencyMatrix matrix = new DependencyMatrix(0, null, false);
+		matrix.addDependency(DependencyType.CALL, 1, 2, 1, (DependencyDetail) null);
+		matrix.addDependency(DependencyType.CALL, 1, 2, 2, (DependencyDetail) null);
+		matrix.addDependency(DependencyType.USE, 1, 2, 1, (DependencyDetail) null);
+		assertEquals(1, matrix.getDependencyPairs().size());
+		DependencyPair pair = matrix.getDependencyPairs().iterator().next();
+		ArrayList<DependencyValue> values = new ArrayList<>(pair.getDependencies());
+		assertEquals(2, values.size());
+		assertEquals(DependencyType.CALL, values.get(0).getType());
+		assertEquals(3, values.get(0).getWeight());
+		assertEquals(DependencyType.USE, values.get(1).getType());
+	}
+
+	@Test
+	public void test_pairs_should_be_ordered_by_from_and_to() {
+		DependencyMatrix matrix = new DependencyMatrix(0, null, false);
+		for (int from = 300; from >= 0; from--) {
+			matrix.addDependency(DependencyType.CALL, from, 7, 1, (DependencyDetail) null);
+			matrix.addDependency(DependencyType.CALL, from, 3, 1, (DependencyDetail) null);
+		}
+		assertEquals(600, matrix.getDependencyPairs().size());
+		Iterator<DependencyPair> iterator = matrix.getDependencyPairs().iterator();
+		for (int from = 0; from <= 300; from++) {
+			if (from == 3 || from == 7) {
+				DependencyPair pair = iterator.next();
+				assertEquals(Integer.valueOf(from), pair.getFrom());
+				assertEquals(Integer.valueOf(from == 3 ? 7 : 3), pair.getTo());
+				continue;
+			}
+			assertEquals(Integer.valueOf(3), iterator.next().getTo());
+			assertEquals(Integer.valueOf(7), iterator.next().getTo());
+		}
+	}
+
+	@Test
+	public void test_type_filter_should_apply_to_possible_dependencies() {
+		DependencyMatrix matrix = new DependencyMatrix(0, Arrays.asList(DependencyType.CALL), false);
+		matrix.addDependency(DependencyType.CALL + DependencyType.POSSIBLE_DEP, 1, 2, 1, (DependencyDetail) null);
+		matrix.addDependency(DependencyType.USE, 1, 2, 1, (DependencyDetail) null);
+		matrix.addDependency(DependencyType.CALL, 2, 2, 1, (DependencyDetail) null);
+		assertEquals(1, matrix.getDependencyPairs().size());
+		assertEquals(1, matrix.getDependencyPairs().iterator().next().getDependencies().size());
+	}
+
+	@Test
+	public void test_reorder_should_renumber_and_merge_cells_into_sparse_form() {
+		DependencyMatrix matrix = new DependencyMatrix(0, null, false);
+		matrix.addNode("c", 10);
+		matrix.addNode("a", 20);
+		matrix.addNode("b", 30);
+		matrix.addDependency(DependencyType.CALL, 10, 20, 1, (DependencyDetail) null);
+		matrix.addDependency(DependencyType.USE, 10, 30, 2, (DependencyDetail) null);
+		matrix.addDependency(DependencyType.CALL, 30, 20, 4, (DependencyDetail) null);
+		// c->a, c->b and b->a, with the new ids a=0, b=1, c=2
+		matrix.reorder(new ArrayList<>(Arrays.asList("a", "b", "c")), id -> (id / 10 + 1) % 3);
+		assertEquals(Arrays.asList("a", "b", "c"), matrix.getNodes());
+		SparseDependencyMatrix sparse = matrix.getSparseMatrix();
+		assertEquals(3, sparse.getRowCount());
+		assertEquals(3, sparse.getEntryCount());
+		assertEquals(0, sparse.getRowEnd(0) - sparse.getRowStart(0));
+		int entry = sparse.getRowStart(1);
+		assertEquals(0, sparse.getColumn(entry));
+		assertEquals(4, sparse.getWeight(sparse.getValueStart(entry)));
+		entry = sparse.getRowStart(2);
+		assertEquals(0, sparse.getColumn(entry));
+		assertEquals(DependencyType.CALL, sparse.getType(sparse.getValueStart(entry)));
+		assertEquals(1, sparse.getColumn(entry + 1));
+		assertEquals(DependencyType.USE, sparse.getType(sparse.getValueStart(entry + 1)));
+		assertEquals(3, matrix.getDependencyPairs().size());
+	}
+}
@@ -0,0 +1,49 @@
+package depends.metrics;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class PipelineMetricsTest {
+
+	@Test
+	public void test_phases_of_same_name_should_be_accumulated() throws InterruptedException {
+		PipelineMetrics metrics = new PipelineMetrics();
+		for (int i = 0; i < 3; i++) {
+			try (PipelineMetrics.Phase phase = metrics.start("dumper.json")) {
+				Thread.sleep(5);
+			}
+		}
+		assertEquals(3, metrics.getPhaseCount("dumper.json"));
+		assertTrue(metrics.getWallMillis("dumper.json") >= 15);
+		assertEquals(0, metrics.getPhaseCount("parse"));
+	}
+
+	@Test
+	public void test_report_should_be_json() throws IOException {
+		PipelineMetrics metrics = new PipelineMetrics();
+		metrics.setLanguage("java");
+		try (PipelineMetrics.Phase phase = metrics.start("parse")) {
+			metrics.count("files", 10);
+		}
+		metrics.cache("nameResolution", 3, 1);
+		File file = File.createTempFile("metrics", ".json");
+		try {
+			metrics.write(file);
+			JsonNode report = new ObjectMapper().readTree(file);
+			assertEquals(PipelineMetrics.SCHEMA_VERSION, report.get("schemaVersion").asText());
+			assertEquals("parse", report.get("phases").get(0).get("name").asText());
+			assertEquals(10, report.get("languages").get("java").get("files").asLong());
+			assertEquals(10, report.get("counters").get("files").asLong());
+			assertEquals(0.75, report.get("caches").get("nameResolution").get("hitRate").asDouble(), 0.001);
+		} finally {
+			file.delete();
+		}
+	}
+}
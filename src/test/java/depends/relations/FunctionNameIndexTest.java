@@ -0,0 +1,71 @@
+package depends.relations;
+
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.FunctionCall;
+import depends.entity.FunctionEntity;
+import depends.entity.GenericName;
+import depends.entity.TypeEntity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class FunctionNameIndexTest {
+	private int nextId = 0;
+
+	@Test
+	public void test_search_should_be_same_as_scan() {
+		Random random = new Random(42);
+		List<Entity> files = new ArrayList<>();
+		for (int f = 0; f < 20; f++) {
+			FileEntity file = new FileEntity(false, "file" + f, nextId++);
+			for (int t = 0; t < 10; t++) {
+				TypeEntity type = new TypeEntity(GenericName.build("Type" + f + "_" + t), file, nextId++);
+				for (int m = 0; m < 8; m++) {
+					type.addFunction(new FunctionEntity(GenericName.build("m" + random.nextInt(30)), type, nextId++, null));
+				}
+				file.addType(type);
+			}
+			files.add(file);
+		}
+		FunctionNameIndex index = new FunctionNameIndex(files.iterator());
+		for (int q = 0; q < 500; q++) {
+			List<FunctionCall> calls = new ArrayList<>();
+			for (int c = 0; c <= q % 3; c++) {
+				calls.add(new FunctionCall(GenericName.build("m" + random.nextInt(32))));
+			}
+			assertEquals(scan(files, calls), index.search(calls));
+		}
+		assertTrue(index.getMemoHits() > 0);
+	}
+
+	@Test
+	public void test_unknown_function_should_match_nothing() {
+		FileEntity file = new FileEntity(false, "file", nextId++);
+		TypeEntity type = new TypeEntity(GenericName.build("Type"), file, nextId++);
+		type.addFunction(new FunctionEntity(GenericName.build("run"), type, nextId++, null));
+		file.addType(type);
+		FunctionNameIndex index = new FunctionNameIndex(Arrays.<Entity>asList(file).iterator());
+		List<FunctionCall> calls = Arrays.asList(new FunctionCall(GenericName.build("run")),
+				new FunctionCall(GenericName.build("stop")));
+		assertTrue(index.search(calls).isEmpty());
+		assertEquals(Arrays.asList(type), index.search(calls.subList(0, 1)));
+	}
+
+	private List<TypeEntity> scan(List<Entity> files, List<FunctionCall> calls) {
+		List<TypeEntity> types = new ArrayList<>();
+		for (Entity file : files) {
+			for (TypeEntity type : ((FileEntity) file).getDeclaredTypes()) {
+				if (new FunctionMatcher(type.getFunctions()).containsAll(calls))
+					types.add(type);
+			}
+		}
+		return types;
+	}
+}
@@ -0,0 +1,85 @@
+package depends.relations;
+
+import depends.entity.CandidateTypes;
+import depends.entity.Entity;
+import depends.entity.FileEntity;
+import depends.entity.GenericName;
+import depends.entity.TypeEntity;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class NameResolutionCacheTest {
+	private int nextId = 0;
+
+	@Test
+	public void test_lookup_should_be_computed_once_while_nothing_changed() {
+		FileEntity file = new FileEntity(false, "file", nextId++);
+		TypeEntity type = new TypeEntity(GenericName.build("A"), file, nextId++);
+		NameResolutionCache cache = new NameResolutionCache();
+		AtomicInteger computed = new AtomicInteger();
+		for (int i = 0; i < 3; i++) {
+			Entity found = cache.lookup(NameResolutionCache.SAME_PACKAGE, file, "A", () -> {
+				computed.incrementAndGet();
+				return file.getByName("A", new HashSet<>());
+			});
+			assertSame(type, found);
+		}
+		assertEquals(1, computed.get());
+		assertEquals(2, cache.getHitCount());
+		assertEquals(1, cache.getMissCount());
+	}
+
+	@Test
+	public void test_name_not_found_should_be_found_after_it_becomes_visible() {
+		FileEntity file = new FileEntity(false, "file", nextId++);
+		NameResolutionCache cache = new NameResolutionCache();
+		assertNull(cache.lookup(NameResolutionCache.SAME_PACKAGE, file, "B", () -> file.getByName("B", new HashSet<>())));
+		assertNull(cache.lookup(NameResolutionCache.SAME_PACKAGE, file, "B", () -> file.getByName("B", new HashSet<>())));
+		assertEquals(1, cache.getHitCount());
+		TypeEntity type = new TypeEntity(GenericName.build("B"), file, nextId++);
+		assertSame(type, cache.lookup(NameResolutionCache.SAME_PACKAGE, file, "B", () -> file.getByName("B", new HashSet<>())));
+	}
+
+	@Test
+	public void test_stale_entries_should_be_overwritten_not_dropped() {
+		FileEntity file = new FileEntity(false, "file", nextId++);
+		TypeEntity type = new TypeEntity(GenericName.build("D"), file, nextId++);
+		NameResolutionCache cache = new NameResolutionCache();
+		assertSame(type, cache.lookup(NameResolutionCache.SAME_PACKAGE, file, "D", () -> type));
+		assertNull(cache.lookup(NameResolutionCache.IMPORTED, file, "D", () -> null));
+		Entity.visibleNamesChanged();
+		assertSame(type, cache.lookup(NameResolutionCache.SAME_PACKAGE, file, "D", () -> type));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(2, cache.size());
+		assertSame(type, cache.lookup(NameResolutionCache.SAME_PACKAGE, file, "D", () -> type));
+		assertEquals(1, cache.getHitCount());
+	}
+
+	@Test
+	public void test_candidate_types_should_not_change_visible_names() {
+		long version = Entity.getVisibleNamesVersion();
+		Entity.visibleNamesChanged(new CandidateTypes(new ArrayList<>(), nextId++));
+		assertEquals(version, Entity.getVisibleNamesVersion());
+	}
+
+	@Test
+	public void test_kinds_and_scopes_should_be_cached_separately() {
+		FileEntity file1 = new FileEntity(false, "file1", nextId++);
+		FileEntity file2 = new FileEntity(false, "file2", nextId++);
+		TypeEntity type1 = new TypeEntity(GenericName.build("C"), file1, nextId++);
+		TypeEntity type2 = new TypeEntity(GenericName.build("C"), file2, nextId++);
+		NameResolutionCache cache = new NameResolutionCache();
+		assertSame(type1, cache.lookup(NameResolutionCache.SAME_PACKAGE, file1, "C", () -> type1));
+		assertSame(type2, cache.lookup(NameResolutionCache.SAME_PACKAGE, file2, "C", () -> type2));
+		assertNull(cache.lookup(NameResolutionCache.IMPORTED, file1, "C", () -> null));
+		assertEquals(0, cache.getHitCount());
+		assertEquals(3, cache.size());
+	}
+}
@@ -0,0 +1,99 @@
+package depends.relations;
+
+import depends.entity.Entity;
+import depends.entity.TypeEntity;
+import depends.entity.VarEntity;
+import depends.entity.repo.EntityRepo;
+import depends.extractor.AbstractLangProcessor;
+import depends.extractor.golang.GoProcessor;
+import depends.extractor.java.JavaProcessor;
+import depends.extractor.python.union.PythonProcessor;
+import depends.extractor.ruby.RubyProcessor;
+import multilang.depends.util.file.FileUtil;
+import multilang.depends.util.file.TemporaryFile;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+public class ParallelBindingResolverTest {
+
+	@Test
+	public void test_java_parallel_bindings_should_be_same_as_single_thread() {
+		assertSameAsSingleThread("./src/test/resources/java-code-examples", JavaProcessor::new);
+	}
+
+	@Test
+	public void test_go_parallel_bindings_should_be_same_as_single_thread() {
+		assertSameAsSingleThread("./src/test/resources/go-code-examples", GoProcessor::new);
+	}
+
+	@Test
+	public void test_python_parallel_bindings_should_be_same_as_single_thread() {
+		assertSameAsSingleThread("./src/test/resources/python-code-examples", PythonProcessor::new);
+	}
+
+	@Test
+	public void test_ruby_parallel_bindings_should_be_same_as_single_thread() {
+		assertSameAsSingleThread("./src/test/resources/ruby-code-examples", RubyProcessor::new);
+	}
+
+	@Test
+	public void test_java_inheritance_bindings_should_be_same_in_every_parallel_run() {
+		String src = FileUtil.uniqFilePath("./src/test/resources/java-inheritance-examples/InheritanceChains");
+		List<String> first = computeAll(src, new JavaProcessor(), 4);
+		for (int run = 0; run < 10; run++) {
+			assertEquals(first, computeAll(src, new JavaProcessor(), 4));
+		}
+	}
+
+	@Test
+	public void test_only_parallel_resolving_should_find_names_through_supertypes_sorted_later() {
+		String src = FileUtil.uniqFilePath("./src/test/resources/java-inheritance-examples/InheritanceChains");
+		/* A1 finds Shared through B1 and C1, which are sorted after it */
+		assertEquals("inheritance.C1.Shared", typeOf(resolve(src, new JavaProcessor(), 4), "inheritance.A1.shared"));
+		assertNotEquals("inheritance.C1.Shared", typeOf(resolve(src, new JavaProcessor(), 1), "inheritance.A1.shared"));
+	}
+
+	private void assertSameAsSingleThread(String path, Supplier<AbstractLangProcessor> processor) {
+		String src = FileUtil.uniqFilePath(path);
+		List<String> serial = computeAll(src, processor.get(), 1);
+		List<String> parallel = computeAll(src, processor.get(), 4);
+		assertEquals(serial, parallel);
+	}
+
+	private static EntityRepo resolve(String src, AbstractLangProcessor langProcessor, int threads) {
+		TemporaryFile.reset();
+		BindingResolver bindingResolver = new BindingResolver(langProcessor, false, true);
+		bindingResolver.setThreads(threads);
+		return langProcessor.buildDependencies(src, new String[]{}, bindingResolver);
+	}
+
+	private static String typeOf(EntityRepo repo, String varName) {
+		TypeEntity type = ((VarEntity) repo.getEntity(varName)).getType();
+		return type == null ? null : type.getQualifiedName();
+	}
+
+	static List<String> computeAll(String src, AbstractLangProcessor langProcessor, int threads) {
+		TemporaryFile.reset();
+		BindingResolver bindingResolver = new BindingResolver(langProcessor, false, true);
+		bindingResolver.setThreads(threads);
+		EntityRepo repo = langProcessor.buildDependencies(src, new String[]{}, bindingResolver);
+		RelationCounter relationCounter = new RelationCounter(repo, langProcessor, bindingResolver);
+		relationCounter.computeRelations();
+		List<String> relations = new ArrayList<>();
+		Iterator<Entity> iterator = repo.entityIterator();
+		while (iterator.hasNext()) {
+			Entity entity = iterator.next();
+			for (Relation relation : entity.getRelations()) {
+				relations.add(entity.getId() + ":" + relation);
+			}
+		}
+		return relations;
+	}
+}
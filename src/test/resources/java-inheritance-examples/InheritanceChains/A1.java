@@ -0,0 +1,12 @@
+package inheritance;
+
+public class A1 extends B1 {
+	Shared shared;
+	Deep deep;
+	public void run() {
+		shared.call();
+		deep.go();
+		B2.Base base = new B2.Base();
+		base.size();
+	}
+}
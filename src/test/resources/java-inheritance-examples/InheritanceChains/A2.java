@@ -0,0 +1,11 @@
+package inheritance;
+
+public class A2 extends B2 implements I2 {
+	Base base;
+	Shared shared;
+	public void run() {
+		base.size();
+		shared.call();
+		done();
+	}
+}
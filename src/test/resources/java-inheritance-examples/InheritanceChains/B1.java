@@ -0,0 +1,5 @@
+package inheritance;
+
+public class B1 extends C1 implements I1 {
+	Shared other;
+}
@@ -0,0 +1,6 @@
+package inheritance;
+
+public class B2 extends C2 {
+	public void done() {
+	}
+}
@@ -0,0 +1,8 @@
+package inheritance;
+
+public class C1 extends C2 {
+	public static class Shared {
+		public void call() {
+		}
+	}
+}
@@ -0,0 +1,9 @@
+package inheritance;
+
+public class C2 {
+	public static class Base {
+		public int size() {
+			return 0;
+		}
+	}
+}
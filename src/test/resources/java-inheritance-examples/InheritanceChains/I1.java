@@ -0,0 +1,8 @@
+package inheritance;
+
+public interface I1 extends I2 {
+	class Deep {
+		public void go() {
+		}
+	}
+}
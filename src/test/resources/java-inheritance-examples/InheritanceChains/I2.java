@@ -0,0 +1,8 @@
+package inheritance;
+
+public interface I2 {
+	class Shared {
+		public void call() {
+		}
+	}
+}